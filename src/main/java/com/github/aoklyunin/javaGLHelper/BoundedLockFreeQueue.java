@@ -0,0 +1,236 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Ограниченная неблокирующая очередь для нескольких производителей.
+ * Очередь построена на кольцевом массиве с порядковым номером в каждой ячейке
+ * (схема Вьюкова): производители и потребитель захватывают ячейки сравнением с обменом
+ * и никогда не ждут друг друга на мониторе. Поведение при переполнении задаётся
+ * политикой {@link OverflowPolicy}
+ *
+ * @param <T> тип элементов
+ */
+public class BoundedLockFreeQueue<T> {
+    /**
+     * Политика переполнения
+     */
+    public enum OverflowPolicy {
+        /**
+         * вытеснить самый старый элемент
+         */
+        DROP_OLDEST,
+        /**
+         * отбросить добавляемый элемент
+         */
+        DROP_NEWEST,
+        /**
+         * отбросить добавляемый элемент, а кол-во отброшенных элементов
+         * сообщить потребителю, например, итоговой строкой консоли
+         */
+        COUNT_DROPPED
+    }
+
+    /**
+     * элементы
+     */
+    @NotNull
+    private final AtomicReferenceArray<T> buffer;
+    /**
+     * порядковые номера ячеек: номер, равный позиции записи, означает, что ячейка свободна,
+     * равный позиции записи + 1 - что в ней лежит элемент
+     */
+    @NotNull
+    private final AtomicLongArray sequences;
+    /**
+     * маска индекса ячейки
+     */
+    private final int mask;
+    /**
+     * политика переполнения
+     */
+    @NotNull
+    private final OverflowPolicy overflowPolicy;
+    /**
+     * позиция записи
+     */
+    @NotNull
+    private final AtomicLong enqueuePos = new AtomicLong();
+    /**
+     * позиция чтения
+     */
+    @NotNull
+    private final AtomicLong dequeuePos = new AtomicLong();
+    /**
+     * кол-во отброшенных элементов
+     */
+    @NotNull
+    private final AtomicLong droppedCnt = new AtomicLong();
+
+    /**
+     * Конструктор ограниченной неблокирующей очереди
+     *
+     * @param capacity       ёмкость, округляется вверх до степени двойки
+     * @param overflowPolicy политика переполнения
+     */
+    public BoundedLockFreeQueue(int capacity, @NotNull OverflowPolicy overflowPolicy) {
+        if (capacity <= 0 || capacity > 1 << 30)
+            throw new IllegalArgumentException("capacity must be in [1, 2^30]: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequences.set(i, i);
+        this.mask = size - 1;
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+    }
+
+    /**
+     * Добавить элемент. Метод можно вызывать из любого потока
+     *
+     * @param element элемент
+     * @return флаг, попал ли элемент в очередь
+     */
+    public boolean offer(@NotNull T element) {
+        Objects.requireNonNull(element);
+        while (!tryOffer(element)) {
+            if (overflowPolicy != OverflowPolicy.DROP_OLDEST) {
+                droppedCnt.incrementAndGet();
+                return false;
+            }
+            if (poll() != null)
+                droppedCnt.incrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * Попытаться добавить элемент
+     *
+     * @param element элемент
+     * @return флаг, попал ли элемент в очередь, false - очередь заполнена
+     */
+    private boolean tryOffer(@NotNull T element) {
+        long pos = enqueuePos.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (enqueuePos.compareAndSet(pos, pos + 1))
+                    break;
+                pos = enqueuePos.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = enqueuePos.get();
+            }
+        }
+        int index = (int) pos & mask;
+        buffer.set(index, element);
+        sequences.set(index, pos + 1);
+        return true;
+    }
+
+    /**
+     * Извлечь самый старый элемент
+     *
+     * @return элемент, null, если очередь пуста
+     */
+    @Nullable
+    public T poll() {
+        long pos = dequeuePos.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (dequeuePos.compareAndSet(pos, pos + 1))
+                    break;
+                pos = dequeuePos.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = dequeuePos.get();
+            }
+        }
+        int index = (int) pos & mask;
+        T element = buffer.get(index);
+        buffer.set(index, null);
+        sequences.set(index, pos + mask + 1);
+        return element;
+    }
+
+    /**
+     * Извлечь элементы и передать их получателю. Извлекается не больше ёмкости очереди,
+     * чтобы непрерывно пишущие производители не задерживали потребителя бесконечно
+     *
+     * @param consumer получатель элементов
+     * @return кол-во извлечённых элементов
+     */
+    public int drain(@NotNull Consumer<T> consumer) {
+        int cnt = 0;
+        T element;
+        while (cnt <= mask && (element = poll()) != null) {
+            consumer.accept(element);
+            cnt++;
+        }
+        return cnt;
+    }
+
+    /**
+     * Получить приблизительное кол-во элементов в очереди
+     *
+     * @return кол-во элементов
+     */
+    public int size() {
+        long size = enqueuePos.get() - dequeuePos.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    /**
+     * Получить ёмкость
+     *
+     * @return ёмкость
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Получить политику переполнения
+     *
+     * @return политика переполнения
+     */
+    @NotNull
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Получить кол-во отброшенных элементов
+     *
+     * @return кол-во отброшенных элементов
+     */
+    public long getDroppedCnt() {
+        return droppedCnt.get();
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "BoundedLockFreeQueue{size(), getCapacity(), overflowPolicy, getDroppedCnt()}"
+     */
+    @Override
+    public String toString() {
+        return "BoundedLockFreeQueue{" + size() + ", " + getCapacity() + ", " + overflowPolicy + ", " +
+                getDroppedCnt() + '}';
+    }
+}
@@ -7,12 +7,9 @@ import com.sun.istack.Nullable;
 import jMath.aoklyunin.github.com.vector.Vector2d;
 import jMath.aoklyunin.github.com.vector.Vector4d;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
-import static java.util.stream.Collectors.toMap;
-
 /**
  * Класс параметров текста, отображаемого на экране средствами OpenGL
  */
@@ -95,7 +92,8 @@ public class CaptionParams {
 
 
     /**
-     * Получить контроллеры текстов из параметров
+     * Получить контроллеры текстов из параметров. Каждая запись получает свой контроллер,
+     * а записи с одинаковым шрифтом - общие ресурсы шрифта, см. {@link GLTextControllerFactory}
      *
      * @param map          словарь параметров
      * @param clientWidth  ширина окна
@@ -106,11 +104,22 @@ public class CaptionParams {
     public static Map<String, GLTextController> getTextControllersFromParams(
             @NotNull Map<String, CaptionParams> map, int clientWidth, int clientHeight
     ) {
-        return new HashMap<>(map.entrySet().stream().collect(
-                toMap(
-                        Map.Entry::getKey, entry -> new GLTextController(clientWidth, clientHeight, entry.getValue())
-                )
-        ));
+        return new GLTextControllerFactory(clientWidth, clientHeight).getTextControllers(map);
+    }
+
+    /**
+     * Получить контроллеры текстов из параметров, следящие за размерами общей области вывода,
+     * поэтому при изменении размеров окна их не нужно создавать заново
+     *
+     * @param map      словарь параметров
+     * @param viewport область вывода
+     * @return словарь контроллеров текста
+     */
+    @NotNull
+    public static Map<String, GLTextController> getTextControllersFromParams(
+            @NotNull Map<String, CaptionParams> map, @NotNull GLViewport viewport
+    ) {
+        return new GLTextControllerFactory(viewport).getTextControllers(map);
     }
 
 
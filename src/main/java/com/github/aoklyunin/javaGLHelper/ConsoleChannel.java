@@ -0,0 +1,105 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+import jMath.aoklyunin.github.com.vector.Vector4d;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Канал консоли: логический поток строк со своим цветом и временем жизни, например,
+ * предупреждения, ошибки или строки одной подсистемы. Строки всех каналов хранятся
+ * в общем буфере одной консоли, см. {@link GLConsole#addLine(ConsoleChannel, String)}
+ */
+public class ConsoleChannel {
+    /**
+     * название канала
+     */
+    @NotNull
+    private final String name;
+    /**
+     * цвет строк канала
+     */
+    @NotNull
+    private final Vector4d color;
+    /**
+     * время жизни строки канала, вторую половину этого времени строка гаснет
+     */
+    @NotNull
+    private final Duration retention;
+
+    /**
+     * Конструктор канала консоли
+     *
+     * @param name      название канала
+     * @param color     цвет строк канала
+     * @param retention время жизни строки канала, вторую половину этого времени строка гаснет
+     */
+    public ConsoleChannel(@NotNull String name, @NotNull Vector4d color, @NotNull Duration retention) {
+        if (retention.isNegative())
+            throw new IllegalArgumentException("retention must be non-negative: " + retention);
+        this.name = Objects.requireNonNull(name);
+        this.color = new Vector4d(Objects.requireNonNull(color));
+        this.retention = retention;
+    }
+
+    /**
+     * Получить название канала
+     *
+     * @return название канала
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Получить цвет строк канала
+     *
+     * @return цвет строк канала
+     */
+    @NotNull
+    public Vector4d getColor() {
+        return color;
+    }
+
+    /**
+     * Получить время жизни строки канала
+     *
+     * @return время жизни строки канала
+     */
+    @NotNull
+    public Duration getRetention() {
+        return retention;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "ConsoleChannel{name, color, retention}"
+     */
+    @Override
+    public String toString() {
+        return "ConsoleChannel{" + name + ", " + color + ", " + retention + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ConsoleChannel that = (ConsoleChannel) o;
+
+        if (!name.equals(that.name)) return false;
+        if (!Objects.equals(color, that.color)) return false;
+        return retention.equals(that.retention);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = name.hashCode();
+        result = 31 * result + color.hashCode();
+        result = 31 * result + retention.hashCode();
+        return result;
+    }
+}
@@ -0,0 +1,262 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Отложенная строка консоли: шаблон с примитивными аргументами или поставщик текста.
+ * Текст строится при первом выводе строки на экран и запоминается, поэтому строки,
+ * вытесненные из консоли раньше, чем их успели показать, не форматируются совсем.
+ * Шаблон отмечает места аргументов парами "{}", аргументы задаются методами {@code arg}
+ * до передачи записи в консоль:
+ * {@code console.addLine(ConsoleEntry.of("fps {} frame {}").arg(fps).arg(frame))}.
+ * Переданная в консоль запись замораживается: её аргументы больше не меняются,
+ * поэтому запись, уже лежащая в консоли, не меняет ни текст, ни равенство с соседями.
+ * Две записи равны, если у них один шаблон и одинаковые аргументы или один поставщик,
+ * поэтому консоль склеивает повторы записей, не строя их текст
+ */
+public final class ConsoleEntry {
+    /**
+     * наибольшее кол-во аргументов шаблона
+     */
+    public static final int MAX_ARG_CNT = 4;
+    /**
+     * шаблон, null - текст задаётся поставщиком
+     */
+    @Nullable
+    private final String template;
+    /**
+     * поставщик текста, null - текст задаётся шаблоном
+     */
+    @Nullable
+    private final Supplier<? extends CharSequence> supplier;
+    /**
+     * аргументы шаблона, аргументы с плавающей точкой хранятся битами double
+     */
+    private long arg0, arg1, arg2, arg3;
+    /**
+     * маска аргументов с плавающей точкой, бит i - аргумент i
+     */
+    private int doubleMask;
+    /**
+     * кол-во аргументов
+     */
+    private int argCnt;
+    /**
+     * флаг, передана ли запись в консоль: аргументы замороженной записи не меняются
+     */
+    private boolean frozen;
+    /**
+     * построенный текст, null - текст ещё не построен
+     */
+    @Nullable
+    private String text;
+
+    /**
+     * Конструктор записи
+     *
+     * @param template шаблон
+     * @param supplier поставщик текста
+     */
+    private ConsoleEntry(@Nullable String template, @Nullable Supplier<? extends CharSequence> supplier) {
+        this.template = template;
+        this.supplier = supplier;
+    }
+
+    /**
+     * Получить запись по шаблону
+     *
+     * @param template шаблон, места аргументов отмечаются "{}"
+     * @return запись без аргументов
+     */
+    @NotNull
+    public static ConsoleEntry of(@NotNull String template) {
+        return new ConsoleEntry(Objects.requireNonNull(template), null);
+    }
+
+    /**
+     * Получить запись, текст которой строится поставщиком. Поставщик вызывается
+     * один раз в потоке OpenGL, когда запись впервые выводится
+     *
+     * @param supplier поставщик текста
+     * @return запись
+     */
+    @NotNull
+    public static ConsoleEntry of(@NotNull Supplier<? extends CharSequence> supplier) {
+        return new ConsoleEntry(null, Objects.requireNonNull(supplier));
+    }
+
+    /**
+     * Добавить целочисленный аргумент
+     *
+     * @param value значение
+     * @return эта же запись
+     */
+    @NotNull
+    public ConsoleEntry arg(long value) {
+        return addArg(value, false);
+    }
+
+    /**
+     * Добавить аргумент с плавающей точкой
+     *
+     * @param value значение
+     * @return эта же запись
+     */
+    @NotNull
+    public ConsoleEntry arg(double value) {
+        return addArg(Double.doubleToRawLongBits(value), true);
+    }
+
+    /**
+     * Добавить аргумент
+     *
+     * @param bits     значение или биты значения с плавающей точкой
+     * @param isDouble флаг, является ли аргумент значением с плавающей точкой
+     * @return эта же запись
+     */
+    @NotNull
+    private ConsoleEntry addArg(long bits, boolean isDouble) {
+        if (template == null)
+            throw new IllegalStateException("supplier entry has no arguments");
+        if (frozen)
+            throw new IllegalStateException("entry is already posted");
+        if (text != null)
+            throw new IllegalStateException("entry is already formatted");
+        switch (argCnt) {
+            case 0:
+                arg0 = bits;
+                break;
+            case 1:
+                arg1 = bits;
+                break;
+            case 2:
+                arg2 = bits;
+                break;
+            case 3:
+                arg3 = bits;
+                break;
+            default:
+                throw new IllegalStateException("entry supports up to " + MAX_ARG_CNT + " arguments");
+        }
+        if (isDouble)
+            doubleMask |= 1 << argCnt;
+        argCnt++;
+        return this;
+    }
+
+    /**
+     * Заморозить запись при передаче в консоль
+     *
+     * @return эта же запись
+     */
+    @NotNull
+    ConsoleEntry freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Проверить, передана ли запись в консоль
+     *
+     * @return флаг, заморожена ли запись
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Получить аргумент
+     *
+     * @param i номер аргумента
+     * @return значение или биты значения с плавающей точкой
+     */
+    private long getArg(int i) {
+        switch (i) {
+            case 0:
+                return arg0;
+            case 1:
+                return arg1;
+            case 2:
+                return arg2;
+            default:
+                return arg3;
+        }
+    }
+
+    /**
+     * Построить текст записи. Места без аргумента остаются "{}"
+     *
+     * @return текст записи
+     */
+    @NotNull
+    private String format() {
+        if (supplier != null)
+            return String.valueOf(supplier.get());
+        StringBuilder sb = new StringBuilder(template.length() + argCnt * 8);
+        int arg = 0;
+        int start = 0;
+        int pos;
+        while (arg < argCnt && (pos = template.indexOf("{}", start)) >= 0) {
+            sb.append(template, start, pos);
+            if ((doubleMask & 1 << arg) != 0)
+                sb.append(Double.longBitsToDouble(getArg(arg)));
+            else
+                sb.append(getArg(arg));
+            arg++;
+            start = pos + 2;
+        }
+        return sb.append(template, start, template.length()).toString();
+    }
+
+    /**
+     * Проверить, построен ли уже текст записи
+     *
+     * @return флаг, построен ли текст
+     */
+    public boolean isFormatted() {
+        return text != null;
+    }
+
+    /**
+     * Получить текст записи, построив его при первом вызове
+     *
+     * @return текст записи
+     */
+    @NotNull
+    @Override
+    public String toString() {
+        if (text == null)
+            text = format();
+        return text;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ConsoleEntry that = (ConsoleEntry) o;
+
+        if (argCnt != that.argCnt) return false;
+        if (doubleMask != that.doubleMask) return false;
+        for (int i = 0; i < argCnt; i++)
+            if (getArg(i) != that.getArg(i)) return false;
+        if (!Objects.equals(template, that.template)) return false;
+        return Objects.equals(supplier, that.supplier);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = template != null ? template.hashCode() : 0;
+        result = 31 * result + (supplier != null ? supplier.hashCode() : 0);
+        for (int i = 0; i < argCnt; i++)
+            result = 31 * result + Long.hashCode(getArg(i));
+        result = 31 * result + doubleMask;
+        result = 31 * result + argCnt;
+        return result;
+    }
+}
@@ -0,0 +1,166 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Фильтр строк истории консоли по подстроке или регулярному выражению.
+ * При первом обновлении фильтр по подстроке проверяет только строки, найденные
+ * инвертированным индексом, а фильтр по регулярному выражению - все строки.
+ * Дальше оба фильтра проверяют только строки, проиндексированные после прошлого обновления,
+ * поэтому обновление в каждом кадре не просматривает историю заново
+ */
+public class ConsoleFilter {
+    /**
+     * подстрока, null - фильтр по регулярному выражению
+     */
+    @Nullable
+    private final String substring;
+    /**
+     * регулярное выражение, null - фильтр по подстроке
+     */
+    @Nullable
+    private final Pattern pattern;
+    /**
+     * номера подходящих строк по возрастанию
+     */
+    @NotNull
+    private int[] matches = new int[16];
+    /**
+     * кол-во подходящих строк
+     */
+    private int matchCnt;
+    /**
+     * кол-во строк истории, уже проверенных фильтром, -1 - фильтр ещё не обновлялся
+     */
+    private int checkedLineCnt = -1;
+
+    /**
+     * Конструктор фильтра
+     *
+     * @param substring подстрока
+     * @param pattern   регулярное выражение
+     */
+    private ConsoleFilter(@Nullable String substring, @Nullable Pattern pattern) {
+        this.substring = substring;
+        this.pattern = pattern;
+    }
+
+    /**
+     * Получить фильтр строк, содержащих подстроку
+     *
+     * @param substring подстрока
+     * @return фильтр
+     */
+    @NotNull
+    public static ConsoleFilter substring(@NotNull String substring) {
+        return new ConsoleFilter(Objects.requireNonNull(substring), null);
+    }
+
+    /**
+     * Получить фильтр строк, в которых находится регулярное выражение
+     *
+     * @param pattern регулярное выражение
+     * @return фильтр
+     */
+    @NotNull
+    public static ConsoleFilter regex(@NotNull Pattern pattern) {
+        return new ConsoleFilter(null, Objects.requireNonNull(pattern));
+    }
+
+    /**
+     * Обновить фильтр по строкам, проиндексированным после прошлого обновления.
+     * Фильтр нельзя обновлять разными индексами
+     *
+     * @param index инвертированный индекс истории
+     * @return флаг, появились ли новые подходящие строки
+     */
+    public boolean update(@NotNull ConsoleIndex index) {
+        int prevMatchCnt = matchCnt;
+        int lineCnt = index.getIndexedLineCnt();
+        ConsoleHistory history = index.getHistory();
+        if (checkedLineCnt < 0) {
+            int[] candidates = substring == null ? null : index.getCandidates(substring);
+            if (candidates == null) {
+                check(history, 0, lineCnt);
+            } else {
+                for (int line : candidates)
+                    check(history, line);
+            }
+        } else {
+            check(history, checkedLineCnt, lineCnt);
+        }
+        checkedLineCnt = lineCnt;
+        return matchCnt != prevMatchCnt;
+    }
+
+    /**
+     * Проверить строки истории из диапазона
+     *
+     * @param history история строк
+     * @param from    номер первой строки
+     * @param to      номер строки после последней
+     */
+    private void check(@NotNull ConsoleHistory history, int from, int to) {
+        for (int i = from; i < to; i++)
+            check(history, i);
+    }
+
+    /**
+     * Проверить строку истории и запомнить её номер, если она подходит
+     *
+     * @param history история строк
+     * @param i       номер строки
+     */
+    private void check(@NotNull ConsoleHistory history, int i) {
+        if (!matches(history.getLine(i)))
+            return;
+        if (matchCnt == matches.length)
+            matches = Arrays.copyOf(matches, matchCnt * 2);
+        matches[matchCnt++] = i;
+    }
+
+    /**
+     * Проверить, подходит ли строка под фильтр
+     *
+     * @param line строка
+     * @return флаг, подходит ли строка
+     */
+    public boolean matches(@NotNull String line) {
+        return substring != null ? line.contains(substring) : pattern.matcher(line).find();
+    }
+
+    /**
+     * Получить кол-во подходящих строк
+     *
+     * @return кол-во подходящих строк
+     */
+    public int getMatchCnt() {
+        return matchCnt;
+    }
+
+    /**
+     * Получить номер подходящей строки в истории
+     *
+     * @param i номер среди подходящих строк, 0 - самая старая
+     * @return номер строки в истории
+     */
+    public int getMatch(int i) {
+        Objects.checkIndex(i, matchCnt);
+        return matches[i];
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "ConsoleFilter{substring или pattern, matchCnt}"
+     */
+    @Override
+    public String toString() {
+        return "ConsoleFilter{" + (substring != null ? substring : pattern) + ", " + matchCnt + '}';
+    }
+}
@@ -0,0 +1,325 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * История строк консоли в отображаемых в память файлах. Строки дописываются в файл данных
+ * в UTF-8, а в файл индекса для каждой строки записываются её смещение и длина, поэтому
+ * строка находится по номеру за O(1), а декодируются только запрошенные строки.
+ * Файлы отображаются в память сегментами, которые добавляются по мере роста истории,
+ * поэтому куча не растёт с длиной истории. Строки можно читать окнами, заданными
+ * скроллером с диапазоном: см. {@link GLConsole#renderHistory}
+ */
+public class ConsoleHistory implements Closeable {
+    /**
+     * размер сегмента файла данных по умолчанию
+     */
+    public static final int DEFAULT_DATA_SEGMENT_SIZE = 1 << 26;
+    /**
+     * кол-во записей в сегменте файла индекса по умолчанию
+     */
+    public static final int DEFAULT_INDEX_SEGMENT_LINE_CNT = 1 << 20;
+    /**
+     * версия формата файла индекса
+     */
+    private static final int FILE_VERSION = 1;
+    /**
+     * размер заголовка файла индекса: версия, запас, кол-во строк, размер данных
+     */
+    private static final int HEADER_SIZE = 24;
+    /**
+     * размер записи индекса: смещение строки и её длина
+     */
+    private static final int ENTRY_SIZE = 12;
+
+    /**
+     * канал файла данных
+     */
+    @NotNull
+    private final FileChannel dataChannel;
+    /**
+     * канал файла индекса
+     */
+    @NotNull
+    private final FileChannel indexChannel;
+    /**
+     * заголовок файла индекса
+     */
+    @NotNull
+    private final MappedByteBuffer header;
+    /**
+     * отображённые сегменты файла данных
+     */
+    @NotNull
+    private final List<MappedByteBuffer> dataSegments = new ArrayList<>();
+    /**
+     * отображённые сегменты файла индекса
+     */
+    @NotNull
+    private final List<MappedByteBuffer> indexSegments = new ArrayList<>();
+    /**
+     * размер сегмента файла данных, строка не может быть длиннее сегмента
+     */
+    private final int dataSegmentSize;
+    /**
+     * кол-во записей в сегменте файла индекса
+     */
+    private final int indexSegmentLineCnt;
+    /**
+     * кол-во строк
+     */
+    private long lineCnt;
+    /**
+     * размер записанных данных
+     */
+    private long dataSize;
+    /**
+     * буфер для чтения строки
+     */
+    @NotNull
+    private byte[] readBuffer = new byte[256];
+
+    /**
+     * Конструктор истории строк консоли
+     *
+     * @param dataPath            путь к файлу данных
+     * @param indexPath           путь к файлу индекса
+     * @param dataSegmentSize     размер сегмента файла данных
+     * @param indexSegmentLineCnt кол-во записей в сегменте файла индекса
+     * @throws IOException ошибка открытия файлов или файл индекса другой версии
+     */
+    ConsoleHistory(
+            @NotNull Path dataPath, @NotNull Path indexPath, int dataSegmentSize, int indexSegmentLineCnt
+    ) throws IOException {
+        if (dataSegmentSize <= 0 || indexSegmentLineCnt <= 0 || indexSegmentLineCnt > Integer.MAX_VALUE / ENTRY_SIZE)
+            throw new IllegalArgumentException(
+                    "wrong segment sizes: " + dataSegmentSize + ", " + indexSegmentLineCnt
+            );
+        this.dataSegmentSize = dataSegmentSize;
+        this.indexSegmentLineCnt = indexSegmentLineCnt;
+        this.dataChannel = FileChannel.open(
+                Objects.requireNonNull(dataPath),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        try {
+            this.indexChannel = FileChannel.open(
+                    Objects.requireNonNull(indexPath),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+            );
+        } catch (IOException e) {
+            dataChannel.close();
+            throw e;
+        }
+        try {
+            boolean created = indexChannel.size() == 0;
+            this.header = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (created) {
+                header.putInt(0, FILE_VERSION);
+            } else if (header.getInt(0) != FILE_VERSION) {
+                throw new IOException("unsupported console history file version: " + indexPath);
+            }
+            this.lineCnt = header.getLong(8);
+            this.dataSize = header.getLong(16);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Открыть историю строк консоли. Если файлы уже существуют, история продолжается
+     *
+     * @param dataPath  путь к файлу данных
+     * @param indexPath путь к файлу индекса
+     * @return история строк консоли
+     * @throws IOException ошибка открытия файлов или файл индекса другой версии
+     */
+    @NotNull
+    public static ConsoleHistory open(@NotNull Path dataPath, @NotNull Path indexPath) throws IOException {
+        return new ConsoleHistory(dataPath, indexPath, DEFAULT_DATA_SEGMENT_SIZE, DEFAULT_INDEX_SEGMENT_LINE_CNT);
+    }
+
+    /**
+     * Дописать строку в историю
+     *
+     * @param line строка
+     * @throws UncheckedIOException ошибка отображения нового сегмента файла
+     */
+    public synchronized void append(@NotNull String line) {
+        byte[] bytes = Objects.requireNonNull(line).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > dataSegmentSize)
+            throw new IllegalArgumentException("line is longer than data segment: " + bytes.length);
+        long start = dataSize;
+        int offset = (int) (start % dataSegmentSize);
+        // строка не разрывается между сегментами: если не помещается, она начинается со следующего
+        if (offset + bytes.length > dataSegmentSize) {
+            start += dataSegmentSize - offset;
+            offset = 0;
+        }
+        ByteBuffer data = getSegment(dataSegments, dataChannel, 0, dataSegmentSize, start / dataSegmentSize)
+                .duplicate();
+        data.position(offset);
+        data.put(bytes);
+
+        MappedByteBuffer index = getIndexSegment(lineCnt);
+        int entryOffset = (int) (lineCnt % indexSegmentLineCnt) * ENTRY_SIZE;
+        index.putLong(entryOffset, start);
+        index.putInt(entryOffset + 8, bytes.length);
+
+        // заголовок обновляется последним, поэтому в нём всегда только полностью записанные строки
+        lineCnt++;
+        dataSize = start + bytes.length;
+        header.putLong(8, lineCnt);
+        header.putLong(16, dataSize);
+    }
+
+    /**
+     * Получить строку по номеру
+     *
+     * @param i номер строки, 0 - самая старая
+     * @return строка
+     */
+    @NotNull
+    public synchronized String getLine(long i) {
+        if (i < 0 || i >= lineCnt)
+            throw new IndexOutOfBoundsException("line " + i + " out of bounds for length " + lineCnt);
+        MappedByteBuffer index = getIndexSegment(i);
+        int entryOffset = (int) (i % indexSegmentLineCnt) * ENTRY_SIZE;
+        long start = index.getLong(entryOffset);
+        int length = index.getInt(entryOffset + 8);
+        if (readBuffer.length < length)
+            readBuffer = new byte[Math.max(length, readBuffer.length * 2)];
+        ByteBuffer data = getSegment(dataSegments, dataChannel, 0, dataSegmentSize, start / dataSegmentSize)
+                .duplicate();
+        data.position((int) (start % dataSegmentSize));
+        data.get(readBuffer, 0, length);
+        return new String(readBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Прочитать окно строк
+     *
+     * @param first номер первой строки окна
+     * @param lines массив, в который записываются строки окна
+     * @param cnt   кол-во строк окна
+     * @return кол-во прочитанных строк, меньше cnt, если история закончилась раньше
+     */
+    public synchronized int read(long first, @NotNull String[] lines, int cnt) {
+        if (first < 0 || cnt < 0 || cnt > lines.length)
+            throw new IllegalArgumentException("wrong window: " + first + ", " + cnt + ", " + lines.length);
+        int readCnt = (int) Math.max(0, Math.min(cnt, lineCnt - first));
+        for (int i = 0; i < readCnt; i++)
+            lines[i] = getLine(first + i);
+        return readCnt;
+    }
+
+    /**
+     * Получить сегмент файла индекса, содержащий запись строки
+     *
+     * @param i номер строки
+     * @return сегмент файла индекса
+     */
+    @NotNull
+    private MappedByteBuffer getIndexSegment(long i) {
+        return getSegment(
+                indexSegments, indexChannel, HEADER_SIZE, indexSegmentLineCnt * ENTRY_SIZE, i / indexSegmentLineCnt
+        );
+    }
+
+    /**
+     * Получить отображённый сегмент файла, отобразив его и все предыдущие при необходимости.
+     * Отображение за концом файла увеличивает файл
+     *
+     * @param segments    отображённые сегменты
+     * @param channel     канал файла
+     * @param base        смещение первого сегмента в файле
+     * @param segmentSize размер сегмента
+     * @param segment     номер сегмента
+     * @return сегмент
+     * @throws UncheckedIOException ошибка отображения файла
+     */
+    @NotNull
+    private static MappedByteBuffer getSegment(
+            @NotNull List<MappedByteBuffer> segments, @NotNull FileChannel channel, long base, int segmentSize,
+            long segment
+    ) {
+        try {
+            while (segments.size() <= segment)
+                segments.add(channel.map(
+                        FileChannel.MapMode.READ_WRITE, base + (long) segments.size() * segmentSize, segmentSize
+                ));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return segments.get((int) segment);
+    }
+
+    /**
+     * Получить кол-во строк
+     *
+     * @return кол-во строк
+     */
+    public synchronized long getLineCnt() {
+        return lineCnt;
+    }
+
+    /**
+     * Получить размер записанных данных в байтах
+     *
+     * @return размер записанных данных
+     */
+    public synchronized long getDataSize() {
+        return dataSize;
+    }
+
+    /**
+     * Записать изменённые страницы на диск
+     */
+    public synchronized void force() {
+        header.force();
+        for (MappedByteBuffer segment : indexSegments)
+            segment.force();
+        for (MappedByteBuffer segment : dataSegments)
+            segment.force();
+    }
+
+    /**
+     * Закрыть файлы истории. Отображения освобождаются сборщиком мусора,
+     * после закрытия историю использовать нельзя
+     *
+     * @throws IOException ошибка закрытия файлов
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        dataSegments.clear();
+        indexSegments.clear();
+        try {
+            dataChannel.close();
+        } finally {
+            indexChannel.close();
+        }
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "ConsoleHistory{lineCnt, dataSize}"
+     */
+    @Override
+    public synchronized String toString() {
+        return "ConsoleHistory{" + lineCnt + ", " + dataSize + '}';
+    }
+}
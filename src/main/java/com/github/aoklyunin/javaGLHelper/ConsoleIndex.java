@@ -0,0 +1,338 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Инвертированный индекс истории строк консоли. Строка разбивается на слова - максимальные
+ * последовательности букв и цифр, и для каждого слова хранится возрастающий список номеров
+ * строк, в которых оно встречается. Индекс пополняется по мере добавления строк в историю,
+ * а поиск подстроки сводится к объединению списков нескольких слов и проверке найденных строк,
+ * поэтому не требует просмотра всей истории.
+ * Слова хранятся упорядоченными по прямому и по обратному написанию, поэтому слова с заданным
+ * началом или концом находятся без перебора словаря. Словарь и списки ограничены:
+ * слова сверх ёмкости словаря не индексируются, а строки с ними попадают в каждый результат поиска,
+ * список слова, встречающегося в слишком многих строках, освобождается, и такое слово
+ * больше не сужает поиск
+ */
+public class ConsoleIndex {
+    /**
+     * ёмкость словаря по умолчанию
+     */
+    public static final int DEFAULT_MAX_TOKEN_CNT = 1 << 18;
+    /**
+     * наибольшая длина списка строк одного слова по умолчанию
+     */
+    public static final int DEFAULT_MAX_POSTING_CNT = 1 << 16;
+
+    /**
+     * Растущий массив номеров строк
+     */
+    private static class Postings {
+        /**
+         * номера строк по возрастанию, null - слово встречается в слишком многих строках
+         */
+        @Nullable
+        private int[] lines = new int[4];
+        /**
+         * кол-во номеров
+         */
+        private int size;
+
+        /**
+         * Добавить номер строки, если он ещё не последний в списке. Список,
+         * превысивший наибольшую длину, освобождается
+         *
+         * @param line          номер строки
+         * @param maxPostingCnt наибольшая длина списка
+         */
+        private void add(int line, int maxPostingCnt) {
+            if (lines == null || size > 0 && lines[size - 1] == line)
+                return;
+            if (size == maxPostingCnt) {
+                lines = null;
+                return;
+            }
+            if (size == lines.length)
+                lines = Arrays.copyOf(lines, Math.min(size * 2, maxPostingCnt));
+            lines[size++] = line;
+        }
+    }
+
+    /**
+     * индексируемая история строк
+     */
+    @NotNull
+    private final ConsoleHistory history;
+    /**
+     * списки строк по словам в порядке слов
+     */
+    @NotNull
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    /**
+     * те же списки строк по словам, записанным задом наперёд, для поиска по концу слова
+     */
+    @NotNull
+    private final NavigableMap<String, Postings> reversedPostings = new TreeMap<>();
+    /**
+     * строки, в которых есть слова, не попавшие в словарь
+     */
+    @NotNull
+    private final Postings unindexedLines = new Postings();
+    /**
+     * ёмкость словаря
+     */
+    private final int maxTokenCnt;
+    /**
+     * наибольшая длина списка строк одного слова
+     */
+    private final int maxPostingCnt;
+    /**
+     * кол-во проиндексированных строк истории
+     */
+    private int indexedLineCnt;
+
+    /**
+     * Конструктор инвертированного индекса с ограничениями по умолчанию. Строки,
+     * уже записанные в историю, индексируются сразу
+     *
+     * @param history индексируемая история строк
+     */
+    public ConsoleIndex(@NotNull ConsoleHistory history) {
+        this(history, DEFAULT_MAX_TOKEN_CNT, DEFAULT_MAX_POSTING_CNT);
+    }
+
+    /**
+     * Конструктор инвертированного индекса. Строки, уже записанные в историю,
+     * индексируются сразу
+     *
+     * @param history       индексируемая история строк
+     * @param maxTokenCnt   ёмкость словаря
+     * @param maxPostingCnt наибольшая длина списка строк одного слова
+     */
+    public ConsoleIndex(@NotNull ConsoleHistory history, int maxTokenCnt, int maxPostingCnt) {
+        if (maxTokenCnt <= 0)
+            throw new IllegalArgumentException("max token count must be positive: " + maxTokenCnt);
+        if (maxPostingCnt <= 0)
+            throw new IllegalArgumentException("max posting count must be positive: " + maxPostingCnt);
+        this.history = Objects.requireNonNull(history);
+        this.maxTokenCnt = maxTokenCnt;
+        this.maxPostingCnt = maxPostingCnt;
+        update();
+    }
+
+    /**
+     * Проиндексировать строки, дописанные в историю после последнего обновления
+     */
+    public void update() {
+        long lineCnt = history.getLineCnt();
+        if (lineCnt > Integer.MAX_VALUE)
+            throw new IllegalStateException("console index supports up to 2^31 lines: " + lineCnt);
+        while (indexedLineCnt < lineCnt)
+            index(history.getLine(indexedLineCnt), indexedLineCnt);
+    }
+
+    /**
+     * Проиндексировать строку, только что дописанную в историю, не читая её из истории.
+     * Если индекс отстал от истории, он обновляется целиком
+     *
+     * @param line строка, последней дописанная в историю
+     */
+    public void add(@NotNull String line) {
+        if (indexedLineCnt == history.getLineCnt() - 1)
+            index(Objects.requireNonNull(line), indexedLineCnt);
+        else
+            update();
+    }
+
+    /**
+     * Проиндексировать строку
+     *
+     * @param line строка
+     * @param i    номер строки
+     */
+    private void index(@NotNull String line, int i) {
+        int start = -1;
+        for (int j = 0; j <= line.length(); j++) {
+            boolean wordChar = j < line.length() && Character.isLetterOrDigit(line.charAt(j));
+            if (wordChar && start < 0) {
+                start = j;
+            } else if (!wordChar && start >= 0) {
+                add(line.substring(start, j), i);
+                start = -1;
+            }
+        }
+        indexedLineCnt = i + 1;
+    }
+
+    /**
+     * Добавить слово строки в индекс
+     *
+     * @param token слово
+     * @param i     номер строки
+     */
+    private void add(@NotNull String token, int i) {
+        Postings list = postings.get(token);
+        if (list == null) {
+            if (postings.size() == maxTokenCnt) {
+                unindexedLines.add(i, Integer.MAX_VALUE);
+                return;
+            }
+            list = new Postings();
+            postings.put(token, list);
+            reversedPostings.put(new StringBuilder(token).reverse().toString(), list);
+        }
+        list.add(i, maxPostingCnt);
+    }
+
+    /**
+     * Получить номера строк, которые могут содержать подстроку. Каждая строка, содержащая
+     * подстроку, попадает в результат, но не каждая строка результата её содержит,
+     * поэтому строки результата нужно проверить
+     *
+     * @param query подстрока
+     * @return номера строк по возрастанию, null, если ни одно слово подстроки не сужает поиск
+     * и кандидатами являются все строки
+     */
+    @Nullable
+    int[] getCandidates(@NotNull String query) {
+        int[] best = null;
+        int start = -1;
+        for (int j = 0; j <= query.length(); j++) {
+            boolean wordChar = j < query.length() && Character.isLetterOrDigit(query.charAt(j));
+            if (wordChar && start < 0) {
+                start = j;
+            } else if (!wordChar && start >= 0) {
+                // фрагмент, ограниченный с обеих сторон внутри запроса, - целое слово строки,
+                // фрагмент в начале запроса - конец слова, в конце запроса - начало слова,
+                // фрагмент, занимающий весь запрос, может быть любой частью слова
+                int[] candidates = getCandidates(query.substring(start, j), start > 0, j < query.length());
+                if (candidates != null && (best == null || candidates.length < best.length))
+                    best = candidates;
+                start = -1;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Получить номера строк, которые могут содержать фрагмент
+     *
+     * @param fragment   фрагмент из букв и цифр
+     * @param startsWord флаг, является ли фрагмент началом слова
+     * @param endsWord   флаг, является ли фрагмент концом слова
+     * @return номера строк по возрастанию, null, если фрагмент не сужает поиск
+     */
+    @Nullable
+    private int[] getCandidates(@NotNull String fragment, boolean startsWord, boolean endsWord) {
+        Collection<Postings> lists;
+        if (startsWord && endsWord) {
+            Postings list = postings.get(fragment);
+            lists = list == null ? List.of() : List.of(list);
+        } else if (startsWord) {
+            lists = getPrefixRange(postings, fragment).values();
+        } else if (endsWord) {
+            lists = getPrefixRange(reversedPostings, new StringBuilder(fragment).reverse().toString()).values();
+        } else {
+            // слова с фрагментом в середине находятся только перебором словаря, поэтому словарь ограничен
+            lists = new ArrayList<>();
+            for (Map.Entry<String, Postings> entry : postings.entrySet())
+                if (entry.getKey().contains(fragment))
+                    lists.add(entry.getValue());
+        }
+        int size = unindexedLines.size;
+        for (Postings list : lists) {
+            if (list.lines == null)
+                return null;
+            size += list.size;
+        }
+        // строки со словами вне словаря могут содержать любой фрагмент
+        int[] result = Arrays.copyOf(unindexedLines.lines, size);
+        int pos = unindexedLines.size;
+        for (Postings list : lists) {
+            System.arraycopy(list.lines, 0, result, pos, list.size);
+            pos += list.size;
+        }
+        Arrays.sort(result);
+        int distinct = 0;
+        for (int i = 0; i < size; i++)
+            if (distinct == 0 || result[distinct - 1] != result[i])
+                result[distinct++] = result[i];
+        return Arrays.copyOf(result, distinct);
+    }
+
+    /**
+     * Получить слова, начинающиеся с фрагмента
+     *
+     * @param tokens   упорядоченные списки строк по словам
+     * @param fragment начало слова
+     * @return списки строк слов, начинающихся с фрагмента
+     */
+    @NotNull
+    private static NavigableMap<String, Postings> getPrefixRange(
+            @NotNull NavigableMap<String, Postings> tokens, @NotNull String fragment
+    ) {
+        // фрагмент с увеличенным последним символом следует за всеми словами с этим началом
+        char last = fragment.charAt(fragment.length() - 1);
+        if (last == Character.MAX_VALUE)
+            return tokens.tailMap(fragment, true);
+        String upper = fragment.substring(0, fragment.length() - 1) + (char) (last + 1);
+        return tokens.subMap(fragment, true, upper, false);
+    }
+
+    /**
+     * Получить индексируемую историю строк
+     *
+     * @return история строк
+     */
+    @NotNull
+    public ConsoleHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Получить кол-во проиндексированных строк
+     *
+     * @return кол-во проиндексированных строк
+     */
+    public int getIndexedLineCnt() {
+        return indexedLineCnt;
+    }
+
+    /**
+     * Получить кол-во различных слов
+     *
+     * @return кол-во различных слов
+     */
+    public int getTokenCnt() {
+        return postings.size();
+    }
+
+    /**
+     * Получить кол-во строк, в которых есть слова, не попавшие в словарь
+     *
+     * @return кол-во строк
+     */
+    public int getUnindexedLineCnt() {
+        return unindexedLines.size;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "ConsoleIndex{indexedLineCnt, getTokenCnt()}"
+     */
+    @Override
+    public String toString() {
+        return "ConsoleIndex{" + indexedLineCnt + ", " + getTokenCnt() + '}';
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+
+/**
+ * Источник строк консоли. Консоль опрашивает свои источники в начале каждого
+ * {@link GLConsole#render()}, поэтому источник может копить данные в любом потоке
+ * и превращать их в строки только в потоке OpenGL, один раз за кадр
+ */
+@FunctionalInterface
+public interface ConsoleSource {
+    /**
+     * Передать накопленные строки в консоль. Метод вызывается из потока OpenGL
+     *
+     * @param console    консоль
+     * @param visibleCnt сколько последних строк кадра консоль может показать,
+     *                   более ранние строки будут вытеснены, не успев появиться на экране
+     */
+    void drainTo(@NotNull GLConsole console, int visibleCnt);
+
+    /**
+     * Проверить, нет ли у источника накопленных строк. Консоль, у которой погасли
+     * все строки, пропускает кадр, только если все её источники пусты.
+     * По умолчанию источник считается непустым и опрашивается каждый кадр
+     *
+     * @return флаг, нет ли накопленных строк
+     */
+    default boolean isEmpty() {
+        return false;
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+
+import java.awt.*;
+import java.util.Objects;
+
+/**
+ * Ключ шрифта: название, флаг полужирности и размер.
+ * Два контроллера текста с одинаковым ключом могут использовать общие ресурсы шрифта
+ */
+public class FontKey {
+    /**
+     * название шрифта
+     */
+    @NotNull
+    private final String fontName;
+    /**
+     * флаг, должен ли быть шрифт полужирным
+     */
+    private final boolean bold;
+    /**
+     * размер шрифта
+     */
+    private final int fontSize;
+    /**
+     * шрифт AWT, создаётся при первом обращении
+     */
+    @Nullable
+    private volatile Font font;
+
+    /**
+     * Конструктор ключа шрифта
+     *
+     * @param fontName название шрифта
+     * @param bold     флаг, должен ли быть шрифт полужирным
+     * @param fontSize размер шрифта
+     */
+    public FontKey(@NotNull String fontName, boolean bold, int fontSize) {
+        this.fontName = Objects.requireNonNull(fontName);
+        this.bold = bold;
+        this.fontSize = fontSize;
+    }
+
+    /**
+     * Получить ключ шрифта по параметрам текста
+     *
+     * @param captionParams параметры текста
+     * @return ключ шрифта
+     */
+    @NotNull
+    public static FontKey of(@NotNull CaptionParams captionParams) {
+        return new FontKey(
+                captionParams.getFontName(), captionParams.isBold(), captionParams.getFontSize()
+        );
+    }
+
+    /**
+     * Создать шрифт AWT по ключу
+     *
+     * @return шрифт AWT
+     */
+    @NotNull
+    public Font createFont() {
+        return new Font(fontName, bold ? Font.BOLD : Font.PLAIN, fontSize);
+    }
+
+    /**
+     * Получить шрифт AWT по ключу. Шрифт создаётся один раз и дальше
+     * используется всеми, кто получает его от этого ключа
+     *
+     * @return шрифт AWT
+     */
+    @NotNull
+    public Font getFont() {
+        Font result = font;
+        if (result == null) {
+            result = createFont();
+            font = result;
+        }
+        return result;
+    }
+
+    /**
+     * Получить название шрифта
+     *
+     * @return название шрифта
+     */
+    @NotNull
+    public String getFontName() {
+        return fontName;
+    }
+
+    /**
+     * Получить флаг, должен ли быть шрифт полужирным
+     *
+     * @return флаг, должен ли быть шрифт полужирным
+     */
+    public boolean isBold() {
+        return bold;
+    }
+
+    /**
+     * Получить размер шрифта
+     *
+     * @return размер шрифта
+     */
+    public int getFontSize() {
+        return fontSize;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "FontKey{fontName, bold, fontSize}"
+     */
+    @Override
+    public String toString() {
+        return "FontKey{" + fontName + ", " + bold + ", " + fontSize + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FontKey fontKey = (FontKey) o;
+
+        if (bold != fontKey.bold) return false;
+        if (fontSize != fontKey.fontSize) return false;
+        return fontName.equals(fontKey.fontName);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = fontName.hashCode();
+        result = 31 * result + (bold ? 1 : 0);
+        result = 31 * result + fontSize;
+        return result;
+    }
+}
@@ -0,0 +1,230 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Прогрев шрифтов при запуске. Для каждого различного шрифта из параметров текста
+ * в фоновом исполнителе загружается шрифт AWT и растеризуется атлас глифов,
+ * поэтому первый кадр с новым шрифтом не ждёт загрузки шрифта и заполнения кэша глифов.
+ * Готовые атласы забираются в потоке OpenGL методом {@link #drain(Consumer)}.
+ * Рисовальщики {@link TextRendererCache} не прогреваются: их текстура создаётся
+ * только в потоке OpenGL, поэтому контроллер текста без атласа по-прежнему создаёт
+ * рисовальщик в первом кадре со своим шрифтом, прогретыми оказываются только шрифт AWT и его метрики
+ */
+public class FontWarmUp {
+    /**
+     * Результат прогрева одного шрифта
+     */
+    private static class Result {
+        /**
+         * ключ шрифта
+         */
+        @NotNull
+        private final FontKey fontKey;
+        /**
+         * атлас глифов, null, если растеризация завершилась ошибкой
+         */
+        private final GlyphAtlas atlas;
+        /**
+         * ошибка растеризации, null, если атлас построен
+         */
+        private final Throwable error;
+        /**
+         * время прогрева в наносекундах, без ожидания задачи в очереди исполнителя
+         */
+        private final long duration;
+
+        /**
+         * Конструктор результата прогрева одного шрифта
+         *
+         * @param fontKey  ключ шрифта
+         * @param atlas    атлас глифов
+         * @param error    ошибка растеризации
+         * @param duration время прогрева в наносекундах
+         */
+        private Result(@NotNull FontKey fontKey, GlyphAtlas atlas, Throwable error, long duration) {
+            this.fontKey = fontKey;
+            this.atlas = atlas;
+            this.error = error;
+            this.duration = duration;
+        }
+    }
+
+    /**
+     * исполнитель, в котором растеризуются атласы
+     */
+    @NotNull
+    private final Executor executor;
+    /**
+     * задачи прогрева по ключам шрифтов в порядке запуска
+     */
+    @NotNull
+    private final Map<FontKey, CompletableFuture<GlyphAtlas>> futures = new LinkedHashMap<>();
+    /**
+     * готовые результаты, ещё не забранные потоком OpenGL
+     */
+    @NotNull
+    private final Queue<Result> ready = new ConcurrentLinkedQueue<>();
+    /**
+     * результаты всех завершившихся задач по ключам шрифтов
+     */
+    @NotNull
+    private final Map<FontKey, Result> results = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Конструктор прогрева шрифтов
+     *
+     * @param executor исполнитель, в котором растеризуются атласы
+     */
+    public FontWarmUp(@NotNull Executor executor) {
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Запустить прогрев шрифтов из параметров текста. Каждый шрифт прогревается
+     * один раз, даже если он встречается в нескольких параметрах или вызовах
+     *
+     * @param captionParams параметры текста
+     */
+    public synchronized void start(@NotNull Collection<CaptionParams> captionParams) {
+        for (CaptionParams params : Objects.requireNonNull(captionParams))
+            start(FontKey.of(params));
+    }
+
+    /**
+     * Запустить прогрев шрифта, если он ещё не запущен
+     *
+     * @param fontKey ключ шрифта
+     */
+    public synchronized void start(@NotNull FontKey fontKey) {
+        if (futures.containsKey(Objects.requireNonNull(fontKey)))
+            return;
+        CompletableFuture<GlyphAtlas> future = CompletableFuture.supplyAsync(() -> {
+            // время отсчитывается в самой задаче, чтобы не учитывать ожидание в очереди исполнителя
+            long startTime = System.nanoTime();
+            // задача завершается только после публикации результата,
+            // поэтому после ожидания прогрева все атласы доступны drain
+            try {
+                // загрузка шрифта AWT и метрик - основная часть задержки первого кадра
+                TextMetricsCache.getBounds(fontKey, "Hg");
+                GlyphAtlas atlas = GlyphAtlas.rasterize(fontKey);
+                publish(new Result(fontKey, atlas, null, System.nanoTime() - startTime));
+                return atlas;
+            } catch (RuntimeException | Error e) {
+                publish(new Result(fontKey, null, e, System.nanoTime() - startTime));
+                throw e;
+            }
+        }, executor);
+        futures.put(fontKey, future);
+    }
+
+    /**
+     * Опубликовать результат прогрева шрифта
+     *
+     * @param result результат прогрева
+     */
+    private void publish(@NotNull Result result) {
+        results.put(result.fontKey, result);
+        ready.add(result);
+    }
+
+    /**
+     * Передать готовые атласы в поток OpenGL. Метод не блокируется: он отдаёт только атласы,
+     * построенные с прошлого вызова, поэтому его можно вызывать в начале каждого кадра.
+     * Обычно по атласу создаётся {@link GLAtlasTextRenderer}, который задаётся контроллерам
+     * текста с этим шрифтом {@link GLTextController#setAtlasTextRenderer(GLAtlasTextRenderer)}
+     *
+     * @param consumer получатель готовых атласов
+     * @return кол-во переданных атласов
+     */
+    public int drain(@NotNull Consumer<GlyphAtlas> consumer) {
+        Objects.requireNonNull(consumer);
+        int cnt = 0;
+        Result result;
+        while ((result = ready.poll()) != null) {
+            if (result.atlas != null) {
+                consumer.accept(result.atlas);
+                cnt++;
+            }
+        }
+        return cnt;
+    }
+
+    /**
+     * Проверить, завершён ли прогрев всех запущенных шрифтов
+     *
+     * @return флаг, завершён ли прогрев
+     */
+    public synchronized boolean isDone() {
+        for (CompletableFuture<GlyphAtlas> future : futures.values())
+            if (!future.isDone())
+                return false;
+        return true;
+    }
+
+    /**
+     * Получить задачу, завершающуюся вместе с прогревом всех запущенных шрифтов
+     *
+     * @return задача прогрева
+     */
+    @NotNull
+    public synchronized CompletableFuture<Void> getCompletion() {
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+                .exceptionally(error -> null);
+    }
+
+    /**
+     * Получить время прогрева шрифтов, уже завершивших прогрев
+     *
+     * @return время прогрева в миллисекундах по ключам шрифтов в порядке завершения
+     */
+    @NotNull
+    public Map<FontKey, Double> getTimings() {
+        Map<FontKey, Double> timings = new LinkedHashMap<>();
+        synchronized (results) {
+            for (Result result : results.values())
+                timings.put(result.fontKey, result.duration / 1e6);
+        }
+        return timings;
+    }
+
+    /**
+     * Получить отчёт о прогреве: по строке на каждый запущенный шрифт
+     * с временем прогрева, ошибкой или пометкой, что прогрев ещё идёт
+     *
+     * @return отчёт о прогреве
+     */
+    @NotNull
+    public synchronized String getReport() {
+        StringBuilder report = new StringBuilder("font warm-up:");
+        for (FontKey fontKey : futures.keySet()) {
+            Result result = results.get(fontKey);
+            report.append('\n').append(fontKey).append(": ");
+            if (result == null)
+                report.append("in progress");
+            else if (result.error != null)
+                report.append("failed after ").append(String.format(Locale.ROOT, "%.1f", result.duration / 1e6))
+                        .append(" ms: ").append(result.error);
+            else
+                report.append(String.format(Locale.ROOT, "%.1f", result.duration / 1e6)).append(" ms, ")
+                        .append(result.atlas.getGlyphCnt()).append(" glyphs");
+        }
+        return report.toString();
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "FontWarmUp{кол-во запущенных шрифтов, кол-во завершённых шрифтов}"
+     */
+    @Override
+    public synchronized String toString() {
+        return "FontWarmUp{" + futures.size() + ", " + results.size() + '}';
+    }
+}
@@ -5,8 +5,9 @@ import com.sun.istack.NotNull;
 import jMath.aoklyunin.github.com.vector.Vector2d;
 import jMath.aoklyunin.github.com.vector.Vector3d;
 import jMath.aoklyunin.github.com.vector.Vector4d;
-import org.joml.Matrix2d;
 
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
 import java.util.List;
 import java.util.Objects;
 
@@ -16,9 +17,69 @@ import static com.jogamp.opengl.GL2GL3.*;
 import static java.lang.Math.*;
 
 /**
- * Вспомогательный класс алгоритмов OpenGL
+ * Вспомогательный класс алгоритмов OpenGL. Примитивы добавляются в пакет геометрии
+ * {@link GeometryBatch}, активный в вызывающем потоке, а если пакета нет, выводятся сразу
+ * текущим цветом OpenGL
  */
 public class GLAlgorithms {
+    /**
+     * пакеты примитивов, выводимых сразу, по потокам: вершины берутся из памяти клиента,
+     * а цвет - текущий цвет OpenGL
+     */
+    private static final ThreadLocal<GeometryBatch> IMMEDIATE_BATCH =
+            ThreadLocal.withInitial(() -> new GeometryBatch(false, false));
+
+    /**
+     * Получить пакет, в который добавляется примитив
+     *
+     * @return активный пакет потока или пакет примитивов, выводимых сразу
+     */
+    @NotNull
+    private static GeometryBatch getBatch() {
+        GeometryBatch batch = GeometryBatch.getActive();
+        return batch != null ? batch : IMMEDIATE_BATCH.get();
+    }
+
+    /**
+     * Вывести примитив, если он не добавлен в активный пакет
+     *
+     * @param gl2   переменная OpenGL
+     * @param batch пакет, в который добавлен примитив
+     */
+    private static void submit(@NotNull GL2 gl2, @NotNull GeometryBatch batch) {
+        if (batch != GeometryBatch.getActive())
+            batch.flush(gl2);
+    }
+
+    /**
+     * Задать цвет следующих примитивов: цвет активного пакета геометрии, если он есть,
+     * и текущий цвет OpenGL для примитивов, выводимых сразу, и прямых вызовов OpenGL
+     *
+     * @param gl2 переменная OpenGL
+     * @param r   красная составляющая
+     * @param g   зелёная составляющая
+     * @param b   синяя составляющая
+     * @param a   прозрачность
+     */
+    public static void setColor(@NotNull GL2 gl2, float r, float g, float b, float a) {
+        GeometryBatch batch = GeometryBatch.getActive();
+        if (batch != null)
+            batch.setColor(r, g, b, a);
+        gl2.glColor4f(r, g, b, a);
+    }
+
+    /**
+     * Вывести примитивы, накопленные в активном пакете геометрии, чтобы следующие
+     * прямые вызовы OpenGL рисовались поверх них. Если пакета нет, ничего не делает
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public static void flushBatch(@NotNull GL2 gl2) {
+        GeometryBatch batch = GeometryBatch.getActive();
+        if (batch != null)
+            batch.flush(gl2);
+    }
+
     /**
      * Нарисовать точку
      *
@@ -62,11 +123,15 @@ public class GLAlgorithms {
             @NotNull GLTextController textController, @NotNull Vector2d pos, double step, @NotNull List<String> lines,
             @NotNull List<Vector3d> colors
     ) {
-        pos = new Vector2d(Objects.requireNonNull(pos));
-        pos.y += step / 3;
+        double x = Objects.requireNonNull(pos).x;
+        double y = pos.y + step / 3;
         for (int i = 0; i < colors.size(); i++) {
-            textController.drawText(lines.get(i), pos, colors.get(i));
-            pos.y += step;
+            Vector3d color = colors.get(i);
+            if (color == null)
+                textController.drawText(lines.get(i), x, y, 1, 1, 1, 1);
+            else
+                textController.drawText(lines.get(i), x, y, (float) color.x, (float) color.y, (float) color.z, 1);
+            y += step;
         }
     }
 
@@ -80,16 +145,15 @@ public class GLAlgorithms {
     public static void renderVerticalVector(
             @NotNull GLTextController textController, @NotNull String[] lines, @NotNull double[] opacities
     ) {
-        Vector2d pos = new Vector2d(textController.getCaptionParams().getPos());
-        pos.y += textController.getCaptionParams().getStep() / 3;
+        CaptionParams captionParams = textController.getCaptionParams();
+        Vector4d color = captionParams.getColor();
+        double x = captionParams.getPos().x;
+        double y = captionParams.getPos().y + captionParams.getStep() / 3;
         for (int i = 0; i < lines.length; i++) {
-            textController.drawText(lines[i], pos, new Vector4d(
-                    textController.getCaptionParams().getColor().x,
-                    textController.getCaptionParams().getColor().y,
-                    textController.getCaptionParams().getColor().z,
-                    opacities[i])
+            textController.drawText(
+                    lines[i], x, y, (float) color.x, (float) color.y, (float) color.z, (float) opacities[i]
             );
-            pos.y += textController.getCaptionParams().getStep();
+            y += captionParams.getStep();
         }
     }
 
@@ -100,11 +164,12 @@ public class GLAlgorithms {
      * @param lines          строки
      */
     public static void renderVerticalVector(@NotNull GLTextController textController, @NotNull List<String> lines) {
-        Vector2d pos = new Vector2d(textController.getCaptionParams().getPos());
-        pos.y += textController.getCaptionParams().getStep() / 3;
+        CaptionParams captionParams = textController.getCaptionParams();
+        double x = captionParams.getPos().x;
+        double y = captionParams.getPos().y + captionParams.getStep() / 3;
         for (String value : lines) {
-            textController.drawText(value, pos);
-            pos.y += textController.getCaptionParams().getStep();
+            textController.drawText(value, x, y);
+            y += captionParams.getStep();
         }
     }
 
@@ -147,14 +212,15 @@ public class GLAlgorithms {
     public static void renderFilledCircle(
             @NotNull GL2 gl2, double cx, double cy, double rx, double ry, int num_segments
     ) {
-        gl2.glBegin(GL_TRIANGLE_FAN);
+        UnitCircleTable table = UnitCircleTable.of(num_segments);
+        GeometryBatch batch = getBatch();
+        batch.beginPath();
         for (int i = 0; i < num_segments; i++) {
-            double theta = 2 * PI * i / num_segments;
-            double x = rx * cos(theta);
-            double y = ry * sin(theta);
-            gl2.glVertex2d(x + cx, y + cy);
+            double x = rx * table.cos(i);
+            double y = ry * table.sin(i);
+            batch.fanVertex(x + cx, y + cy, 0);
         }
-        gl2.glEnd();
+        submit(gl2, batch);
     }
 
     /**
@@ -178,12 +244,14 @@ public class GLAlgorithms {
      * @param ry  размер квадрата вдоль оси Y
      */
     public static void renderFilledQuad(@NotNull GL2 gl2, double cx, double cy, double rx, double ry) {
-        gl2.glBegin(GL_QUADS);
-        gl2.glVertex2d(cx, cy);
-        gl2.glVertex2d(cx, cy + ry);
-        gl2.glVertex2d(cx + rx, cy + ry);
-        gl2.glVertex2d(cx + rx, cy);
-        gl2.glEnd();
+        GeometryBatch batch = getBatch();
+        batch.addQuad(
+                cx, cy,
+                cx, cy + ry,
+                cx + rx, cy + ry,
+                cx + rx, cy
+        );
+        submit(gl2, batch);
     }
 
     /**
@@ -249,12 +317,14 @@ public class GLAlgorithms {
     public static void renderUpBorderQuad(
             @NotNull GL2 gl2, double cx, double cy, double rx, double ry, double borderx, double bordery
     ) {
-        gl2.glBegin(GL_QUADS);
-        gl2.glVertex2d(cx, cy + ry);
-        gl2.glVertex2d(cx, cy + ry - bordery);
-        gl2.glVertex2d(cx + rx, cy + ry - bordery);
-        gl2.glVertex2d(cx + rx, cy + ry);
-        gl2.glEnd();
+        GeometryBatch batch = getBatch();
+        batch.addQuad(
+                cx, cy + ry,
+                cx, cy + ry - bordery,
+                cx + rx, cy + ry - bordery,
+                cx + rx, cy + ry
+        );
+        submit(gl2, batch);
     }
 
     /**
@@ -285,12 +355,14 @@ public class GLAlgorithms {
     public static void renderDownBorderQuad(
             @NotNull GL2 gl2, double cx, double cy, double rx, double ry, double borderx, double bordery
     ) {
-        gl2.glBegin(GL_QUADS);
-        gl2.glVertex2d(cx, cy);
-        gl2.glVertex2d(cx, cy + bordery);
-        gl2.glVertex2d(cx + rx, cy + bordery);
-        gl2.glVertex2d(cx + rx, cy);
-        gl2.glEnd();
+        GeometryBatch batch = getBatch();
+        batch.addQuad(
+                cx, cy,
+                cx, cy + bordery,
+                cx + rx, cy + bordery,
+                cx + rx, cy
+        );
+        submit(gl2, batch);
     }
 
     /**
@@ -307,12 +379,14 @@ public class GLAlgorithms {
     public static void renderLeftBorderQuad(
             @NotNull GL2 gl2, double cx, double cy, double rx, double ry, double borderx, double bordery
     ) {
-        gl2.glBegin(GL_QUADS);
-        gl2.glVertex2d(cx, cy + bordery);
-        gl2.glVertex2d(cx, cy + ry - bordery);
-        gl2.glVertex2d(cx + borderx, cy + ry - bordery);
-        gl2.glVertex2d(cx + borderx, cy + bordery);
-        gl2.glEnd();
+        GeometryBatch batch = getBatch();
+        batch.addQuad(
+                cx, cy + bordery,
+                cx, cy + ry - bordery,
+                cx + borderx, cy + ry - bordery,
+                cx + borderx, cy + bordery
+        );
+        submit(gl2, batch);
     }
 
     /**
@@ -343,12 +417,14 @@ public class GLAlgorithms {
     public static void renderRightBorderQuad(
             @NotNull GL2 gl2, double cx, double cy, double rx, double ry, double borderx, double bordery
     ) {
-        gl2.glBegin(GL_QUADS);
-        gl2.glVertex2d(cx + rx, cy + bordery);
-        gl2.glVertex2d(cx + rx, cy + ry - bordery);
-        gl2.glVertex2d(cx + rx - borderx, cy + ry - bordery);
-        gl2.glVertex2d(cx + rx - borderx, cy + bordery);
-        gl2.glEnd();
+        GeometryBatch batch = getBatch();
+        batch.addQuad(
+                cx + rx, cy + bordery,
+                cx + rx, cy + ry - bordery,
+                cx + rx - borderx, cy + ry - bordery,
+                cx + rx - borderx, cy + bordery
+        );
+        submit(gl2, batch);
     }
 
 
@@ -378,13 +454,14 @@ public class GLAlgorithms {
     public static void renderLineQuad(
             @NotNull GL2 gl2, double cx, double cy, double rx, double ry
     ) {
-        gl2.glBegin(GL_LINE_STRIP);
-        gl2.glVertex2d(cx, cy);
-        gl2.glVertex2d(cx, cy + ry);
-        gl2.glVertex2d(cx + rx, cy + ry);
-        gl2.glVertex2d(cx + rx, cy);
-        gl2.glVertex2d(cx, cy);
-        gl2.glEnd();
+        GeometryBatch batch = getBatch();
+        batch.beginPath();
+        batch.stripVertex(cx, cy, 0);
+        batch.stripVertex(cx, cy + ry, 0);
+        batch.stripVertex(cx + rx, cy + ry, 0);
+        batch.stripVertex(cx + rx, cy, 0);
+        batch.stripVertex(cx, cy, 0);
+        submit(gl2, batch);
     }
 
     /**
@@ -395,13 +472,14 @@ public class GLAlgorithms {
      * @param r   размер квадрата
      */
     public static void renderLineQuad(@NotNull GL2 gl2, @NotNull Vector2d c, @NotNull Vector2d r) {
-        gl2.glBegin(GL_LINE_STRIP);
-        gl2.glVertex2d(c.x, c.y);
-        gl2.glVertex2d(c.x, c.y + r.y);
-        gl2.glVertex2d(c.x + r.x, c.y + r.y);
-        gl2.glVertex2d(c.x + r.x, c.y);
-        gl2.glVertex2d(c.x, c.y);
-        gl2.glEnd();
+        GeometryBatch batch = getBatch();
+        batch.beginPath();
+        batch.stripVertex(c.x, c.y, 0);
+        batch.stripVertex(c.x, c.y + r.y, 0);
+        batch.stripVertex(c.x + r.x, c.y + r.y, 0);
+        batch.stripVertex(c.x + r.x, c.y, 0);
+        batch.stripVertex(c.x, c.y, 0);
+        submit(gl2, batch);
     }
 
     /**
@@ -412,13 +490,14 @@ public class GLAlgorithms {
      * @param r   размер квадрата
      */
     public static void renderLineQuad(@NotNull GL2 gl2, @NotNull Vector3d c, @NotNull Vector3d r) {
-        gl2.glBegin(GL_LINE_STRIP);
-        gl2.glVertex3d(c.x, c.y, c.z);
-        gl2.glVertex3d(c.x, c.y + r.y, c.z + r.z);
-        gl2.glVertex3d(c.x + r.x, c.y + r.y, c.z + r.z);
-        gl2.glVertex3d(c.x + r.x, c.y, c.z);
-        gl2.glVertex3d(c.x, c.y, c.z);
-        gl2.glEnd();
+        GeometryBatch batch = getBatch();
+        batch.beginPath();
+        batch.stripVertex(c.x, c.y, c.z);
+        batch.stripVertex(c.x, c.y + r.y, c.z + r.z);
+        batch.stripVertex(c.x + r.x, c.y + r.y, c.z + r.z);
+        batch.stripVertex(c.x + r.x, c.y, c.z);
+        batch.stripVertex(c.x, c.y, c.z);
+        submit(gl2, batch);
     }
 
     /**
@@ -482,43 +561,45 @@ public class GLAlgorithms {
     public static void renderFilledRoundedQuad(
             @NotNull GL2 gl2, @NotNull Vector2d pos, @NotNull Vector2d size, double rad, double zOffset
     ) {
-        gl2.glBegin(GL_TRIANGLE_FAN);
-        gl2.glVertex3d(pos.x + size.x / 2, pos.y + size.y / 2, zOffset);
-        gl2.glVertex3d(pos.x, pos.y + size.y - rad, zOffset);
-        gl2.glVertex3d(pos.x, pos.y + rad, zOffset);
-
-        for (double i = 0; i < 10; i++) {
-            gl2.glVertex3d(pos.x + rad * (1 - cos(i / 20 * PI)), pos.y + rad * (1 - sin(i / 20 * PI)), zOffset);
+        UnitCircleTable corner = UnitCircleTable.ROUNDED_CORNER;
+        GeometryBatch batch = getBatch();
+        batch.beginPath();
+        batch.fanVertex(pos.x + size.x / 2, pos.y + size.y / 2, zOffset);
+        batch.fanVertex(pos.x, pos.y + size.y - rad, zOffset);
+        batch.fanVertex(pos.x, pos.y + rad, zOffset);
+
+        for (int i = 0; i < corner.getSize(); i++) {
+            batch.fanVertex(pos.x + rad * (1 - corner.cos(i)), pos.y + rad * (1 - corner.sin(i)), zOffset);
         }
 
-        gl2.glVertex3d(pos.x + size.x - rad, pos.y, zOffset);
+        batch.fanVertex(pos.x + size.x - rad, pos.y, zOffset);
 
-        for (double i = 0; i < 10; i++) {
-            gl2.glVertex3d(
-                    pos.x + size.x + rad * (sin(i / 20 * PI) - 1), pos.y + rad * (1 - cos(i / 20 * PI)), zOffset
+        for (int i = 0; i < corner.getSize(); i++) {
+            batch.fanVertex(
+                    pos.x + size.x + rad * (corner.sin(i) - 1), pos.y + rad * (1 - corner.cos(i)), zOffset
             );
         }
 
-        gl2.glVertex3d(pos.x + size.x, pos.y + size.y - rad, zOffset);
+        batch.fanVertex(pos.x + size.x, pos.y + size.y - rad, zOffset);
 
-        for (double i = 0; i < 10; i++) {
-            gl2.glVertex3d(
-                    pos.x + size.x + rad * (cos(i / 20 * PI) - 1),
-                    pos.y + size.y + rad * (sin(i / 20 * PI) - 1),
+        for (int i = 0; i < corner.getSize(); i++) {
+            batch.fanVertex(
+                    pos.x + size.x + rad * (corner.cos(i) - 1),
+                    pos.y + size.y + rad * (corner.sin(i) - 1),
                     zOffset
             );
         }
 
-        gl2.glVertex3d(pos.x + rad, pos.y + size.y, zOffset);
+        batch.fanVertex(pos.x + rad, pos.y + size.y, zOffset);
 
-        for (double i = 0; i < 10; i++) {
-            gl2.glVertex3d(
-                    pos.x + rad * (1 - sin(i / 20 * PI)), pos.y + size.y + rad * (cos(i / 20 * PI) - 1), zOffset
+        for (int i = 0; i < corner.getSize(); i++) {
+            batch.fanVertex(
+                    pos.x + rad * (1 - corner.sin(i)), pos.y + size.y + rad * (corner.cos(i) - 1), zOffset
             );
         }
 
-        gl2.glVertex3d(pos.x, pos.y + size.y - rad, zOffset);
-        gl2.glEnd();
+        batch.fanVertex(pos.x, pos.y + size.y - rad, zOffset);
+        submit(gl2, batch);
     }
 
     /**
@@ -543,42 +624,44 @@ public class GLAlgorithms {
      * @param zOffset смещение по оси Z
      */
     public static void renderLineRoundedQuad(GL2 gl2, @NotNull Vector2d pos, @NotNull Vector2d size, double rad, double zOffset) {
-        gl2.glBegin(GL_LINE_STRIP);
-        gl2.glVertex3d(pos.x, pos.y + size.y - rad, zOffset);
-        gl2.glVertex3d(pos.x, pos.y + rad, zOffset);
-
-        for (double i = 0; i < 10; i++) {
-            gl2.glVertex3d(pos.x + rad * (1 - cos(i / 20 * PI)), pos.y + rad * (1 - sin(i / 20 * PI)), zOffset);
+        UnitCircleTable corner = UnitCircleTable.ROUNDED_CORNER;
+        GeometryBatch batch = getBatch();
+        batch.beginPath();
+        batch.stripVertex(pos.x, pos.y + size.y - rad, zOffset);
+        batch.stripVertex(pos.x, pos.y + rad, zOffset);
+
+        for (int i = 0; i < corner.getSize(); i++) {
+            batch.stripVertex(pos.x + rad * (1 - corner.cos(i)), pos.y + rad * (1 - corner.sin(i)), zOffset);
         }
 
-        gl2.glVertex3d(pos.x + size.x - rad, pos.y, zOffset);
+        batch.stripVertex(pos.x + size.x - rad, pos.y, zOffset);
 
-        for (double i = 0; i < 10; i++) {
-            gl2.glVertex3d(
-                    pos.x + size.x + rad * (sin(i / 20 * PI) - 1), pos.y + rad * (1 - cos(i / 20 * PI)), zOffset
+        for (int i = 0; i < corner.getSize(); i++) {
+            batch.stripVertex(
+                    pos.x + size.x + rad * (corner.sin(i) - 1), pos.y + rad * (1 - corner.cos(i)), zOffset
             );
         }
 
-        gl2.glVertex3d(pos.x + size.x, pos.y + size.y - rad, zOffset);
+        batch.stripVertex(pos.x + size.x, pos.y + size.y - rad, zOffset);
 
-        for (double i = 0; i < 10; i++) {
-            gl2.glVertex3d(
-                    pos.x + size.x + rad * (cos(i / 20 * PI) - 1),
-                    pos.y + size.y + rad * (sin(i / 20 * PI) - 1),
+        for (int i = 0; i < corner.getSize(); i++) {
+            batch.stripVertex(
+                    pos.x + size.x + rad * (corner.cos(i) - 1),
+                    pos.y + size.y + rad * (corner.sin(i) - 1),
                     zOffset
             );
         }
 
-        gl2.glVertex3d(pos.x + rad, pos.y + size.y, zOffset);
+        batch.stripVertex(pos.x + rad, pos.y + size.y, zOffset);
 
-        for (double i = 0; i < 10; i++) {
-            gl2.glVertex3d(
-                    pos.x + rad * (1 - sin(i / 20 * PI)), pos.y + size.y + rad * (cos(i / 20 * PI) - 1), zOffset
+        for (int i = 0; i < corner.getSize(); i++) {
+            batch.stripVertex(
+                    pos.x + rad * (1 - corner.sin(i)), pos.y + size.y + rad * (corner.cos(i) - 1), zOffset
             );
         }
 
-        gl2.glVertex3d(pos.x, pos.y + size.y - rad, zOffset);
-        gl2.glEnd();
+        batch.stripVertex(pos.x, pos.y + size.y - rad, zOffset);
+        submit(gl2, batch);
     }
 
     /**
@@ -593,111 +676,172 @@ public class GLAlgorithms {
     public static Vector2d getRoundedQuadCrossLinePoint(
             @NotNull Vector2d posA, @NotNull Vector2d posB, @NotNull Vector2d size, double rad
     ) {
-        Vector2d delta = Vector2d.subtract(Objects.requireNonNull(posB), Objects.requireNonNull(posA));
-        double angle = atan2(delta.y, delta.x);
+        Objects.requireNonNull(posB);
+        Objects.requireNonNull(posA);
+        double[] res = new double[2];
+        getRoundedQuadCrossLinePoint(posA.x, posA.y, posB.x, posB.y, size.x, size.y, rad, res, 0);
+        return new Vector2d(res[0], res[1]);
+    }
+
+    /**
+     * Получить точку пересечения линии и скруглённого квадрата с центром в первой точке,
+     * не создавая объектов. Результат совпадает до бита с
+     * {@link #getRoundedQuadCrossLinePoint(Vector2d, Vector2d, Vector2d, double)}
+     *
+     * @param ax     X координата первой точки, определяющей прямую
+     * @param ay     Y координата первой точки, определяющей прямую
+     * @param bx     X координата второй точки, определяющей прямую
+     * @param by     Y координата второй точки, определяющей прямую
+     * @param sizeX  размер квадрата вдоль оси X
+     * @param sizeY  размер квадрата вдоль оси Y
+     * @param rad    радиус скругления
+     * @param out    массив, в который записываются координаты точки пересечения
+     * @param offset индекс X координаты в массиве, Y координата записывается следом
+     */
+    public static void getRoundedQuadCrossLinePoint(
+            double ax, double ay, double bx, double by, double sizeX, double sizeY, double rad,
+            @NotNull double[] out, int offset
+    ) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double angle = atan2(dy, dx);
         if (angle < 0)
             angle += 2 * PI;
 
-        // опорные углы
-        double[] reperAngles = new double[]{
-                atan2(size.y / 2 - rad, size.x / 2),
-                atan2(size.y / 2, size.x / 2 - rad),
-                atan2(size.y / 2, -size.x / 2 + rad),
-                atan2(size.y / 2 - rad, -size.x / 2),
-                2 * PI + atan2(-size.y / 2 + rad, -size.x / 2),
-                2 * PI + atan2(-size.y / 2, -size.x / 2 + rad),
-                2 * PI + atan2(-size.y / 2, size.x / 2 - rad),
-                2 * PI + atan2(-size.y / 2 + rad, size.x / 2),
-        };
-
-        Vector2d res = Vector2d.zeros();
-        if (angle < reperAngles[0] || angle > reperAngles[7]) {
-            res = getLineLineIntersection(
-                    Vector2d.zeros(),
-                    delta,
-                    new Vector2d(size.x / 2, -size.y / 2 + rad),
-                    new Vector2d(size.x / 2, size.y / 2 - rad)
+        // опорные углы вычисляются только по мере проверки
+        if (angle < atan2(sizeY / 2 - rad, sizeX / 2) || angle > 2 * PI + atan2(-sizeY / 2 + rad, sizeX / 2)) {
+            getLineLineIntersection(
+                    dx, dy, sizeX / 2, -sizeY / 2 + rad, sizeX / 2, sizeY / 2 - rad, out, offset
             );
-        } else if (angle <= reperAngles[1]) {
-            res = getCircleVectorIntersction(delta.x, delta.y, size.x / 2 - rad, size.y / 2 - rad, rad);
-        } else if (angle <= reperAngles[2]) {
-            res = getLineLineIntersection(
-                    Vector2d.zeros(),
-                    delta,
-                    new Vector2d(size.x / 2 - rad, size.y / 2),
-                    new Vector2d(-size.x / 2 + rad, size.y / 2)
+        } else if (angle <= atan2(sizeY / 2, sizeX / 2 - rad)) {
+            getCircleVectorIntersction(dx, dy, sizeX / 2 - rad, sizeY / 2 - rad, rad, out, offset);
+        } else if (angle <= atan2(sizeY / 2, -sizeX / 2 + rad)) {
+            getLineLineIntersection(
+                    dx, dy, sizeX / 2 - rad, sizeY / 2, -sizeX / 2 + rad, sizeY / 2, out, offset
             );
-        } else if (angle <= reperAngles[3]) {
-            res = getCircleVectorIntersction(delta.x, delta.y, -size.x / 2 + rad, size.y / 2 - rad, rad);
-        } else if (angle <= reperAngles[4]) {
-            res = getLineLineIntersection(
-                    Vector2d.zeros(),
-                    delta,
-                    new Vector2d(-size.x / 2, size.y / 2 - rad),
-                    new Vector2d(-size.x / 2, -size.y / 2 + rad)
+        } else if (angle <= atan2(sizeY / 2 - rad, -sizeX / 2)) {
+            getCircleVectorIntersction(dx, dy, -sizeX / 2 + rad, sizeY / 2 - rad, rad, out, offset);
+        } else if (angle <= 2 * PI + atan2(-sizeY / 2 + rad, -sizeX / 2)) {
+            getLineLineIntersection(
+                    dx, dy, -sizeX / 2, sizeY / 2 - rad, -sizeX / 2, -sizeY / 2 + rad, out, offset
             );
-        } else if (angle <= reperAngles[5]) {
-            res = getCircleVectorIntersction(delta.x, delta.y, -size.x / 2 + rad, -size.y / 2 + rad, rad);
-        } else if (angle <= reperAngles[6]) {
-            res = getLineLineIntersection(
-                    Vector2d.zeros(),
-                    delta,
-                    new Vector2d(size.x / 2 - rad, -size.y / 2),
-                    new Vector2d(-size.x / 2 + rad, -size.y / 2)
+        } else if (angle <= 2 * PI + atan2(-sizeY / 2, -sizeX / 2 + rad)) {
+            getCircleVectorIntersction(dx, dy, -sizeX / 2 + rad, -sizeY / 2 + rad, rad, out, offset);
+        } else if (angle <= 2 * PI + atan2(-sizeY / 2, sizeX / 2 - rad)) {
+            getLineLineIntersection(
+                    dx, dy, sizeX / 2 - rad, -sizeY / 2, -sizeX / 2 + rad, -sizeY / 2, out, offset
             );
-        } else if (angle <= reperAngles[7]) {
-            res = getCircleVectorIntersction(delta.x, delta.y, size.x / 2 - rad, -size.y / 2 + rad, rad);
+        } else if (angle <= 2 * PI + atan2(-sizeY / 2 + rad, sizeX / 2)) {
+            getCircleVectorIntersction(dx, dy, sizeX / 2 - rad, -sizeY / 2 + rad, rad, out, offset);
+        } else {
+            out[offset] = 0;
+            out[offset + 1] = 0;
         }
+        out[offset] = out[offset] + ax;
+        out[offset + 1] = out[offset + 1] + ay;
+    }
 
-        return Vector2d.sum(res, posA);
+    /**
+     * Обрезать рёбра графа по скруглённым квадратам узлов: для каждого ребра найти точки,
+     * в которых оно выходит из квадрата начального узла и входит в квадрат конечного.
+     * Метод не создаёт объектов
+     *
+     * @param positions координаты центров узлов: x, y для каждого узла
+     * @param sizes     размеры квадратов узлов вдоль осей: x, y для каждого узла
+     * @param rad       радиус скругления
+     * @param edges     номера узлов рёбер: начальный и конечный узел для каждого ребра
+     * @param edgeCnt   кол-во рёбер
+     * @param out       координаты обрезанных рёбер: x, y начала и x, y конца для каждого ребра
+     */
+    public static void getRoundedQuadCrossLinePoints(
+            @NotNull double[] positions, @NotNull double[] sizes, double rad,
+            @NotNull int[] edges, int edgeCnt, @NotNull double[] out
+    ) {
+        if (edgeCnt < 0 || edgeCnt * 2 > edges.length || edgeCnt * 4 > out.length)
+            throw new IllegalArgumentException(
+                    "wrong edge count: " + edgeCnt + ", " + edges.length + ", " + out.length
+            );
+        for (int i = 0; i < edgeCnt; i++) {
+            int from = 2 * edges[2 * i];
+            int to = 2 * edges[2 * i + 1];
+            getRoundedQuadCrossLinePoint(
+                    positions[from], positions[from + 1], positions[to], positions[to + 1],
+                    sizes[from], sizes[from + 1], rad, out, 4 * i
+            );
+            getRoundedQuadCrossLinePoint(
+                    positions[to], positions[to + 1], positions[from], positions[from + 1],
+                    sizes[to], sizes[to + 1], rad, out, 4 * i + 2
+            );
+        }
     }
 
     /**
-     * Получить точку пересечения двух прямых
+     * Получить точку пересечения прямой, проходящей через начало координат, с другой прямой.
+     * Определители вычисляются в том же порядке, что и определители матриц 2x2
+     * в формуле пересечения двух прямых, поэтому результат совпадает с ней до бита
      *
-     * @param p1 первая точка, определяющая первую прямую
-     * @param p2 вторая точка, определяющая первую прямую
-     * @param p3 первая точка, определяющая вторую прямую
-     * @param p4 вторая точка, определяющая вторую прямую
-     * @return точка пересечения двух прямых
+     * @param x2     X координата второй точки, определяющей первую прямую
+     * @param y2     Y координата второй точки, определяющей первую прямую
+     * @param x3     X координата первой точки, определяющей вторую прямую
+     * @param y3     Y координата первой точки, определяющей вторую прямую
+     * @param x4     X координата второй точки, определяющей вторую прямую
+     * @param y4     Y координата второй точки, определяющей вторую прямую
+     * @param out    массив, в который записываются координаты точки пересечения
+     * @param offset индекс X координаты в массиве
      */
-    private static Vector2d getLineLineIntersection(
-            @NotNull Vector2d p1, @NotNull Vector2d p2, @NotNull Vector2d p3, @NotNull Vector2d p4
+    private static void getLineLineIntersection(
+            double x2, double y2, double x3, double y3, double x4, double y4, @NotNull double[] out, int offset
     ) {
-        double div = new Matrix2d(
-                new Matrix2d(p1.x, 1, p2.x, 1).determinant(),
-                new Matrix2d(p1.y, 1, p2.y, 1).determinant(),
-                new Matrix2d(p3.x, 1, p4.x, 1).determinant(),
-                new Matrix2d(p3.y, 1, p4.y, 1).determinant()
-        ).determinant();
-
-        return new Vector2d(
-                new Matrix2d(
-                        new Matrix2d(p1.x, p1.y, p2.x, p2.y).determinant(),
-                        new Matrix2d(p1.x, 1, p2.x, 1).determinant(),
-                        new Matrix2d(p3.x, p3.y, p4.x, p4.y).determinant(),
-                        new Matrix2d(p3.x, 1, p4.x, 1).determinant()
-                ).determinant() / div,
-                new Matrix2d(
-                        new Matrix2d(p1.x, p1.y, p2.x, p2.y).determinant(),
-                        new Matrix2d(p1.y, 1, p2.y, 1).determinant(),
-                        new Matrix2d(p3.x, p3.y, p4.x, p4.y).determinant(),
-                        new Matrix2d(p3.y, 1, p4.y, 1).determinant()
-                ).determinant() / div
+        // первая точка первой прямой - начало координат
+        double x1 = 0;
+        double y1 = 0;
+        double div = determinant(
+                determinant(x1, 1, x2, 1),
+                determinant(y1, 1, y2, 1),
+                determinant(x3, 1, x4, 1),
+                determinant(y3, 1, y4, 1)
         );
+        out[offset] = determinant(
+                determinant(x1, y1, x2, y2),
+                determinant(x1, 1, x2, 1),
+                determinant(x3, y3, x4, y4),
+                determinant(x3, 1, x4, 1)
+        ) / div;
+        out[offset + 1] = determinant(
+                determinant(x1, y1, x2, y2),
+                determinant(y1, 1, y2, 1),
+                determinant(x3, y3, x4, y4),
+                determinant(y3, 1, y4, 1)
+        ) / div;
+    }
+
+    /**
+     * Получить определитель матрицы 2x2
+     *
+     * @param m00 элемент первой строки первого столбца
+     * @param m01 элемент первой строки второго столбца
+     * @param m10 элемент второй строки первого столбца
+     * @param m11 элемент второй строки второго столбца
+     * @return определитель матрицы
+     */
+    private static double determinant(double m00, double m01, double m10, double m11) {
+        return m00 * m11 - m10 * m01;
     }
 
     /**
      * Получить точку пересечения веткора с кругом
      *
-     * @param x0 X координата вектора
-     * @param y0 Y координата вектора
-     * @param xR X координата цетра круга
-     * @param yR Y координата центра круга
-     * @param R  радиус круга
-     * @return точка пересечения веткора с кругом
+     * @param x0     X координата вектора
+     * @param y0     Y координата вектора
+     * @param xR     X координата цетра круга
+     * @param yR     Y координата центра круга
+     * @param R      радиус круга
+     * @param out    массив, в который записываются координаты точки пересечения
+     * @param offset индекс X координаты в массиве
      */
-    private static Vector2d getCircleVectorIntersction(double x0, double y0, double xR, double yR, double R) {
+    private static void getCircleVectorIntersction(
+            double x0, double y0, double xR, double yR, double R, @NotNull double[] out, int offset
+    ) {
         double a = x0 * x0 + y0 * y0;
         double b = -2 * xR * x0 - 2 * yR * y0;
         double c = xR * xR + yR * yR - R * R;
@@ -709,8 +853,8 @@ public class GLAlgorithms {
             x = max(x0 * t1, x0 * t2);
         else
             x = min(x0 * t1, x0 * t2);
-        double y = y0 / x0 * x;
-        return new Vector2d(x, y);
+        out[offset] = x;
+        out[offset + 1] = y0 / x0 * x;
     }
 
     /**
@@ -725,30 +869,84 @@ public class GLAlgorithms {
     public static void renderArrow(
             GL2 gl2, double lineWidth, double coneSize, @NotNull Vector2d pos, @NotNull Vector2d dir
     ) {
-        Vector2d left = new Vector2d(-dir.y, dir.x).norm();
-        Vector2d right = new Vector2d(dir.y, -dir.x).norm();
-
-        Vector2d lineLeft = Vector2d.mul(left, lineWidth / 2);
-        Vector2d lineRight = Vector2d.mul(right, lineWidth / 2);
-        Vector2d coneDir = dir.norm(coneSize);
-
-        gl2.glBegin(GL_QUADS);
-        gl2.glVertex2d(pos.x + lineLeft.x, pos.y + lineLeft.y);
-        gl2.glVertex2d(dir.x + pos.x + lineLeft.x - coneDir.x, dir.y + pos.y + lineLeft.y - coneDir.y);
-        gl2.glVertex2d(dir.x + pos.x + lineRight.x - coneDir.x, dir.y + pos.y + lineRight.y - coneDir.y);
-        gl2.glVertex2d(pos.x + lineRight.x, pos.y + lineRight.y);
-        gl2.glEnd();
-
-        Vector2d coneLeft = Vector2d.mul(left, coneSize / 2);
-        Vector2d coneRight = Vector2d.mul(right, coneSize / 2);
+        GeometryBatch batch = getBatch();
+        batch.reserveTriangles(3);
+        addArrow(batch, lineWidth, coneSize, pos.x, pos.y, dir.x, dir.y);
+        submit(gl2, batch);
+    }
 
+    /**
+     * Нарисовать стрелки одним вызовом рисования. Стрелки читаются из буфера от его положения
+     * до предела по четыре значения: X, Y координаты начала и X, Y координаты вектора направления.
+     * Положение буфера не меняется
+     *
+     * @param gl2       переменная OpenGL
+     * @param lineWidth ширина линии стрелки
+     * @param coneSize  размер конуса стрелки
+     * @param arrows    начала и векторы направления стрелок
+     */
+    public static void renderArrows(@NotNull GL2 gl2, double lineWidth, double coneSize, @NotNull DoubleBuffer arrows) {
+        int from = arrows.position();
+        int to = from + arrows.remaining() / 4 * 4;
+        GeometryBatch batch = getBatch();
+        batch.reserveTriangles((to - from) / 4 * 3);
+        for (int i = from; i < to; i += 4)
+            addArrow(batch, lineWidth, coneSize, arrows.get(i), arrows.get(i + 1), arrows.get(i + 2), arrows.get(i + 3));
+        submit(gl2, batch);
+    }
 
-        gl2.glBegin(GL_TRIANGLES);
-        gl2.glVertex2d(dir.x + pos.x + coneLeft.x - coneDir.x, dir.y + pos.y + coneLeft.y - coneDir.y);
-        gl2.glVertex2d(dir.x + pos.x + coneRight.x - coneDir.x, dir.y + pos.y + coneRight.y - coneDir.y);
-        gl2.glVertex2d(dir.x + pos.x, dir.y + pos.y);
-        gl2.glEnd();
+    /**
+     * Нарисовать стрелки одним вызовом рисования. Стрелки читаются из буфера от его положения
+     * до предела по четыре значения: X, Y координаты начала и X, Y координаты вектора направления.
+     * Положение буфера не меняется
+     *
+     * @param gl2       переменная OpenGL
+     * @param lineWidth ширина линии стрелки
+     * @param coneSize  размер конуса стрелки
+     * @param arrows    начала и векторы направления стрелок
+     */
+    public static void renderArrows(@NotNull GL2 gl2, double lineWidth, double coneSize, @NotNull FloatBuffer arrows) {
+        int from = arrows.position();
+        int to = from + arrows.remaining() / 4 * 4;
+        GeometryBatch batch = getBatch();
+        batch.reserveTriangles((to - from) / 4 * 3);
+        for (int i = from; i < to; i += 4)
+            addArrow(batch, lineWidth, coneSize, arrows.get(i), arrows.get(i + 1), arrows.get(i + 2), arrows.get(i + 3));
+        submit(gl2, batch);
+    }
 
+    /**
+     * Добавить стрелку в пакет тремя треугольниками: два образуют линию, третий - конус.
+     * Стрелка нулевой длины не добавляется
+     *
+     * @param batch     пакет геометрии
+     * @param lineWidth ширина линии стрелки
+     * @param coneSize  размер конуса стрелки
+     * @param x         X координата начала стрелки
+     * @param y         Y координата начала стрелки
+     * @param dx        X координата вектора направления стрелки
+     * @param dy        Y координата вектора направления стрелки
+     */
+    private static void addArrow(
+            @NotNull GeometryBatch batch, double lineWidth, double coneSize, double x, double y, double dx, double dy
+    ) {
+        double length = sqrt(dx * dx + dy * dy);
+        if (length == 0)
+            return;
+        // единичный вектор влево от направления стрелки
+        double leftX = -dy / length;
+        double leftY = dx / length;
+        double lineX = leftX * lineWidth / 2;
+        double lineY = leftY * lineWidth / 2;
+        double coneX = leftX * coneSize / 2;
+        double coneY = leftY * coneSize / 2;
+        // основание конуса
+        double baseX = x + dx - dx / length * coneSize;
+        double baseY = y + dy - dy / length * coneSize;
+
+        batch.addTriangle(x + lineX, y + lineY, 0, baseX + lineX, baseY + lineY, 0, baseX - lineX, baseY - lineY, 0);
+        batch.addTriangle(x + lineX, y + lineY, 0, baseX - lineX, baseY - lineY, 0, x - lineX, y - lineY, 0);
+        batch.addTriangle(baseX + coneX, baseY + coneY, 0, baseX - coneX, baseY - coneY, 0, x + dx, y + dy, 0);
     }
 
     /**
@@ -765,11 +963,9 @@ public class GLAlgorithms {
         Vector2d left = Vector2d.mul(new Vector2d(-dir.y, dir.x), 0.5);
         Vector2d right = Vector2d.mul(new Vector2d(dir.y, -dir.x), 0.5);
 
-        gl2.glBegin(GL_TRIANGLES);
-        gl2.glVertex2d(pos.x + left.x, pos.y + left.y);
-        gl2.glVertex2d(pos.x + right.x, pos.y + right.y);
-        gl2.glVertex2d(target.x, target.y);
-        gl2.glEnd();
+        GeometryBatch batch = getBatch();
+        batch.addTriangle(pos.x + left.x, pos.y + left.y, 0, pos.x + right.x, pos.y + right.y, 0, target.x, target.y, 0);
+        submit(gl2, batch);
     }
 
     /**
@@ -780,10 +976,19 @@ public class GLAlgorithms {
      * @param B   вторая точка отрезка
      */
     public static void renderLine(GL2 gl2, @NotNull Vector2d A, @NotNull Vector2d B) {
-        gl2.glBegin(GL_LINES);
-        gl2.glVertex2d(A.x, A.y);
-        gl2.glVertex2d(B.x, B.y);
-        gl2.glEnd();
+        GeometryBatch batch = getBatch();
+        batch.addLine(A.x, A.y, 0, B.x, B.y, 0);
+        submit(gl2, batch);
+    }
+
+    /**
+     * Нарисовать все экземпляры фигур одним вызовом рисования и очистить их список
+     *
+     * @param gl2       переменная OpenGL
+     * @param instancer экземпляры фигур
+     */
+    public static void renderInstances(@NotNull GL2 gl2, @NotNull GLShapeInstancer instancer) {
+        Objects.requireNonNull(instancer).flush(gl2);
     }
 
     /**
@@ -0,0 +1,395 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.jogamp.opengl.GL2;
+import com.sun.istack.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Objects;
+
+import static com.jogamp.opengl.GL.*;
+import static com.jogamp.opengl.GL2.*;
+
+/**
+ * Рисовальщик текста по атласу глифов. Весь текст кадра превращается
+ * в текстурированные треугольники в одном вершинном буфере и выводится
+ * одним вызовом рисования при сбросе. Атлас поля расстояний выводится шейдером,
+ * поэтому один такой атлас обслуживает контроллеры текста с любым размером шрифта
+ */
+public class GLAtlasTextRenderer {
+    /**
+     * кол-во чисел на вершину: x, y, u, v, r, g, b, a
+     */
+    private static final int VERTEX_FLOATS = 8;
+    /**
+     * размер вершины в байтах
+     */
+    private static final int VERTEX_BYTES = VERTEX_FLOATS * Float.BYTES;
+    /**
+     * вершинный шейдер атласа поля расстояний
+     */
+    private static final String SDF_VERTEX_SHADER = "#version 110\n" +
+            "void main() {\n" +
+            "    gl_Position = ftransform();\n" +
+            "    gl_TexCoord[0] = gl_MultiTexCoord0;\n" +
+            "    gl_FrontColor = gl_Color;\n" +
+            "}\n";
+    /**
+     * фрагментный шейдер атласа поля расстояний: ширина сглаживания контура
+     * берётся из производной расстояния, поэтому контур чёткий при любом масштабе
+     */
+    private static final String SDF_FRAGMENT_SHADER = "#version 110\n" +
+            "uniform sampler2D atlas;\n" +
+            "void main() {\n" +
+            "    float distance = texture2D(atlas, gl_TexCoord[0].st).a;\n" +
+            "    float smoothing = fwidth(distance) * 0.5;\n" +
+            "    float alpha = smoothstep(0.5 - smoothing, 0.5 + smoothing, distance);\n" +
+            "    gl_FragColor = vec4(gl_Color.rgb, gl_Color.a * alpha);\n" +
+            "}\n";
+
+    /**
+     * атлас глифов
+     */
+    @NotNull
+    private final GlyphAtlas atlas;
+    /**
+     * вершины текста кадра
+     */
+    @NotNull
+    private FloatBuffer vertices;
+    /**
+     * кол-во вершин в буфере
+     */
+    private int vertexCnt;
+    /**
+     * id текстуры атласа, 0, если текстура ещё не загружена
+     */
+    private int textureId;
+    /**
+     * id вершинного буфера, 0, если буфер ещё не создан
+     */
+    private int bufferId;
+    /**
+     * id программы шейдеров поля расстояний, 0, если программа ещё не создана,
+     * -1, если шейдеры недоступны и используется альфа-тест
+     */
+    private int sdfProgramId;
+
+    /**
+     * Конструктор рисовальщика текста по атласу глифов
+     *
+     * @param atlas атлас глифов
+     */
+    public GLAtlasTextRenderer(@NotNull GlyphAtlas atlas) {
+        this.atlas = Objects.requireNonNull(atlas);
+        this.vertices = allocate(1024 * VERTEX_FLOATS);
+    }
+
+    /**
+     * Добавить строку в буфер кадра
+     *
+     * @param text  текст
+     * @param x     X координата начала базовой линии в СК окна
+     * @param y     Y координата начала базовой линии в СК окна
+     * @param scale масштаб относительно размера, с которым растеризован атлас
+     * @param r     красная компонента цвета
+     * @param g     зелёная компонента цвета
+     * @param b     синяя компонента цвета
+     * @param a     прозрачность
+     */
+    public void add(@NotNull CharSequence text, float x, float y, float scale, float r, float g, float b, float a) {
+        ensureCapacity(text.length() * 6);
+        float invWidth = 1.0f / atlas.getWidth();
+        float invHeight = 1.0f / atlas.getHeight();
+        float penX = x;
+        for (int i = 0; i < text.length(); i++) {
+            int id = atlas.getGlyphId(text.charAt(i));
+            if (id < 0)
+                continue;
+            int w = atlas.getGlyphWidth(id);
+            int h = atlas.getGlyphHeight(id);
+            if (w > 0 && h > 0) {
+                float left = penX + atlas.getGlyphOffsetX(id) * scale;
+                float top = y - atlas.getGlyphOffsetY(id) * scale;
+                float right = left + w * scale;
+                float bottom = top - h * scale;
+                float u0 = atlas.getGlyphX(id) * invWidth;
+                float v0 = atlas.getGlyphY(id) * invHeight;
+                float u1 = (atlas.getGlyphX(id) + w) * invWidth;
+                float v1 = (atlas.getGlyphY(id) + h) * invHeight;
+                putVertex(left, bottom, u0, v1, r, g, b, a);
+                putVertex(right, bottom, u1, v1, r, g, b, a);
+                putVertex(right, top, u1, v0, r, g, b, a);
+                putVertex(left, bottom, u0, v1, r, g, b, a);
+                putVertex(right, top, u1, v0, r, g, b, a);
+                putVertex(left, top, u0, v0, r, g, b, a);
+            }
+            penX += atlas.getGlyphAdvance(id) * scale;
+        }
+    }
+
+    /**
+     * Вывести весь накопленный текст в области вывода текущего размера.
+     * Метод должен вызываться из потока OpenGL
+     *
+     * @param gl2      переменная OpenGL
+     * @param viewport область вывода
+     */
+    public void flush(@NotNull GL2 gl2, @NotNull GLViewport viewport) {
+        flush(gl2, viewport.getWidth(), viewport.getHeight());
+    }
+
+    /**
+     * Вывести весь накопленный текст одним вызовом рисования и очистить буфер.
+     * Метод должен вызываться из потока OpenGL
+     *
+     * @param gl2          переменная OpenGL
+     * @param clientWidth  ширина окна
+     * @param clientHeight высота окна
+     */
+    public void flush(@NotNull GL2 gl2, int clientWidth, int clientHeight) {
+        if (vertexCnt == 0)
+            return;
+        if (textureId == 0)
+            uploadAtlas(gl2);
+        if (bufferId == 0) {
+            int[] ids = new int[1];
+            gl2.glGenBuffers(1, ids, 0);
+            bufferId = ids[0];
+        }
+
+        gl2.glMatrixMode(GL_PROJECTION);
+        gl2.glPushMatrix();
+        gl2.glLoadIdentity();
+        gl2.glOrtho(0, clientWidth, 0, clientHeight, -1, 1);
+        gl2.glMatrixMode(GL_MODELVIEW);
+        gl2.glPushMatrix();
+        gl2.glLoadIdentity();
+        gl2.glPushAttrib(GL_ENABLE_BIT | GL_COLOR_BUFFER_BIT | GL_TEXTURE_BIT);
+
+        gl2.glEnable(GL_BLEND);
+        gl2.glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+        gl2.glEnable(GL_TEXTURE_2D);
+        gl2.glBindTexture(GL_TEXTURE_2D, textureId);
+        if (atlas.isSdf())
+            bindSdfProgram(gl2);
+
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, bufferId);
+        vertices.flip();
+        gl2.glBufferData(GL_ARRAY_BUFFER, (long) vertexCnt * VERTEX_BYTES, vertices, GL_STREAM_DRAW);
+        gl2.glEnableClientState(GL_VERTEX_ARRAY);
+        gl2.glEnableClientState(GL_TEXTURE_COORD_ARRAY);
+        gl2.glEnableClientState(GL_COLOR_ARRAY);
+        gl2.glVertexPointer(2, GL_FLOAT, VERTEX_BYTES, 0);
+        gl2.glTexCoordPointer(2, GL_FLOAT, VERTEX_BYTES, 2 * Float.BYTES);
+        gl2.glColorPointer(4, GL_FLOAT, VERTEX_BYTES, 4 * Float.BYTES);
+        gl2.glDrawArrays(GL_TRIANGLES, 0, vertexCnt);
+        gl2.glDisableClientState(GL_COLOR_ARRAY);
+        gl2.glDisableClientState(GL_TEXTURE_COORD_ARRAY);
+        gl2.glDisableClientState(GL_VERTEX_ARRAY);
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+        if (sdfProgramId > 0)
+            gl2.glUseProgram(0);
+        gl2.glBindTexture(GL_TEXTURE_2D, 0);
+        gl2.glPopAttrib();
+        gl2.glPopMatrix();
+        gl2.glMatrixMode(GL_PROJECTION);
+        gl2.glPopMatrix();
+        gl2.glMatrixMode(GL_MODELVIEW);
+
+        vertices.clear();
+        vertexCnt = 0;
+    }
+
+    /**
+     * Включить вывод поля расстояний: программу шейдеров, а если шейдеры
+     * недоступны, то альфа-тест по контуру глифа
+     *
+     * @param gl2 переменная OpenGL
+     */
+    private void bindSdfProgram(@NotNull GL2 gl2) {
+        if (sdfProgramId == 0)
+            sdfProgramId = createSdfProgram(gl2);
+        if (sdfProgramId > 0) {
+            gl2.glUseProgram(sdfProgramId);
+        } else {
+            gl2.glEnable(GL_ALPHA_TEST);
+            gl2.glAlphaFunc(GL_GEQUAL, 0.5f);
+        }
+    }
+
+    /**
+     * Создать программу шейдеров поля расстояний
+     *
+     * @param gl2 переменная OpenGL
+     * @return id программы, -1, если программу не удалось создать
+     */
+    private static int createSdfProgram(@NotNull GL2 gl2) {
+        int vertexShader = compileShader(gl2, GL_VERTEX_SHADER, SDF_VERTEX_SHADER);
+        int fragmentShader = compileShader(gl2, GL_FRAGMENT_SHADER, SDF_FRAGMENT_SHADER);
+        if (vertexShader == 0 || fragmentShader == 0) {
+            gl2.glDeleteShader(vertexShader);
+            gl2.glDeleteShader(fragmentShader);
+            return -1;
+        }
+        int program = gl2.glCreateProgram();
+        gl2.glAttachShader(program, vertexShader);
+        gl2.glAttachShader(program, fragmentShader);
+        gl2.glLinkProgram(program);
+        gl2.glDeleteShader(vertexShader);
+        gl2.glDeleteShader(fragmentShader);
+        int[] status = new int[1];
+        gl2.glGetProgramiv(program, GL_LINK_STATUS, status, 0);
+        if (status[0] == 0) {
+            gl2.glDeleteProgram(program);
+            return -1;
+        }
+        return program;
+    }
+
+    /**
+     * Скомпилировать шейдер
+     *
+     * @param gl2    переменная OpenGL
+     * @param type   тип шейдера
+     * @param source исходный код шейдера
+     * @return id шейдера, 0, если шейдер не скомпилировался
+     */
+    static int compileShader(@NotNull GL2 gl2, int type, @NotNull String source) {
+        int shader = gl2.glCreateShader(type);
+        gl2.glShaderSource(shader, 1, new String[]{source}, new int[]{source.length()}, 0);
+        gl2.glCompileShader(shader);
+        int[] status = new int[1];
+        gl2.glGetShaderiv(shader, GL_COMPILE_STATUS, status, 0);
+        if (status[0] == 0) {
+            gl2.glDeleteShader(shader);
+            return 0;
+        }
+        return shader;
+    }
+
+    /**
+     * Отбросить накопленный текст, не выводя его
+     */
+    public void clear() {
+        vertices.clear();
+        vertexCnt = 0;
+    }
+
+    /**
+     * Освободить текстуру и буфер рисовальщика. Метод должен вызываться из потока OpenGL
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public void dispose(@NotNull GL2 gl2) {
+        if (textureId != 0)
+            gl2.glDeleteTextures(1, new int[]{textureId}, 0);
+        if (bufferId != 0)
+            gl2.glDeleteBuffers(1, new int[]{bufferId}, 0);
+        if (sdfProgramId > 0)
+            gl2.glDeleteProgram(sdfProgramId);
+        textureId = 0;
+        bufferId = 0;
+        sdfProgramId = 0;
+    }
+
+    /**
+     * Загрузить атлас в текстуру
+     *
+     * @param gl2 переменная OpenGL
+     */
+    private void uploadAtlas(@NotNull GL2 gl2) {
+        int[] maxSize = new int[1];
+        gl2.glGetIntegerv(GL_MAX_TEXTURE_SIZE, maxSize, 0);
+        if (Math.max(atlas.getWidth(), atlas.getHeight()) > maxSize[0])
+            throw new IllegalArgumentException(atlas + " exceeds GL_MAX_TEXTURE_SIZE " + maxSize[0]);
+        int[] ids = new int[1];
+        gl2.glGenTextures(1, ids, 0);
+        textureId = ids[0];
+        gl2.glBindTexture(GL_TEXTURE_2D, textureId);
+        gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+        gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        gl2.glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+        gl2.glTexImage2D(
+                GL_TEXTURE_2D, 0, GL_ALPHA, atlas.getWidth(), atlas.getHeight(), 0, GL_ALPHA, GL_UNSIGNED_BYTE,
+                ByteBuffer.wrap(atlas.getAlpha())
+        );
+        gl2.glBindTexture(GL_TEXTURE_2D, 0);
+    }
+
+    /**
+     * Записать вершину в буфер
+     *
+     * @param x X координата вершины
+     * @param y Y координата вершины
+     * @param u X координата текстуры
+     * @param v Y координата текстуры
+     * @param r красная компонента цвета
+     * @param g зелёная компонента цвета
+     * @param b синяя компонента цвета
+     * @param a прозрачность
+     */
+    private void putVertex(float x, float y, float u, float v, float r, float g, float b, float a) {
+        vertices.put(x).put(y).put(u).put(v).put(r).put(g).put(b).put(a);
+        vertexCnt++;
+    }
+
+    /**
+     * Увеличить буфер, если в нём нет места для заданного кол-ва вершин
+     *
+     * @param extraVertexCnt кол-во добавляемых вершин
+     */
+    private void ensureCapacity(int extraVertexCnt) {
+        int required = (vertexCnt + extraVertexCnt) * VERTEX_FLOATS;
+        if (required <= vertices.capacity())
+            return;
+        FloatBuffer grown = allocate(Math.max(required, vertices.capacity() * 2));
+        vertices.flip();
+        grown.put(vertices);
+        vertices = grown;
+    }
+
+    /**
+     * Выделить прямой буфер чисел в нативном порядке байт
+     *
+     * @param floatCnt кол-во чисел
+     * @return буфер
+     */
+    @NotNull
+    static FloatBuffer allocate(int floatCnt) {
+        return ByteBuffer.allocateDirect(floatCnt * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * Получить атлас глифов
+     *
+     * @return атлас глифов
+     */
+    @NotNull
+    public GlyphAtlas getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * Получить кол-во вершин, ожидающих вывода
+     *
+     * @return кол-во вершин, ожидающих вывода
+     */
+    public int getVertexCnt() {
+        return vertexCnt;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "GLAtlasTextRenderer{atlas, vertexCnt}"
+     */
+    @Override
+    public String toString() {
+        return "GLAtlasTextRenderer{" + atlas + ", " + vertexCnt + '}';
+    }
+}
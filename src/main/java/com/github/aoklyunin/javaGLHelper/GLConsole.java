@@ -1,29 +1,163 @@
 package com.github.aoklyunin.javaGLHelper;
 
+import com.github.aoklyunin.javaGLHelper.scrollers.scrollers.RangeScroller;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLContext;
+import com.jogamp.opengl.util.awt.TextRenderer;
 import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import jMath.aoklyunin.github.com.vector.Vector4d;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import static com.jogamp.opengl.GL.*;
+import static com.jogamp.opengl.GL2.*;
 
 /**
- * Класс консоли OpenGL
+ * Класс консоли OpenGL. Строки хранятся в кольцевом буфере, поэтому добавление
+ * строки не сдвигает массивы и стоит O(1) при любом максимальном количестве линий.
+ * Другие потоки добавляют строки через неблокирующую очередь {@link #post(String)},
+ * которая разбирается в начале каждого {@link #render()}.
+ * Строки гаснут по монотонным часам, а не по кол-ву кадров: каждая строка хранит
+ * момент, когда она полностью погаснет, погасшие строки не выводятся,
+ * а когда погасли все строки, вывод консоли ничего не делает.
+ * Чтобы стоимость вывода кадра не зависела от того, сколько пишут в консоль,
+ * одинаковые недавние строки можно склеивать в одну со счётчиком повторов
+ * {@link #setCoalesceDepth(int)}, а частоту строк от каждого источника
+ * ограничивать {@link #setRateLimit(double, int)}, а неизменившуюся консоль
+ * выводить одним вызовом рисования из текстуры {@link #setTextureCaching(boolean)}.
+ * Кроме готовых строк, консоль принимает отложенные записи {@link ConsoleEntry}, текст которых
+ * строится только при первом выводе. Строки можно разделить по каналам {@link ConsoleChannel}
+ * со своим цветом и временем жизни: строки всех каналов хранятся в одном кольцевом буфере
+ * и выводятся за один проход, сгруппированными по каналам
  */
 public class GLConsole {
     /**
-     * массив строк консоли
+     * Строка канала, отправленная из другого потока
+     */
+    private static class ChannelLine {
+        /**
+         * канал
+         */
+        @NotNull
+        private final ConsoleChannel channel;
+        /**
+         * строка или отложенная запись
+         */
+        @NotNull
+        private final Object line;
+
+        /**
+         * Конструктор строки канала
+         *
+         * @param channel канал
+         * @param line    строка или отложенная запись
+         */
+        private ChannelLine(@NotNull ConsoleChannel channel, @NotNull Object line) {
+            this.channel = Objects.requireNonNull(channel);
+            this.line = Objects.requireNonNull(line);
+        }
+    }
+
+    /**
+     * Ограничители частоты по источникам строк. Хранит не больше {@link #MAX_RATE_LIMITER_CNT}
+     * ограничителей и первым вытесняет ограничитель источника, который дольше всех не присылал строк:
+     * его корзина, скорее всего, уже полна, и новая полная корзина ведёт себя так же
+     */
+    private static class RateLimiterMap extends LinkedHashMap<String, TokenBucket> {
+        /**
+         * Конструктор словаря ограничителей частоты
+         */
+        private RateLimiterMap() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+            return size() > MAX_RATE_LIMITER_CNT;
+        }
+    }
+
+    /**
+     * ёмкость очереди строк от других потоков по умолчанию
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    /**
+     * наибольшее кол-во источников, для которых хранятся ограничители частоты
+     */
+    public static final int MAX_RATE_LIMITER_CNT = 1024;
+    /**
+     * длительность такта в наносекундах, которой конструкторы с тактами
+     * переводят кол-во тактов во время жизни строки, соответствует 60 кадрам в секунду
+     */
+    public static final long TICK_NANOS = 1_000_000_000L / 60;
+    /**
+     * массив строк консоли: {@link String} или {@link ConsoleEntry},
+     * логическая строка i хранится в ячейке (head + i) % maxLineCnt
+     */
+    @NotNull
+    private final Object[] linesArr;
+    /**
+     * кол-во повторов строк при склеивании
+     */
+    @NotNull
+    private final int[] repeatCnts;
+    /**
+     * выводимые строки вида "строка ×N", строятся при выводе, null - ещё не построена
      */
     @NotNull
-    private final String[] linesArr;
+    private final String[] displayLines;
     /**
-     * массив прозрачности строк консоли
+     * моменты по часам консоли, когда строки полностью погаснут
      */
     @NotNull
-    private final double[] lineOpacities;
+    private final long[] expiryTimes;
     /**
-     * сколько тактов строка ещё должна быть отображена
+     * номера каналов строк
      */
     @NotNull
-    private final int[] renderLineCnts;
+    private final int[] channelIds;
+    /**
+     * каналы консоли, канал 0 - канал по умолчанию с цветом текста и временем жизни консоли
+     */
+    @NotNull
+    private ConsoleChannel[] channels;
+    /**
+     * время жизни строк каналов в наносекундах
+     */
+    @NotNull
+    private long[] channelLifetimes;
+    /**
+     * кол-во каналов
+     */
+    private int channelCnt;
+    /**
+     * флаг, у всех ли каналов время жизни совпадает с временем жизни консоли
+     */
+    private boolean uniformLifetime = true;
+    /**
+     * самый поздний момент, когда погаснет одна из строк
+     */
+    private long maxExpiryTime;
+    /**
+     * номера видимых строк, сгруппированные по каналам
+     */
+    @NotNull
+    private final int[] renderOrder;
+    /**
+     * начала групп каналов в порядке вывода
+     */
+    @NotNull
+    private int[] channelOffsets;
     /**
      * контроллер текста
      */
@@ -34,27 +168,159 @@ public class GLConsole {
      */
     private final double startOpacity;
     /**
-     * изначальное количество тактов, которые строка должна быть отображена
+     * время жизни строки в наносекундах, вторую половину этого времени строка гаснет
+     */
+    private final long lifetime;
+    /**
+     * монотонные часы в наносекундах
      */
-    private final int renderStartCnt;
+    @NotNull
+    private final LongSupplier clock;
     /**
      * максимальное количество линий
      */
     private final int maxLineCnt;
+    /**
+     * индекс ячейки самой новой строки
+     */
+    private int head;
+    /**
+     * строки от других потоков, ожидающие добавления в консоль
+     */
+    @NotNull
+    private final BoundedLockFreeQueue<Object> pendingLines;
+    /**
+     * добавление строки, создаётся один раз, чтобы разбор очереди не создавал объектов
+     */
+    @NotNull
+    private final Consumer<Object> addLineConsumer = this::addPending;
+    /**
+     * источники строк
+     */
+    @NotNull
+    private final List<ConsoleSource> sources = new CopyOnWriteArrayList<>();
+    /**
+     * кол-во отброшенных строк, о которых консоль уже сообщила
+     */
+    private long reportedDroppedCnt;
+    /**
+     * сколько самых новых строк просматривается при склеивании, 0 - не склеивать
+     */
+    private int coalesceDepth;
+    /**
+     * ограничители частоты по источникам строк, доступ синхронизируется по словарю
+     */
+    @NotNull
+    private final Map<String, TokenBucket> rateLimiters = new RateLimiterMap();
+    /**
+     * допустимая частота строк от одного источника в строках в секунду, 0 - без ограничения
+     */
+    private volatile double rateLimit;
+    /**
+     * наибольшая пачка строк от одного источника
+     */
+    private volatile int rateLimitBurst;
+    /**
+     * кол-во строк, отброшенных ограничителями частоты
+     */
+    @NotNull
+    private final AtomicLong rateLimitedCnt = new AtomicLong();
+    /**
+     * текстура, в которую рисуются строки, null - строки выводятся напрямую
+     */
+    @Nullable
+    private GLRenderTexture renderTexture;
+    /**
+     * текстура выключенного вывода из текстуры, которая освобождается в начале следующего вывода,
+     * null - освобождать нечего
+     */
+    @Nullable
+    private GLRenderTexture releasedTexture;
+    /**
+     * рисовальщик текста для рисования в текстуру
+     */
+    @Nullable
+    private TextRenderer textureTextRenderer;
+    /**
+     * поколение кэша рисовальщиков, в котором получен рисовальщик текста для рисования в текстуру
+     */
+    private int textureTextRendererGeneration;
+    /**
+     * флаг, изменилось ли содержимое консоли с последнего рисования в текстуру
+     */
+    private boolean dirty = true;
+    /**
+     * история строк, null - история не ведётся
+     */
+    @Nullable
+    private ConsoleHistory history;
+    /**
+     * строки окна истории, прочитанные при последнем выводе истории
+     */
+    @NotNull
+    private String[] historyWindow = new String[0];
+    /**
+     * инвертированный индекс истории, null - история не индексируется
+     */
+    @Nullable
+    private ConsoleIndex index;
+    /**
+     * фильтр строк, null - консоль не фильтруется
+     */
+    @Nullable
+    private ConsoleFilter filter;
+    /**
+     * самые новые подходящие под фильтр строки, 0 - самая новая
+     */
+    @NotNull
+    private String[] filteredLines = new String[0];
+    /**
+     * кол-во прочитанных подходящих строк, -1 - строки нужно прочитать заново
+     */
+    private int filteredLineCnt = -1;
+    /**
+     * номер первой строки прочитанного окна истории
+     */
+    private long historyWindowFirst = -1;
+    /**
+     * кол-во строк прочитанного окна истории
+     */
+    private int historyWindowCnt;
 
     /**
-     * Конструктор консоли
+     * Конструктор копии консоли. Копируются строки, каналы, часы и настройки склеивания
+     * и ограничения частоты. Копия начинается отсоединённой: источники строк и история
+     * отдают строки только одной консоли, поэтому у копии нет источников, истории,
+     * индекса и фильтра, очередь строк от других потоков и ограничители частоты пусты
      *
      * @param glConsole консоль
      */
     public GLConsole(@NotNull com.github.aoklyunin.javaGLHelper.GLConsole glConsole) {
         this.linesArr = glConsole.linesArr.clone();
-        this.lineOpacities = glConsole.lineOpacities.clone();
-        this.renderLineCnts = glConsole.renderLineCnts.clone();
+        this.repeatCnts = glConsole.repeatCnts.clone();
+        this.displayLines = glConsole.displayLines.clone();
+        this.expiryTimes = glConsole.expiryTimes.clone();
+        this.channelIds = glConsole.channelIds.clone();
+        this.channels = glConsole.channels.clone();
+        this.channelLifetimes = glConsole.channelLifetimes.clone();
+        this.channelCnt = glConsole.channelCnt;
+        this.uniformLifetime = glConsole.uniformLifetime;
+        this.maxExpiryTime = glConsole.maxExpiryTime;
+        this.renderOrder = new int[glConsole.renderOrder.length];
+        this.channelOffsets = new int[glConsole.channelOffsets.length];
+        this.coalesceDepth = glConsole.coalesceDepth;
+        this.rateLimit = glConsole.rateLimit;
+        this.rateLimitBurst = glConsole.rateLimitBurst;
         this.textController = glConsole.textController;
         this.startOpacity = glConsole.startOpacity;
-        this.renderStartCnt = glConsole.renderStartCnt;
+        this.lifetime = glConsole.lifetime;
+        this.clock = glConsole.clock;
         this.maxLineCnt = glConsole.maxLineCnt;
+        this.head = glConsole.head;
+        this.renderTexture = glConsole.renderTexture == null ? null : new GLRenderTexture();
+        this.pendingLines = new BoundedLockFreeQueue<>(
+                glConsole.pendingLines.getCapacity(), glConsole.pendingLines.getOverflowPolicy()
+        );
     }
 
     /**
@@ -65,51 +331,904 @@ public class GLConsole {
      * @param maxLineCnt     максимальное количество линий
      */
     public GLConsole(@NotNull GLTextController textController, int renderStartCnt, int maxLineCnt) {
-        this.renderStartCnt = renderStartCnt;
+        this(
+                textController, renderStartCnt, maxLineCnt,
+                DEFAULT_QUEUE_CAPACITY, BoundedLockFreeQueue.OverflowPolicy.DROP_OLDEST
+        );
+    }
+
+    /**
+     * Конструктор консоли
+     *
+     * @param textController контроллер текста
+     * @param renderStartCnt значальное количество тактов, которые строка должна быть отображена
+     * @param maxLineCnt     максимальное количество линий
+     * @param queueCapacity  ёмкость очереди строк от других потоков
+     * @param overflowPolicy политика переполнения очереди строк от других потоков
+     */
+    public GLConsole(
+            @NotNull GLTextController textController, int renderStartCnt, int maxLineCnt,
+            int queueCapacity, @NotNull BoundedLockFreeQueue.OverflowPolicy overflowPolicy
+    ) {
+        this(
+                textController, Duration.ofNanos(renderStartCnt * TICK_NANOS), maxLineCnt,
+                queueCapacity, overflowPolicy, System::nanoTime
+        );
+    }
+
+    /**
+     * Конструктор консоли
+     *
+     * @param textController контроллер текста
+     * @param lifetime       время жизни строки, вторую половину этого времени строка гаснет
+     * @param maxLineCnt     максимальное количество линий
+     * @param queueCapacity  ёмкость очереди строк от других потоков
+     * @param overflowPolicy политика переполнения очереди строк от других потоков
+     * @param clock          монотонные часы в наносекундах, например, {@code System::nanoTime}
+     */
+    public GLConsole(
+            @NotNull GLTextController textController, @NotNull Duration lifetime, int maxLineCnt,
+            int queueCapacity, @NotNull BoundedLockFreeQueue.OverflowPolicy overflowPolicy,
+            @NotNull LongSupplier clock
+    ) {
+        this.pendingLines = new BoundedLockFreeQueue<>(queueCapacity, overflowPolicy);
+        this.lifetime = lifetime.toNanos();
+        this.clock = Objects.requireNonNull(clock);
         this.maxLineCnt = maxLineCnt;
         this.textController = Objects.requireNonNull(textController);
 
-        lineOpacities = new double[maxLineCnt];
-        renderLineCnts = new int[maxLineCnt];
         startOpacity = textController.getCaptionParams().getColor().w;
+        channels = new ConsoleChannel[]{
+                new ConsoleChannel("", textController.getCaptionParams().getColor(), lifetime)
+        };
+        channelLifetimes = new long[]{this.lifetime};
+        channelCnt = 1;
+        channelOffsets = new int[2];
 
-        linesArr = new String[maxLineCnt];
-        for (int i = 0; i < maxLineCnt; i++)
+        // пустые строки считаются уже погасшими
+        long now = clock.getAsLong();
+        maxExpiryTime = now;
+        expiryTimes = new long[maxLineCnt];
+        channelIds = new int[maxLineCnt];
+        renderOrder = new int[maxLineCnt];
+        repeatCnts = new int[maxLineCnt];
+        displayLines = new String[maxLineCnt];
+        linesArr = new Object[maxLineCnt];
+        for (int i = 0; i < maxLineCnt; i++) {
             linesArr[i] = "";
+            expiryTimes[i] = now;
+        }
     }
 
     /**
      * Нарисовать консоль
      */
     public void render() {
-        GLAlgorithms.renderVerticalVector(
-                textController,
-                linesArr,
-                lineOpacities
-        );
+        releasePendingTexture();
+        if (filter != null) {
+            drainPendingLines();
+            renderFiltered();
+            return;
+        }
+        long now = clock.getAsLong();
+        // если погасла строка, которая гаснет последней, выводить нечего
+        if (pendingLines.size() == 0 && areSourcesEmpty() && now - maxExpiryTime >= 0)
+            return;
+        drainPendingLines();
+        CaptionParams captionParams = textController.getCaptionParams();
+        if (renderTexture != null && captionParams.getStep() > 0) {
+            renderCached(GLContext.getCurrentGL().getGL2(), now);
+            return;
+        }
+        double step = captionParams.getStep();
+        double x = captionParams.getPos().x;
+        double y = captionParams.getPos().y + step / 3;
+        int visibleCnt = sortVisibleLines(now);
+        for (int k = 0; k < visibleCnt; k++) {
+            int i = renderOrder[k];
+            int slot = getSlot(i);
+            int channelId = channelIds[slot];
+            Vector4d color = channels[channelId].getColor();
+            double fade = getFade(expiryTimes[slot] - now, channelLifetimes[channelId]);
+            textController.drawText(
+                    getDisplayLine(slot), x, y + i * step,
+                    (float) color.x, (float) color.y, (float) color.z, (float) (color.w * fade)
+            );
+        }
+    }
+
+    /**
+     * Записать номера непогасших строк в порядок вывода, сгруппировав их по каналам.
+     * Внутри группы строки идут от новой к старой. Строка остаётся на своём месте
+     * в консоли, поэтому погасшая строка оставляет пустое место
+     *
+     * @param now текущий момент по часам консоли
+     * @return кол-во непогасших строк
+     */
+    private int sortVisibleLines(long now) {
+        Arrays.fill(channelOffsets, 0, channelCnt + 1, 0);
+        int last = maxLineCnt;
         for (int i = 0; i < maxLineCnt; i++) {
-            renderLineCnts[i]--;
-            if (renderLineCnts[i] < renderStartCnt / 2)
-                lineOpacities[i] = startOpacity * renderLineCnts[i] / renderStartCnt * 2;
+            int slot = getSlot(i);
+            if (expiryTimes[slot] - now <= 0) {
+                // при одинаковом времени жизни строки старше погасшей тоже погасли
+                if (uniformLifetime) {
+                    last = i;
+                    break;
+                }
+                continue;
+            }
+            channelOffsets[channelIds[slot] + 1]++;
+        }
+        for (int c = 0; c < channelCnt; c++)
+            channelOffsets[c + 1] += channelOffsets[c];
+        int visibleCnt = channelOffsets[channelCnt];
+        for (int i = 0; i < last; i++) {
+            int slot = getSlot(i);
+            if (expiryTimes[slot] - now > 0)
+                renderOrder[channelOffsets[channelIds[slot]]++] = i;
+        }
+        return visibleCnt;
+    }
 
+    /**
+     * Получить множитель затухания строки: первую половину времени жизни строка
+     * не гаснет, вторую - линейно гаснет
+     *
+     * @param remaining оставшееся время жизни строки в наносекундах
+     * @param lifetime  время жизни строки в наносекундах
+     * @return множитель затухания от 0 до 1
+     */
+    private static double getFade(long remaining, long lifetime) {
+        return remaining * 2 >= lifetime ? 1 : (double) remaining * 2 / lifetime;
+    }
+
+    /**
+     * Нарисовать консоль из текстуры. Строки перерисовываются в текстуру, только когда
+     * изменилось их содержимое или размер окна, а на экран выводится по одной полосе
+     * текстуры на строку за один вызов рисования. Затухание задаётся цветом вершин полос,
+     * поэтому гаснущие строки не требуют перерисовки текстуры
+     *
+     * @param gl2 переменная OpenGL
+     * @param now текущий момент по часам консоли
+     */
+    private void renderCached(@NotNull GL2 gl2, long now) {
+        GLViewport viewport = textController.getViewport();
+        if (renderTexture.resize(gl2, viewport.getWidth(), viewport.getHeight()))
+            dirty = true;
+        CaptionParams captionParams = textController.getCaptionParams();
+        double step = captionParams.getStep();
+        double x = captionParams.getPos().x;
+        double y = captionParams.getPos().y + step / 3;
+        if (dirty) {
+            renderTexture(gl2, now, x, y, step);
+            dirty = false;
+        }
+
+        gl2.glMatrixMode(GL_PROJECTION);
+        gl2.glPushMatrix();
+        gl2.glLoadIdentity();
+        gl2.glOrtho(0, 1, 0, 1, -1, 1);
+        gl2.glMatrixMode(GL_MODELVIEW);
+        gl2.glPushMatrix();
+        gl2.glLoadIdentity();
+        gl2.glPushAttrib(GL_ENABLE_BIT | GL_COLOR_BUFFER_BIT | GL_TEXTURE_BIT | GL_CURRENT_BIT);
+
+        // рисовальщик текста выводит цвет, умноженный на прозрачность
+        gl2.glEnable(GL_BLEND);
+        gl2.glBlendFunc(GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
+        gl2.glEnable(GL_TEXTURE_2D);
+        gl2.glBindTexture(GL_TEXTURE_2D, renderTexture.getTextureId());
+        gl2.glBegin(GL_QUADS);
+        for (int i = 0; i < maxLineCnt; i++) {
+            int slot = getSlot(i);
+            long remaining = expiryTimes[slot] - now;
+            if (remaining <= 0) {
+                if (uniformLifetime)
+                    break;
+                y += step;
+                continue;
+            }
+            float opacity = (float) getFade(remaining, channelLifetimes[channelIds[slot]]);
+            float bottom = (float) (y - step / 3);
+            float top = (float) (bottom + step);
+            gl2.glColor4f(opacity, opacity, opacity, opacity);
+            gl2.glTexCoord2f(0, bottom);
+            gl2.glVertex2f(0, bottom);
+            gl2.glTexCoord2f(1, bottom);
+            gl2.glVertex2f(1, bottom);
+            gl2.glTexCoord2f(1, top);
+            gl2.glVertex2f(1, top);
+            gl2.glTexCoord2f(0, top);
+            gl2.glVertex2f(0, top);
+            y += step;
         }
+        gl2.glEnd();
+
+        gl2.glBindTexture(GL_TEXTURE_2D, 0);
+        gl2.glPopAttrib();
+        gl2.glPopMatrix();
+        gl2.glMatrixMode(GL_PROJECTION);
+        gl2.glPopMatrix();
+        gl2.glMatrixMode(GL_MODELVIEW);
     }
 
     /**
-     * Добавить строку в консоль
+     * Перерисовать непогасшие строки в текстуру с начальной прозрачностью их каналов.
+     * Цвет рисовальщика меняется только при переходе к следующей группе каналов
+     *
+     * @param gl2  переменная OpenGL
+     * @param now  текущий момент по часам консоли
+     * @param x    X координата строк в СК OpenGL
+     * @param y    Y координата первой строки в СК OpenGL
+     * @param step шаг между строками
+     */
+    private void renderTexture(@NotNull GL2 gl2, long now, double x, double y, double step) {
+        if (textureTextRenderer == null || textureTextRendererGeneration != TextRendererCache.getGeneration()) {
+            textureTextRendererGeneration = TextRendererCache.getGeneration();
+            textureTextRenderer = TextRendererCache.acquire(textController.getFontKey());
+        }
+        int width = renderTexture.getWidth();
+        int height = renderTexture.getHeight();
+        int visibleCnt = sortVisibleLines(now);
+        renderTexture.begin(gl2);
+        textureTextRenderer.beginRendering(width, height);
+        int prevChannelId = -1;
+        for (int k = 0; k < visibleCnt; k++) {
+            int i = renderOrder[k];
+            int slot = getSlot(i);
+            if (channelIds[slot] != prevChannelId) {
+                prevChannelId = channelIds[slot];
+                Vector4d color = channels[prevChannelId].getColor();
+                textureTextRenderer.setColor((float) color.x, (float) color.y, (float) color.z, (float) color.w);
+            }
+            textureTextRenderer.draw(getDisplayLine(slot), (int) (x * width), (int) ((y + i * step) * height));
+        }
+        textureTextRenderer.endRendering();
+        renderTexture.end(gl2);
+    }
+
+    /**
+     * Включить или выключить вывод консоли из текстуры. В этом режиме строки
+     * рисуются в текстуру только при изменении содержимого консоли, а в остальных
+     * кадрах консоль выводится одним вызовом рисования. Режим требует положительного
+     * шага текста: при нулевом шаге строки выводятся как обычно. Метод не требует
+     * контекста OpenGL: при выключении текстура освобождается в начале следующего {@link #render()}
+     *
+     * @param textureCaching флаг, выводить ли консоль из текстуры
+     */
+    public void setTextureCaching(boolean textureCaching) {
+        if (textureCaching && renderTexture == null) {
+            renderTexture = releasedTexture != null ? releasedTexture : new GLRenderTexture();
+            releasedTexture = null;
+            dirty = true;
+        } else if (!textureCaching && renderTexture != null) {
+            releasedTexture = renderTexture;
+            renderTexture = null;
+        }
+    }
+
+    /**
+     * Освободить текстуру выключенного вывода из текстуры. Метод должен вызываться из потока OpenGL
+     */
+    private void releasePendingTexture() {
+        if (releasedTexture == null)
+            return;
+        releaseTexture(releasedTexture);
+        releasedTexture = null;
+    }
+
+    /**
+     * Освободить текстуру и рисовальщик текста для рисования в неё.
+     * Метод должен вызываться из потока OpenGL
+     *
+     * @param texture текстура, null - освобождается только рисовальщик
+     */
+    private void releaseTexture(@Nullable GLRenderTexture texture) {
+        if (texture != null && texture.getTextureId() != 0)
+            texture.dispose(GLContext.getCurrentGL().getGL2());
+        if (textureTextRenderer != null) {
+            TextRendererCache.release(textController.getFontKey(), textureTextRenderer);
+            textureTextRenderer = null;
+        }
+        dirty = true;
+    }
+
+    /**
+     * Проверить, выводится ли консоль из текстуры
+     *
+     * @return флаг, выводится ли консоль из текстуры
+     */
+    public boolean isTextureCaching() {
+        return renderTexture != null;
+    }
+
+    /**
+     * Освободить текстуру консоли и её рисовальщик текста. Метод должен вызываться
+     * из потока OpenGL, при следующем выводе ресурсы будут созданы заново
+     */
+    public void dispose() {
+        releasePendingTexture();
+        releaseTexture(renderTexture);
+    }
+
+    /**
+     * Добавить источник строк. Источник опрашивается в начале каждого {@link #render()}.
+     * Метод можно вызывать из любого потока
+     *
+     * @param source источник строк
+     */
+    public void addSource(@NotNull ConsoleSource source) {
+        sources.add(Objects.requireNonNull(source));
+    }
+
+    /**
+     * Удалить источник строк
+     *
+     * @param source источник строк
+     */
+    public void removeSource(@NotNull ConsoleSource source) {
+        sources.remove(Objects.requireNonNull(source));
+    }
+
+    /**
+     * Проверить, нет ли накопленных строк ни у одного источника
+     *
+     * @return флаг, пусты ли все источники
+     */
+    private boolean areSourcesEmpty() {
+        for (int i = 0; i < sources.size(); i++)
+            if (!sources.get(i).isEmpty())
+                return false;
+        return true;
+    }
+
+    /**
+     * Добавить строки из очереди других потоков и из источников. При политике
+     * {@link BoundedLockFreeQueue.OverflowPolicy#COUNT_DROPPED} после них добавляется
+     * строка с кол-вом строк, отброшенных с прошлого разбора
+     */
+    private void drainPendingLines() {
+        pendingLines.drain(addLineConsumer);
+        for (int i = 0; i < sources.size(); i++)
+            sources.get(i).drainTo(this, maxLineCnt);
+        if (pendingLines.getOverflowPolicy() == BoundedLockFreeQueue.OverflowPolicy.COUNT_DROPPED) {
+            long droppedCnt = pendingLines.getDroppedCnt();
+            if (droppedCnt != reportedDroppedCnt) {
+                addLine("... " + (droppedCnt - reportedDroppedCnt) + " lines dropped");
+                reportedDroppedCnt = droppedCnt;
+            }
+        }
+    }
+
+    /**
+     * Отправить строку в консоль из любого потока. Метод не блокируется:
+     * строка попадает в очередь и добавляется в консоль в начале следующего {@link #render()}
+     *
+     * @param line строка
+     * @return флаг, принята ли строка, false - строка отброшена из-за переполнения очереди
+     */
+    public boolean post(@NotNull String line) {
+        return pendingLines.offer(Objects.requireNonNull(line));
+    }
+
+    /**
+     * Отправить отложенную запись в консоль из любого потока. Текст записи строится
+     * в потоке OpenGL, когда запись впервые выводится
+     *
+     * @param entry запись
+     * @return флаг, принята ли запись, false - запись отброшена из-за переполнения очереди
+     */
+    public boolean post(@NotNull ConsoleEntry entry) {
+        return pendingLines.offer(entry.freeze());
+    }
+
+    /**
+     * Отправить строку канала в консоль из любого потока
+     *
+     * @param channel канал
+     * @param line    строка
+     * @return флаг, принята ли строка, false - строка отброшена из-за переполнения очереди
+     */
+    public boolean post(@NotNull ConsoleChannel channel, @NotNull String line) {
+        return pendingLines.offer(new ChannelLine(channel, line));
+    }
+
+    /**
+     * Отправить отложенную запись канала в консоль из любого потока
+     *
+     * @param channel канал
+     * @param entry   запись
+     * @return флаг, принята ли запись, false - запись отброшена из-за переполнения очереди
+     */
+    public boolean post(@NotNull ConsoleChannel channel, @NotNull ConsoleEntry entry) {
+        return pendingLines.offer(new ChannelLine(channel, entry.freeze()));
+    }
+
+    /**
+     * Отправить строку от источника в консоль из любого потока. Если задано ограничение частоты,
+     * строки сверх него отбрасываются ещё до очереди
+     *
+     * @param source источник строки, например, имя подсистемы
+     * @param line   строка
+     * @return флаг, принята ли строка
+     */
+    public boolean post(@NotNull String source, @NotNull String line) {
+        return tryAcquire(source) && post(line);
+    }
+
+    /**
+     * Получить кол-во строк, ожидающих добавления в консоль
+     *
+     * @return кол-во строк в очереди
+     */
+    public int getQueueDepth() {
+        return pendingLines.size();
+    }
+
+    /**
+     * Получить кол-во строк, отброшенных из-за переполнения очереди
+     *
+     * @return кол-во отброшенных строк
+     */
+    public long getDroppedLineCnt() {
+        return pendingLines.getDroppedCnt();
+    }
+
+    /**
+     * Получить политику переполнения очереди строк от других потоков
+     *
+     * @return политика переполнения
+     */
+    @NotNull
+    public BoundedLockFreeQueue.OverflowPolicy getOverflowPolicy() {
+        return pendingLines.getOverflowPolicy();
+    }
+
+    /**
+     * Добавить строку в консоль. Метод должен вызываться из потока OpenGL,
+     * из других потоков строки отправляются методом {@link #post(String)}
      *
      * @param line строка
      */
     public void addLine(@NotNull String line) {
-        for (int i = linesArr.length - 1; i > 0; i--) {
-            lineOpacities[i] = lineOpacities[i - 1];
-            renderLineCnts[i] = renderLineCnts[i - 1];
-            linesArr[i] = linesArr[i - 1];
+        add(0, Objects.requireNonNull(line));
+    }
+
+    /**
+     * Добавить строку канала в консоль. Метод должен вызываться из потока OpenGL.
+     * Канал регистрируется в консоли при первой строке
+     *
+     * @param channel канал
+     * @param line    строка
+     */
+    public void addLine(@NotNull ConsoleChannel channel, @NotNull String line) {
+        add(getChannelId(channel), Objects.requireNonNull(line));
+    }
+
+    /**
+     * Добавить отложенную запись канала в консоль. Метод должен вызываться из потока OpenGL
+     *
+     * @param channel канал
+     * @param entry   запись
+     */
+    public void addLine(@NotNull ConsoleChannel channel, @NotNull ConsoleEntry entry) {
+        add(getChannelId(channel), entry.freeze());
+    }
+
+    /**
+     * Добавить отложенную запись в консоль. Метод должен вызываться из потока OpenGL.
+     * Текст записи строится, когда она впервые выводится, или сразу, если консоль ведёт историю.
+     * Равные записи склеиваются без построения текста
+     *
+     * @param entry запись
+     */
+    public void addLine(@NotNull ConsoleEntry entry) {
+        add(0, entry.freeze());
+    }
+
+    /**
+     * Добавить в консоль элемент очереди других потоков
+     *
+     * @param pending строка, отложенная запись или строка канала
+     */
+    private void addPending(@NotNull Object pending) {
+        if (pending instanceof ChannelLine) {
+            ChannelLine channelLine = (ChannelLine) pending;
+            add(getChannelId(channelLine.channel), channelLine.line);
+        } else {
+            add(0, pending);
+        }
+    }
+
+    /**
+     * Получить номер канала, зарегистрировав канал, если его ещё нет
+     *
+     * @param channel канал
+     * @return номер канала
+     */
+    private int getChannelId(@NotNull ConsoleChannel channel) {
+        Objects.requireNonNull(channel);
+        // каналов немного, поэтому линейный поиск дешевле хеш-таблицы
+        for (int c = 1; c < channelCnt; c++)
+            if (channels[c] == channel || channels[c].equals(channel))
+                return c;
+        if (channelCnt == channels.length) {
+            channels = Arrays.copyOf(channels, channelCnt * 2);
+            channelLifetimes = Arrays.copyOf(channelLifetimes, channelCnt * 2);
+            channelOffsets = new int[channelCnt * 2 + 1];
+        }
+        channels[channelCnt] = channel;
+        channelLifetimes[channelCnt] = channel.getRetention().toNanos();
+        if (channelLifetimes[channelCnt] != lifetime)
+            uniformLifetime = false;
+        return channelCnt++;
+    }
+
+    /**
+     * Добавить строку или отложенную запись в консоль
+     *
+     * @param channelId номер канала
+     * @param line      строка или запись
+     */
+    private void add(int channelId, @NotNull Object line) {
+        if (history != null) {
+            String text = line.toString();
+            history.append(text);
+            if (index != null)
+                index.add(text);
+        }
+        long now = clock.getAsLong();
+        int depth = Math.min(coalesceDepth, maxLineCnt);
+        for (int i = 0; i < depth; i++) {
+            int slot = getSlot(i);
+            // погасшие строки не склеиваются
+            if (now - expiryTimes[slot] >= 0) {
+                // при одинаковом времени жизни строки старше погасшей тоже погасли
+                if (uniformLifetime)
+                    break;
+                continue;
+            }
+            if (channelIds[slot] == channelId && linesArr[slot].equals(line)) {
+                int repeatCnt = repeatCnts[slot] + 1;
+                // склеенная строка переносится в начало, более новые строки сдвигаются на её место
+                for (int j = i; j > 0; j--)
+                    moveLine(getSlot(j - 1), getSlot(j));
+                setLine(head, channelId, line, repeatCnt, now);
+                return;
+            }
+        }
+        // самая старая строка вытесняется сдвигом головы на одну ячейку назад
+        head = head == 0 ? maxLineCnt - 1 : head - 1;
+        setLine(head, channelId, line, 1, now);
+    }
+
+    /**
+     * Добавить строку от источника в консоль. Метод должен вызываться из потока OpenGL
+     *
+     * @param source источник строки, например, имя подсистемы
+     * @param line   строка
+     * @return флаг, добавлена ли строка, false - строка отброшена ограничителем частоты
+     */
+    public boolean addLine(@NotNull String source, @NotNull String line) {
+        if (!tryAcquire(source))
+            return false;
+        addLine(line);
+        return true;
+    }
+
+    /**
+     * Задать строку ячейки
+     *
+     * @param slot      индекс ячейки
+     * @param channelId номер канала
+     * @param line      строка или отложенная запись
+     * @param repeatCnt кол-во повторов
+     * @param now       текущий момент по часам консоли
+     */
+    private void setLine(int slot, int channelId, @NotNull Object line, int repeatCnt, long now) {
+        linesArr[slot] = line;
+        channelIds[slot] = channelId;
+        repeatCnts[slot] = repeatCnt;
+        displayLines[slot] = null;
+        expiryTimes[slot] = now + channelLifetimes[channelId];
+        if (expiryTimes[slot] - maxExpiryTime > 0)
+            maxExpiryTime = expiryTimes[slot];
+        dirty = true;
+    }
+
+    /**
+     * Скопировать строку из одной ячейки в другую
+     *
+     * @param from индекс исходной ячейки
+     * @param to   индекс целевой ячейки
+     */
+    private void moveLine(int from, int to) {
+        linesArr[to] = linesArr[from];
+        channelIds[to] = channelIds[from];
+        repeatCnts[to] = repeatCnts[from];
+        displayLines[to] = displayLines[from];
+        expiryTimes[to] = expiryTimes[from];
+    }
+
+    /**
+     * Получить выводимую строку ячейки. Текст отложенной записи строится при первом
+     * вызове, строка со счётчиком повторов строится один раз после каждого изменения счётчика
+     *
+     * @param slot индекс ячейки
+     * @return выводимая строка
+     */
+    @NotNull
+    private String getDisplayLine(int slot) {
+        String line = linesArr[slot].toString();
+        if (repeatCnts[slot] <= 1)
+            return line;
+        String displayLine = displayLines[slot];
+        if (displayLine == null) {
+            displayLine = line + " ×" + repeatCnts[slot];
+            displayLines[slot] = displayLine;
+        }
+        return displayLine;
+    }
+
+    /**
+     * Забрать маркер ограничителя частоты источника
+     *
+     * @param source источник строки
+     * @return флаг, пропущена ли строка
+     */
+    private boolean tryAcquire(@NotNull String source) {
+        Objects.requireNonNull(source);
+        double rate = rateLimit;
+        if (rate <= 0)
+            return true;
+        long now = clock.getAsLong();
+        TokenBucket bucket;
+        synchronized (rateLimiters) {
+            bucket = rateLimiters.computeIfAbsent(source, key -> new TokenBucket(rate, rateLimitBurst, now));
+        }
+        if (bucket.tryAcquire(now))
+            return true;
+        rateLimitedCnt.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Задать кол-во самых новых строк, среди которых ищется такая же строка.
+     * Найденная строка не добавляется повторно, а получает счётчик повторов "строка ×N",
+     * переносится в начало и снова становится непрозрачной
+     *
+     * @param coalesceDepth кол-во просматриваемых строк, 0 - не склеивать строки,
+     *                      1 - склеивать только подряд идущие строки
+     */
+    public void setCoalesceDepth(int coalesceDepth) {
+        if (coalesceDepth < 0)
+            throw new IllegalArgumentException("coalesce depth must be non-negative: " + coalesceDepth);
+        this.coalesceDepth = coalesceDepth;
+    }
+
+    /**
+     * Получить кол-во самых новых строк, среди которых ищется такая же строка
+     *
+     * @return кол-во просматриваемых строк, 0 - строки не склеиваются
+     */
+    public int getCoalesceDepth() {
+        return coalesceDepth;
+    }
+
+    /**
+     * Задать ограничение частоты строк от каждого источника. Ограничение действует
+     * на строки, добавленные с указанием источника, и сбрасывает накопленные маркеры
+     *
+     * @param linesPerSecond допустимая частота строк в строках в секунду, 0 - без ограничения
+     * @param burst          наибольшая пачка строк
+     */
+    public void setRateLimit(double linesPerSecond, int burst) {
+        if (linesPerSecond < 0)
+            throw new IllegalArgumentException("rate limit must be non-negative: " + linesPerSecond);
+        if (linesPerSecond > 0 && burst < 1)
+            throw new IllegalArgumentException("burst must be positive: " + burst);
+        this.rateLimitBurst = burst;
+        this.rateLimit = linesPerSecond;
+        synchronized (rateLimiters) {
+            rateLimiters.clear();
         }
+    }
 
-        linesArr[0] = Objects.requireNonNull(line);
-        renderLineCnts[0] = renderStartCnt;
-        lineOpacities[0] = startOpacity;
+    /**
+     * Получить допустимую частоту строк от одного источника
+     *
+     * @return допустимая частота строк в строках в секунду, 0 - без ограничения
+     */
+    public double getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * Получить кол-во источников, для которых хранятся ограничители частоты
+     *
+     * @return кол-во ограничителей частоты, не больше {@link #MAX_RATE_LIMITER_CNT}
+     */
+    public int getRateLimiterCnt() {
+        synchronized (rateLimiters) {
+            return rateLimiters.size();
+        }
+    }
+
+    /**
+     * Получить кол-во строк, отброшенных ограничителями частоты
+     *
+     * @return кол-во отброшенных строк
+     */
+    public long getRateLimitedLineCnt() {
+        return rateLimitedCnt.get();
+    }
+
+    /**
+     * Нарисовать окно истории строк, заданное скроллером с диапазоном. Из истории
+     * читаются только строки окна и только когда окно изменилось. Строки выводятся
+     * непрозрачными в том же порядке, что и строки консоли: более новая строка ближе
+     * к положению текста. Размер скроллера должен задаваться кол-вом строк истории,
+     * например, {@code RangeScroller.of(params, history::getLineCnt)}
+     *
+     * @param scroller скроллер с диапазоном
+     */
+    public void renderHistory(@NotNull RangeScroller scroller) {
+        if (history == null)
+            throw new IllegalStateException("console history is not set");
+        long first = scroller.getMin();
+        int cnt = Math.max(0, scroller.getMax() - scroller.getMin() + 1);
+        if (first != historyWindowFirst || cnt != historyWindowCnt) {
+            if (historyWindow.length < cnt)
+                historyWindow = new String[cnt];
+            historyWindowCnt = history.read(first, historyWindow, cnt);
+            historyWindowFirst = first;
+        }
+        CaptionParams captionParams = textController.getCaptionParams();
+        Vector4d color = captionParams.getColor();
+        double x = captionParams.getPos().x;
+        double y = captionParams.getPos().y + captionParams.getStep() / 3;
+        for (int i = historyWindowCnt - 1; i >= 0; i--) {
+            textController.drawText(
+                    historyWindow[i], x, y, (float) color.x, (float) color.y, (float) color.z, (float) startOpacity
+            );
+            y += captionParams.getStep();
+        }
+    }
+
+    /**
+     * Задать историю строк. Все строки, добавленные в консоль, дописываются в историю
+     * до склеивания повторов
+     *
+     * @param history история строк, null - не вести историю
+     */
+    public void setHistory(@Nullable ConsoleHistory history) {
+        this.history = history;
+        historyWindowFirst = -1;
+        historyWindowCnt = 0;
+        filter = null;
+        if (index != null)
+            index = history == null ? null : new ConsoleIndex(history);
+    }
+
+    /**
+     * Включить или выключить индексирование истории строк. Индекс строится по уже
+     * записанной истории и дальше пополняется каждой добавленной строкой
+     *
+     * @param indexing флаг, индексировать ли историю
+     */
+    public void setIndexing(boolean indexing) {
+        if (indexing && history == null)
+            throw new IllegalStateException("console history is not set");
+        if (indexing && index == null) {
+            index = new ConsoleIndex(history);
+        } else if (!indexing) {
+            index = null;
+            filter = null;
+        }
+    }
+
+    /**
+     * Получить инвертированный индекс истории строк
+     *
+     * @return индекс, null, если история не индексируется
+     */
+    @Nullable
+    public ConsoleIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Задать фильтр строк. Пока фильтр задан, консоль выводит самые новые подходящие
+     * строки истории без затухания, а фильтр обновляется только по новым строкам
+     *
+     * @param filter фильтр, null - выводить строки консоли как обычно
+     */
+    public void setFilter(@Nullable ConsoleFilter filter) {
+        if (filter != null && index == null)
+            throw new IllegalStateException("console index is not set");
+        this.filter = filter;
+        filteredLineCnt = -1;
+    }
+
+    /**
+     * Получить фильтр строк
+     *
+     * @return фильтр, null, если консоль не фильтруется
+     */
+    @Nullable
+    public ConsoleFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Нарисовать самые новые строки истории, подходящие под фильтр. Строки читаются
+     * из истории, только когда появились новые подходящие строки
+     */
+    private void renderFiltered() {
+        if (filter.update(index) || filteredLineCnt < 0) {
+            filteredLineCnt = Math.min(maxLineCnt, filter.getMatchCnt());
+            if (filteredLines.length < filteredLineCnt)
+                filteredLines = new String[filteredLineCnt];
+            for (int i = 0; i < filteredLineCnt; i++)
+                filteredLines[i] = history.getLine(filter.getMatch(filter.getMatchCnt() - 1 - i));
+        }
+        CaptionParams captionParams = textController.getCaptionParams();
+        Vector4d color = captionParams.getColor();
+        double x = captionParams.getPos().x;
+        double y = captionParams.getPos().y + captionParams.getStep() / 3;
+        for (int i = 0; i < filteredLineCnt; i++) {
+            textController.drawText(
+                    filteredLines[i], x, y, (float) color.x, (float) color.y, (float) color.z, (float) startOpacity
+            );
+            y += captionParams.getStep();
+        }
+    }
+
+    /**
+     * Получить историю строк
+     *
+     * @return история строк, null, если история не ведётся
+     */
+    @Nullable
+    public ConsoleHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Получить индекс ячейки логической строки
+     *
+     * @param i номер строки, 0 - самая новая
+     * @return индекс ячейки
+     */
+    private int getSlot(int i) {
+        int slot = head + i;
+        return slot < maxLineCnt ? slot : slot - maxLineCnt;
+    }
+
+    /**
+     * Получить строку консоли
+     *
+     * @param i номер строки, 0 - самая новая
+     * @return строка консоли
+     */
+    @NotNull
+    public String getLine(int i) {
+        Objects.checkIndex(i, maxLineCnt);
+        return getDisplayLine(getSlot(i));
+    }
+
+    /**
+     * Получить канал строки консоли
+     *
+     * @param i номер строки, 0 - самая новая
+     * @return канал строки, для строк без канала - канал по умолчанию
+     * с цветом текста и временем жизни консоли
+     */
+    @NotNull
+    public ConsoleChannel getLineChannel(int i) {
+        Objects.checkIndex(i, maxLineCnt);
+        return channels[channelIds[getSlot(i)]];
     }
 
     /**
@@ -127,7 +1246,17 @@ public class GLConsole {
      * @return изначальное количество тактов, которые строка должна быть отображена
      */
     public int getRenderStartCnt() {
-        return renderStartCnt;
+        return (int) (lifetime / TICK_NANOS);
+    }
+
+    /**
+     * Получить время жизни строки
+     *
+     * @return время жизни строки
+     */
+    @NotNull
+    public Duration getLifetime() {
+        return Duration.ofNanos(lifetime);
     }
 
     /**
@@ -152,12 +1281,12 @@ public class GLConsole {
 
     /**
      * Строковое представление объекта вида:
-     * "startOpacity, renderStartCnt, maxLineCnt"
+     * "startOpacity, lifetime, maxLineCnt"
      *
      * @return строковое представление объекта
      */
     protected String getString() {
-        return startOpacity + ", " + renderStartCnt + ", " + maxLineCnt;
+        return startOpacity + ", " + getLifetime() + ", " + maxLineCnt;
     }
 
     @Override
@@ -168,12 +1297,18 @@ public class GLConsole {
         com.github.aoklyunin.javaGLHelper.GLConsole glConsole = (com.github.aoklyunin.javaGLHelper.GLConsole) o;
 
         if (Double.compare(glConsole.startOpacity, startOpacity) != 0) return false;
-        if (renderStartCnt != glConsole.renderStartCnt) return false;
+        if (lifetime != glConsole.lifetime) return false;
         if (maxLineCnt != glConsole.maxLineCnt) return false;
-        // Probably incorrect - comparing Object[] arrays with Arrays.equals
-        if (!Arrays.equals(linesArr, glConsole.linesArr)) return false;
-        if (!Arrays.equals(lineOpacities, glConsole.lineOpacities)) return false;
-        if (!Arrays.equals(renderLineCnts, glConsole.renderLineCnts)) return false;
+        // строки сравниваются в логическом порядке, положение головы не важно
+        for (int i = 0; i < maxLineCnt; i++) {
+            int slot = getSlot(i);
+            int thatSlot = glConsole.getSlot(i);
+            // отложенные записи сравниваются по шаблону и аргументам, не строя текст
+            if (!Objects.equals(linesArr[slot], glConsole.linesArr[thatSlot])) return false;
+            if (repeatCnts[slot] != glConsole.repeatCnts[thatSlot]) return false;
+            if (!channels[channelIds[slot]].equals(glConsole.channels[glConsole.channelIds[thatSlot]])) return false;
+            if (expiryTimes[slot] != glConsole.expiryTimes[thatSlot]) return false;
+        }
         return Objects.equals(textController, glConsole.textController);
     }
 
@@ -181,13 +1316,18 @@ public class GLConsole {
     public int hashCode() {
         int result;
         long temp;
-        result = Arrays.hashCode(linesArr);
-        result = 31 * result + Arrays.hashCode(lineOpacities);
-        result = 31 * result + Arrays.hashCode(renderLineCnts);
+        result = 1;
+        for (int i = 0; i < maxLineCnt; i++) {
+            int slot = getSlot(i);
+            result = 31 * result + Objects.hashCode(linesArr[slot]);
+            result = 31 * result + repeatCnts[slot];
+            result = 31 * result + channels[channelIds[slot]].hashCode();
+            result = 31 * result + (int) (expiryTimes[slot] ^ (expiryTimes[slot] >>> 32));
+        }
         result = 31 * result + (textController != null ? textController.hashCode() : 0);
         temp = Double.doubleToLongBits(startOpacity);
         result = 31 * result + (int) (temp ^ (temp >>> 32));
-        result = 31 * result + renderStartCnt;
+        result = 31 * result + (int) (lifetime ^ (lifetime >>> 32));
         result = 31 * result + maxLineCnt;
         return result;
     }
@@ -0,0 +1,185 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+
+import java.util.Objects;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * Обработчик java.util.logging, выводящий записи журнала в консоль OpenGL.
+ * Записи не форматируются при публикации: поток, пишущий в журнал, только кладёт
+ * запись в неблокирующую очередь. Консоль забирает записи пачкой один раз за кадр
+ * и форматирует только те, которые успеют появиться на экране, поэтому всплеск
+ * отладочных записей не стоит ни форматирования каждой записи, ни ожидания потока OpenGL
+ */
+public class GLConsoleHandler extends Handler implements ConsoleSource {
+    /**
+     * Формат по умолчанию: "уровень: сообщение", с исключением через двоеточие
+     */
+    private static class LineFormatter extends Formatter {
+        @Override
+        public String format(LogRecord record) {
+            String line = record.getLevel() + ": " + formatMessage(record);
+            return record.getThrown() == null ? line : line + ": " + record.getThrown();
+        }
+    }
+
+    /**
+     * записи, ожидающие вывода
+     */
+    @NotNull
+    private final BoundedLockFreeQueue<LogRecord> records;
+    /**
+     * последние записи кадра, которые будут отформатированы
+     */
+    @NotNull
+    private LogRecord[] visibleRecords = new LogRecord[0];
+    /**
+     * кол-во записей, пропущенных без форматирования
+     */
+    private long skippedCnt;
+    /**
+     * флаг, закрыт ли обработчик
+     */
+    private volatile boolean closed;
+
+    /**
+     * Конструктор обработчика
+     *
+     * @param queueCapacity ёмкость очереди записей, при переполнении вытесняются самые старые записи
+     */
+    public GLConsoleHandler(int queueCapacity) {
+        this.records = new BoundedLockFreeQueue<>(queueCapacity, BoundedLockFreeQueue.OverflowPolicy.DROP_OLDEST);
+        setFormatter(new LineFormatter());
+    }
+
+    /**
+     * Опубликовать запись. Метод не форматирует запись и не блокируется.
+     * Класс и метод источника запись определяет лениво по стеку текущего потока,
+     * поэтому они запрашиваются до передачи записи в поток OpenGL
+     *
+     * @param record запись журнала
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || record == null || !isLoggable(record))
+            return;
+        record.getSourceClassName();
+        record.getSourceMethodName();
+        records.offer(record);
+    }
+
+    /**
+     * Передать записи в консоль. Если консоль не ведёт историю, форматируются только
+     * последние записи, которые консоль может показать, остальные пропускаются.
+     * За один вызов извлекается не больше ёмкости очереди, чтобы непрерывно
+     * пишущие потоки не задерживали кадр бесконечно
+     *
+     * @param console    консоль
+     * @param visibleCnt сколько последних строк кадра консоль может показать
+     */
+    @Override
+    public void drainTo(@NotNull GLConsole console, int visibleCnt) {
+        Objects.requireNonNull(console);
+        // строки, записанные в историю, видны при прокрутке, поэтому форматируются все записи
+        int capacity = records.getCapacity();
+        if (console.getHistory() != null) {
+            LogRecord record;
+            for (int i = 0; i < capacity && (record = records.poll()) != null; i++)
+                console.addLine(format(record));
+            return;
+        }
+        if (visibleCnt <= 0)
+            return;
+        if (visibleRecords.length < visibleCnt)
+            visibleRecords = new LogRecord[visibleCnt];
+        long cnt = 0;
+        LogRecord record;
+        while (cnt < capacity && (record = records.poll()) != null)
+            visibleRecords[(int) (cnt++ % visibleCnt)] = record;
+        long first = Math.max(0, cnt - visibleCnt);
+        skippedCnt += first;
+        for (long i = first; i < cnt; i++) {
+            int slot = (int) (i % visibleCnt);
+            console.addLine(format(visibleRecords[slot]));
+            visibleRecords[slot] = null;
+        }
+    }
+
+    /**
+     * Отформатировать запись
+     *
+     * @param record запись журнала
+     * @return строка консоли
+     */
+    @NotNull
+    private String format(@NotNull LogRecord record) {
+        Formatter formatter = getFormatter();
+        return formatter == null ? String.valueOf(record.getMessage()) : formatter.format(record);
+    }
+
+    /**
+     * Проверить, нет ли записей, ожидающих вывода
+     *
+     * @return флаг, пуста ли очередь записей
+     */
+    @Override
+    public boolean isEmpty() {
+        return records.size() == 0;
+    }
+
+    /**
+     * Записи выводятся при каждом кадре консоли, поэтому сбрасывать нечего
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Закрыть обработчик: новые записи перестают приниматься
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Получить кол-во записей, ожидающих вывода
+     *
+     * @return кол-во записей в очереди
+     */
+    public int getQueueDepth() {
+        return records.size();
+    }
+
+    /**
+     * Получить кол-во записей, вытесненных из-за переполнения очереди
+     *
+     * @return кол-во вытесненных записей
+     */
+    public long getDroppedCnt() {
+        return records.getDroppedCnt();
+    }
+
+    /**
+     * Получить кол-во записей, пропущенных без форматирования, потому что
+     * они были бы вытеснены из консоли до вывода на экран
+     *
+     * @return кол-во пропущенных записей
+     */
+    public long getSkippedCnt() {
+        return skippedCnt;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "GLConsoleHandler{getQueueDepth(), getDroppedCnt(), skippedCnt}"
+     */
+    @Override
+    public String toString() {
+        return "GLConsoleHandler{" + getQueueDepth() + ", " + getDroppedCnt() + ", " + skippedCnt + '}';
+    }
+}
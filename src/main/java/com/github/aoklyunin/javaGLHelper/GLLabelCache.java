@@ -0,0 +1,369 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.jogamp.opengl.GL2;
+import com.sun.istack.NotNull;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.jogamp.opengl.GL.*;
+import static com.jogamp.opengl.GL2.*;
+
+/**
+ * Кэш заранее отрисованных надписей. Строка один раз растеризуется в собственную
+ * текстуру и дальше выводится одним текстурированным квадратом. Текстура хранит
+ * только альфа-канал, а цвет задаётся при выводе, поэтому смена цвета не требует
+ * повторной растеризации. Когда суммарный объём текстур превышает бюджет,
+ * вытесняются давно не выводившиеся надписи
+ */
+public class GLLabelCache {
+    /**
+     * Ключ надписи
+     */
+    private static class LabelKey {
+        /**
+         * ключ шрифта
+         */
+        private FontKey fontKey;
+        /**
+         * текст надписи
+         */
+        private String text;
+
+        /**
+         * Конструктор ключа надписи
+         *
+         * @param fontKey ключ шрифта
+         * @param text    текст надписи
+         */
+        private LabelKey(FontKey fontKey, String text) {
+            this.fontKey = fontKey;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            LabelKey labelKey = (LabelKey) o;
+
+            if (!fontKey.equals(labelKey.fontKey)) return false;
+            return text.equals(labelKey.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * fontKey.hashCode() + text.hashCode();
+        }
+    }
+
+    /**
+     * Надпись
+     */
+    private static class Label {
+        /**
+         * id текстуры
+         */
+        private final int textureId;
+        /**
+         * ширина текстуры
+         */
+        private final int width;
+        /**
+         * высота текстуры
+         */
+        private final int height;
+        /**
+         * смещение левой границы текстуры относительно начала базовой линии
+         */
+        private final int offsetX;
+        /**
+         * смещение верхней границы текстуры относительно базовой линии, ось направлена вверх
+         */
+        private final int offsetY;
+
+        /**
+         * Конструктор надписи
+         *
+         * @param textureId id текстуры
+         * @param width     ширина текстуры
+         * @param height    высота текстуры
+         * @param offsetX   смещение левой границы текстуры относительно начала базовой линии
+         * @param offsetY   смещение верхней границы текстуры относительно базовой линии
+         */
+        private Label(int textureId, int width, int height, int offsetX, int offsetY) {
+            this.textureId = textureId;
+            this.width = width;
+            this.height = height;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+        }
+    }
+
+    /**
+     * надписи в порядке от давно выводившихся к недавно выводившимся
+     */
+    @NotNull
+    private final LinkedHashMap<LabelKey, Label> labels = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * ключ для поиска надписи без создания нового объекта
+     */
+    @NotNull
+    private final LabelKey probeKey = new LabelKey(null, null);
+    /**
+     * бюджет памяти текстур в байтах
+     */
+    private final long memoryBudget;
+    /**
+     * объём текстур надписей в байтах
+     */
+    private long memoryUsage;
+    /**
+     * кол-во выводов уже отрисованных надписей
+     */
+    private long hitCnt;
+    /**
+     * кол-во растеризаций надписей
+     */
+    private long missCnt;
+    /**
+     * кол-во вытесненных надписей
+     */
+    private long evictionCnt;
+
+    /**
+     * Конструктор кэша заранее отрисованных надписей
+     *
+     * @param memoryBudget бюджет памяти текстур в байтах
+     */
+    public GLLabelCache(long memoryBudget) {
+        if (memoryBudget <= 0)
+            throw new IllegalArgumentException("memory budget must be positive: " + memoryBudget);
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Вывести надпись, растеризовав её, если её ещё нет в кэше.
+     * Метод должен вызываться из потока OpenGL
+     *
+     * @param gl2          переменная OpenGL
+     * @param fontKey      ключ шрифта
+     * @param text         текст
+     * @param x            X координата начала базовой линии в СК окна
+     * @param y            Y координата начала базовой линии в СК окна
+     * @param clientWidth  ширина окна
+     * @param clientHeight высота окна
+     * @param r            красная компонента цвета
+     * @param g            зелёная компонента цвета
+     * @param b            синяя компонента цвета
+     * @param a            прозрачность
+     */
+    public void draw(
+            @NotNull GL2 gl2, @NotNull FontKey fontKey, @NotNull String text, int x, int y,
+            int clientWidth, int clientHeight, float r, float g, float b, float a
+    ) {
+        probeKey.fontKey = Objects.requireNonNull(fontKey);
+        probeKey.text = Objects.requireNonNull(text);
+        Label label = labels.get(probeKey);
+        if (label == null) {
+            missCnt++;
+            label = rasterize(gl2, fontKey, text);
+            labels.put(new LabelKey(fontKey, text), label);
+            memoryUsage += (long) label.width * label.height;
+            evict(gl2);
+        } else {
+            hitCnt++;
+        }
+        if (label.width == 0 || label.height == 0)
+            return;
+
+        gl2.glMatrixMode(GL_PROJECTION);
+        gl2.glPushMatrix();
+        gl2.glLoadIdentity();
+        gl2.glOrtho(0, clientWidth, 0, clientHeight, -1, 1);
+        gl2.glMatrixMode(GL_MODELVIEW);
+        gl2.glPushMatrix();
+        gl2.glLoadIdentity();
+        gl2.glPushAttrib(GL_ENABLE_BIT | GL_COLOR_BUFFER_BIT | GL_TEXTURE_BIT | GL_CURRENT_BIT);
+
+        gl2.glEnable(GL_BLEND);
+        gl2.glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+        gl2.glEnable(GL_TEXTURE_2D);
+        gl2.glBindTexture(GL_TEXTURE_2D, label.textureId);
+        gl2.glColor4f(r, g, b, a);
+
+        int left = x + label.offsetX;
+        int top = y + label.offsetY;
+        gl2.glBegin(GL_QUADS);
+        gl2.glTexCoord2f(0, 1);
+        gl2.glVertex2f(left, top - label.height);
+        gl2.glTexCoord2f(1, 1);
+        gl2.glVertex2f(left + label.width, top - label.height);
+        gl2.glTexCoord2f(1, 0);
+        gl2.glVertex2f(left + label.width, top);
+        gl2.glTexCoord2f(0, 0);
+        gl2.glVertex2f(left, top);
+        gl2.glEnd();
+
+        gl2.glBindTexture(GL_TEXTURE_2D, 0);
+        gl2.glPopAttrib();
+        gl2.glPopMatrix();
+        gl2.glMatrixMode(GL_PROJECTION);
+        gl2.glPopMatrix();
+        gl2.glMatrixMode(GL_MODELVIEW);
+    }
+
+    /**
+     * Растеризовать надпись в текстуру
+     *
+     * @param gl2     переменная OpenGL
+     * @param fontKey ключ шрифта
+     * @param text    текст
+     * @return надпись
+     */
+    @NotNull
+    private static Label rasterize(@NotNull GL2 gl2, @NotNull FontKey fontKey, @NotNull String text) {
+        float[] bounds = TextMetricsCache.getBounds(fontKey, text);
+        int padding = 1;
+        int width = text.isEmpty() ? 0 : (int) Math.ceil(bounds[2]) + 2 * padding;
+        int height = text.isEmpty() ? 0 : (int) Math.ceil(bounds[3]) + 2 * padding;
+        int offsetX = (int) Math.floor(bounds[0]) - padding;
+        int offsetY = -(int) Math.floor(bounds[1]) + padding;
+        if (width == 0 || height == 0)
+            return new Label(0, 0, 0, offsetX, offsetY);
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setFont(fontKey.getFont());
+        graphics.setColor(Color.WHITE);
+        graphics.drawString(text, -offsetX, offsetY);
+        graphics.dispose();
+
+        int[] ids = new int[1];
+        gl2.glGenTextures(1, ids, 0);
+        gl2.glBindTexture(GL_TEXTURE_2D, ids[0]);
+        gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+        gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+        gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        gl2.glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+        gl2.glTexImage2D(
+                GL_TEXTURE_2D, 0, GL_ALPHA, width, height, 0, GL_ALPHA, GL_UNSIGNED_BYTE,
+                ByteBuffer.wrap(((DataBufferByte) image.getRaster().getDataBuffer()).getData())
+        );
+        gl2.glBindTexture(GL_TEXTURE_2D, 0);
+        return new Label(ids[0], width, height, offsetX, offsetY);
+    }
+
+    /**
+     * Вытеснять давно не выводившиеся надписи, пока объём текстур превышает бюджет.
+     * Последняя добавленная надпись не вытесняется, даже если она одна больше бюджета
+     *
+     * @param gl2 переменная OpenGL
+     */
+    private void evict(@NotNull GL2 gl2) {
+        Iterator<Map.Entry<LabelKey, Label>> iterator = labels.entrySet().iterator();
+        while (memoryUsage > memoryBudget && labels.size() > 1) {
+            Label label = iterator.next().getValue();
+            iterator.remove();
+            deleteTexture(gl2, label);
+            memoryUsage -= (long) label.width * label.height;
+            evictionCnt++;
+        }
+    }
+
+    /**
+     * Удалить текстуру надписи
+     *
+     * @param gl2   переменная OpenGL
+     * @param label надпись
+     */
+    private static void deleteTexture(@NotNull GL2 gl2, @NotNull Label label) {
+        if (label.textureId != 0)
+            gl2.glDeleteTextures(1, new int[]{label.textureId}, 0);
+    }
+
+    /**
+     * Освободить все текстуры надписей. Метод должен вызываться из потока OpenGL
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public void dispose(@NotNull GL2 gl2) {
+        for (Label label : labels.values())
+            deleteTexture(gl2, label);
+        labels.clear();
+        memoryUsage = 0;
+    }
+
+    /**
+     * Получить бюджет памяти текстур в байтах
+     *
+     * @return бюджет памяти текстур в байтах
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Получить объём текстур надписей в байтах
+     *
+     * @return объём текстур надписей в байтах
+     */
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    /**
+     * Получить кол-во надписей в кэше
+     *
+     * @return кол-во надписей в кэше
+     */
+    public int getLabelCnt() {
+        return labels.size();
+    }
+
+    /**
+     * Получить кол-во выводов уже отрисованных надписей
+     *
+     * @return кол-во выводов уже отрисованных надписей
+     */
+    public long getHitCnt() {
+        return hitCnt;
+    }
+
+    /**
+     * Получить кол-во растеризаций надписей
+     *
+     * @return кол-во растеризаций надписей
+     */
+    public long getMissCnt() {
+        return missCnt;
+    }
+
+    /**
+     * Получить кол-во вытесненных надписей
+     *
+     * @return кол-во вытесненных надписей
+     */
+    public long getEvictionCnt() {
+        return evictionCnt;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "GLLabelCache{getLabelCnt(), memoryUsage, memoryBudget}"
+     */
+    @Override
+    public String toString() {
+        return "GLLabelCache{" + getLabelCnt() + ", " + memoryUsage + ", " + memoryBudget + '}';
+    }
+}
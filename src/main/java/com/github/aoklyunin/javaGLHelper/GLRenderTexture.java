@@ -0,0 +1,157 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.jogamp.opengl.GL2;
+import com.sun.istack.NotNull;
+
+import static com.jogamp.opengl.GL.*;
+
+/**
+ * Текстура, в которую можно рисовать: текстура RGBA, прикреплённая к собственному
+ * буферу кадра. Всё, что нарисовано между {@link #begin(GL2)} и {@link #end(GL2)},
+ * попадает в текстуру, а не на экран. Методы должны вызываться из потока OpenGL
+ */
+public class GLRenderTexture {
+    /**
+     * id текстуры, 0 - текстура ещё не создана
+     */
+    private int textureId;
+    /**
+     * id буфера кадра
+     */
+    private int framebufferId;
+    /**
+     * ширина текстуры
+     */
+    private int width;
+    /**
+     * высота текстуры
+     */
+    private int height;
+    /**
+     * буфер кадра и область вывода, действовавшие до {@link #begin(GL2)}
+     */
+    @NotNull
+    private final int[] saved = new int[5];
+
+    /**
+     * Задать размер текстуры, пересоздав её, если размер изменился.
+     * Содержимое пересозданной текстуры не определено
+     *
+     * @param gl2    переменная OpenGL
+     * @param width  ширина
+     * @param height высота
+     * @return флаг, была ли текстура пересоздана
+     */
+    public boolean resize(@NotNull GL2 gl2, int width, int height) {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("render texture size must be positive: " + width + "x" + height);
+        if (textureId != 0 && this.width == width && this.height == height)
+            return false;
+        dispose(gl2);
+        int[] ids = new int[1];
+        gl2.glGenTextures(1, ids, 0);
+        textureId = ids[0];
+        gl2.glBindTexture(GL_TEXTURE_2D, textureId);
+        gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+        gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+        gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        gl2.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        gl2.glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA8, width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, null);
+        gl2.glBindTexture(GL_TEXTURE_2D, 0);
+
+        gl2.glGenFramebuffers(1, ids, 0);
+        framebufferId = ids[0];
+        gl2.glGetIntegerv(GL_FRAMEBUFFER_BINDING, saved, 0);
+        gl2.glBindFramebuffer(GL_FRAMEBUFFER, framebufferId);
+        gl2.glFramebufferTexture2D(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_TEXTURE_2D, textureId, 0);
+        int status = gl2.glCheckFramebufferStatus(GL_FRAMEBUFFER);
+        gl2.glBindFramebuffer(GL_FRAMEBUFFER, saved[0]);
+        if (status != GL_FRAMEBUFFER_COMPLETE) {
+            dispose(gl2);
+            throw new IllegalStateException("framebuffer is incomplete: 0x" + Integer.toHexString(status));
+        }
+        this.width = width;
+        this.height = height;
+        return true;
+    }
+
+    /**
+     * Начать рисование в текстуру: привязать буфер кадра, задать область вывода
+     * по размеру текстуры и очистить её прозрачным цветом
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public void begin(@NotNull GL2 gl2) {
+        if (textureId == 0)
+            throw new IllegalStateException("render texture is not created");
+        gl2.glGetIntegerv(GL_FRAMEBUFFER_BINDING, saved, 0);
+        gl2.glGetIntegerv(GL_VIEWPORT, saved, 1);
+        gl2.glBindFramebuffer(GL_FRAMEBUFFER, framebufferId);
+        gl2.glViewport(0, 0, width, height);
+        gl2.glClearColor(0, 0, 0, 0);
+        gl2.glClear(GL_COLOR_BUFFER_BIT);
+    }
+
+    /**
+     * Закончить рисование в текстуру, вернув буфер кадра и область вывода
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public void end(@NotNull GL2 gl2) {
+        gl2.glBindFramebuffer(GL_FRAMEBUFFER, saved[0]);
+        gl2.glViewport(saved[1], saved[2], saved[3], saved[4]);
+    }
+
+    /**
+     * Освободить текстуру и буфер кадра
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public void dispose(@NotNull GL2 gl2) {
+        if (framebufferId != 0)
+            gl2.glDeleteFramebuffers(1, new int[]{framebufferId}, 0);
+        if (textureId != 0)
+            gl2.glDeleteTextures(1, new int[]{textureId}, 0);
+        framebufferId = 0;
+        textureId = 0;
+        width = 0;
+        height = 0;
+    }
+
+    /**
+     * Получить id текстуры
+     *
+     * @return id текстуры, 0 - текстура ещё не создана
+     */
+    public int getTextureId() {
+        return textureId;
+    }
+
+    /**
+     * Получить ширину текстуры
+     *
+     * @return ширина текстуры
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Получить высоту текстуры
+     *
+     * @return высота текстуры
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "GLRenderTexture{textureId, width, height}"
+     */
+    @Override
+    public String toString() {
+        return "GLRenderTexture{" + textureId + ", " + width + ", " + height + '}';
+    }
+}
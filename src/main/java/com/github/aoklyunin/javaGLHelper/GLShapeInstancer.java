@@ -0,0 +1,483 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.jogamp.opengl.GL2;
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+
+import java.nio.FloatBuffer;
+
+import static com.jogamp.opengl.GL.*;
+import static com.jogamp.opengl.GL2.*;
+
+/**
+ * Вывод множества одинаковых фигур, различающихся только положением, размером и цветом.
+ * Сетка единичной фигуры загружается в вершинный буфер один раз, а все экземпляры
+ * выводятся одним вызовом {@code glDrawArraysInstanced} из буфера атрибутов экземпляров
+ * (x, y, w, h, r, g, b, a). Если контекст не поддерживает рисование экземпляров
+ * (только OpenGL 2 без {@code glVertexAttribDivisor}) или шейдеры GLSL 1.20,
+ * экземпляры разворачиваются в треугольники на процессоре и выводятся пакетом
+ * {@link GeometryBatch}, тоже одним вызовом рисования. Если в потоке активен пакет геометрии,
+ * развёрнутые треугольники добавляются в него, а перед рисованием экземпляров он сбрасывается,
+ * поэтому фигуры всегда рисуются в порядке вызовов относительно примитивов {@link GLAlgorithms}.
+ * Методы вывода должны вызываться из потока OpenGL
+ */
+public class GLShapeInstancer {
+    /**
+     * Вид фигуры
+     */
+    public enum Shape {
+        /**
+         * квадрат: (x, y) - левая нижняя вершина, (w, h) - размеры
+         */
+        QUAD,
+        /**
+         * круг: (x, y) - центр, (w, h) - размеры круга вдоль осей,
+         * как в {@link GLAlgorithms#renderFilledCircle(GL2, double, double, double, double, int)}
+         */
+        CIRCLE,
+        /**
+         * скруглённый квадрат: (x, y) - левая нижняя вершина, (w, h) - размеры,
+         * радиус скругления задаётся долей размеров
+         */
+        ROUNDED_QUAD
+    }
+
+    /**
+     * кол-во чисел на экземпляр: x, y, w, h, r, g, b, a
+     */
+    private static final int INSTANCE_FLOATS = 8;
+    /**
+     * размер экземпляра в байтах
+     */
+    private static final int INSTANCE_BYTES = INSTANCE_FLOATS * Float.BYTES;
+    /**
+     * номер атрибута вершины сетки
+     */
+    private static final int POSITION_ATTRIB = 0;
+    /**
+     * номер атрибута положения и размера экземпляра
+     */
+    private static final int RECT_ATTRIB = 1;
+    /**
+     * номер атрибута цвета экземпляра
+     */
+    private static final int COLOR_ATTRIB = 2;
+    /**
+     * вершинный шейдер: вершина единичной сетки растягивается до прямоугольника экземпляра
+     */
+    private static final String VERTEX_SHADER = "#version 120\n" +
+            "attribute vec2 position;\n" +
+            "attribute vec4 instanceRect;\n" +
+            "attribute vec4 instanceColor;\n" +
+            "varying vec4 color;\n" +
+            "void main() {\n" +
+            "    vec2 pos = instanceRect.xy + position * instanceRect.zw;\n" +
+            "    gl_Position = gl_ModelViewProjectionMatrix * vec4(pos, 0.0, 1.0);\n" +
+            "    color = instanceColor;\n" +
+            "}\n";
+    /**
+     * фрагментный шейдер
+     */
+    private static final String FRAGMENT_SHADER = "#version 120\n" +
+            "varying vec4 color;\n" +
+            "void main() {\n" +
+            "    gl_FragColor = color;\n" +
+            "}\n";
+
+    /**
+     * вид фигуры
+     */
+    @NotNull
+    private final Shape shape;
+    /**
+     * треугольники единичной сетки, по две координаты на вершину
+     */
+    @NotNull
+    private final float[] mesh;
+    /**
+     * атрибуты экземпляров
+     */
+    @NotNull
+    private FloatBuffer instances = GLAtlasTextRenderer.allocate(INSTANCE_FLOATS * 256);
+    /**
+     * кол-во экземпляров
+     */
+    private int instanceCnt;
+    /**
+     * id буфера сетки, 0, если буфер ещё не создан
+     */
+    private int meshBufferId;
+    /**
+     * id буфера экземпляров, 0, если буфер ещё не создан
+     */
+    private int instanceBufferId;
+    /**
+     * id программы шейдеров, 0, если программа ещё не создана,
+     * -1, если рисование экземпляров недоступно и используется пакет геометрии
+     */
+    private int programId;
+    /**
+     * пакет геометрии для контекстов без рисования экземпляров
+     */
+    @Nullable
+    private GeometryBatch fallbackBatch;
+    /**
+     * цвет активного пакета геометрии, восстанавливаемый после добавления экземпляров
+     */
+    @NotNull
+    private final float[] batchColor = new float[4];
+
+    /**
+     * Конструктор вывода фигур
+     *
+     * @param shape вид фигуры
+     * @param mesh  треугольники единичной сетки
+     */
+    private GLShapeInstancer(@NotNull Shape shape, @NotNull float[] mesh) {
+        this.shape = shape;
+        this.mesh = mesh;
+    }
+
+    /**
+     * Получить вывод квадратов
+     *
+     * @return вывод квадратов
+     */
+    @NotNull
+    public static GLShapeInstancer quads() {
+        return new GLShapeInstancer(Shape.QUAD, new float[]{0, 0, 0, 1, 1, 1, 0, 0, 1, 1, 1, 0});
+    }
+
+    /**
+     * Получить вывод кругов
+     *
+     * @param segmentCnt кол-во сегментов
+     * @return вывод кругов
+     */
+    @NotNull
+    public static GLShapeInstancer circles(int segmentCnt) {
+        if (segmentCnt < 3)
+            throw new IllegalArgumentException("circle needs at least 3 segments: " + segmentCnt);
+        UnitCircleTable table = UnitCircleTable.of(segmentCnt);
+        float[] fan = new float[2 * segmentCnt];
+        for (int i = 0; i < segmentCnt; i++) {
+            fan[2 * i] = (float) table.cos(i);
+            fan[2 * i + 1] = (float) table.sin(i);
+        }
+        return new GLShapeInstancer(Shape.CIRCLE, fanToTriangles(fan));
+    }
+
+    /**
+     * Получить вывод скруглённых квадратов. Радиус скругления задаётся долей размеров,
+     * поэтому у вытянутых экземпляров скругления эллиптические
+     *
+     * @param radius радиус скругления в долях размеров, от 0 до 0.5
+     * @return вывод скруглённых квадратов
+     */
+    @NotNull
+    public static GLShapeInstancer roundedQuads(double radius) {
+        if (!(radius >= 0 && radius <= 0.5))
+            throw new IllegalArgumentException("radius must be in [0, 0.5]: " + radius);
+        // вершины идут в том же порядке, что и в GLAlgorithms.renderFilledRoundedQuad
+        UnitCircleTable corner = UnitCircleTable.ROUNDED_CORNER;
+        int cornerCnt = corner.getSize();
+        float[] fan = new float[2 * (4 * cornerCnt + 7)];
+        int k = 0;
+        k = put(fan, k, 0.5, 0.5);
+        k = put(fan, k, 0, 1 - radius);
+        k = put(fan, k, 0, radius);
+        for (int i = 0; i < cornerCnt; i++)
+            k = put(fan, k, radius * (1 - corner.cos(i)), radius * (1 - corner.sin(i)));
+        k = put(fan, k, 1 - radius, 0);
+        for (int i = 0; i < cornerCnt; i++)
+            k = put(fan, k, 1 + radius * (corner.sin(i) - 1), radius * (1 - corner.cos(i)));
+        k = put(fan, k, 1, 1 - radius);
+        for (int i = 0; i < cornerCnt; i++)
+            k = put(fan, k, 1 + radius * (corner.cos(i) - 1), 1 + radius * (corner.sin(i) - 1));
+        k = put(fan, k, radius, 1);
+        for (int i = 0; i < cornerCnt; i++)
+            k = put(fan, k, radius * (1 - corner.sin(i)), 1 + radius * (corner.cos(i) - 1));
+        put(fan, k, 0, 1 - radius);
+        return new GLShapeInstancer(Shape.ROUNDED_QUAD, fanToTriangles(fan));
+    }
+
+    /**
+     * Записать вершину в массив координат
+     *
+     * @param coords массив координат
+     * @param k      индекс первой свободной координаты
+     * @param x      X координата
+     * @param y      Y координата
+     * @return индекс следующей свободной координаты
+     */
+    private static int put(@NotNull float[] coords, int k, double x, double y) {
+        coords[k] = (float) x;
+        coords[k + 1] = (float) y;
+        return k + 2;
+    }
+
+    /**
+     * Разбить веер треугольников на отдельные треугольники, как в {@code GL_TRIANGLE_FAN}
+     *
+     * @param fan вершины веера
+     * @return треугольники
+     */
+    @NotNull
+    private static float[] fanToTriangles(@NotNull float[] fan) {
+        int vertexCnt = fan.length / 2;
+        float[] triangles = new float[Math.max(0, vertexCnt - 2) * 6];
+        int k = 0;
+        for (int i = 2; i < vertexCnt; i++) {
+            triangles[k++] = fan[0];
+            triangles[k++] = fan[1];
+            triangles[k++] = fan[2 * i - 2];
+            triangles[k++] = fan[2 * i - 1];
+            triangles[k++] = fan[2 * i];
+            triangles[k++] = fan[2 * i + 1];
+        }
+        return triangles;
+    }
+
+    /**
+     * Добавить экземпляр
+     *
+     * @param x X координата, смысл зависит от вида фигуры, см. {@link Shape}
+     * @param y Y координата
+     * @param w размер вдоль оси X
+     * @param h размер вдоль оси Y
+     * @param r красная составляющая
+     * @param g зелёная составляющая
+     * @param b синяя составляющая
+     * @param a прозрачность
+     */
+    public void add(double x, double y, double w, double h, float r, float g, float b, float a) {
+        if ((instanceCnt + 1) * INSTANCE_FLOATS > instances.capacity()) {
+            FloatBuffer grown = GLAtlasTextRenderer.allocate(instances.capacity() * 2);
+            instances.flip();
+            grown.put(instances);
+            instances = grown;
+        }
+        instances.put((float) x).put((float) y).put((float) w).put((float) h).put(r).put(g).put(b).put(a);
+        instanceCnt++;
+    }
+
+    /**
+     * Добавить экземпляр
+     *
+     * @param x    X координата, смысл зависит от вида фигуры, см. {@link Shape}
+     * @param y    Y координата
+     * @param w    размер вдоль оси X
+     * @param h    размер вдоль оси Y
+     * @param rgba цвет, упакованный в виде 0xRRGGBBAA
+     */
+    public void add(double x, double y, double w, double h, int rgba) {
+        add(
+                x, y, w, h,
+                (rgba >>> 24) / 255f, (rgba >>> 16 & 0xFF) / 255f, (rgba >>> 8 & 0xFF) / 255f, (rgba & 0xFF) / 255f
+        );
+    }
+
+    /**
+     * Вывести все добавленные экземпляры одним вызовом рисования и очистить список.
+     * Внутри активного пакета геометрии экземпляры без рисования экземпляров
+     * добавляются в пакет и выводятся вместе с ним
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public void flush(@NotNull GL2 gl2) {
+        if (instanceCnt == 0)
+            return;
+        if (programId == 0)
+            programId = createProgram(gl2);
+        GeometryBatch active = GeometryBatch.getActive();
+        if (programId > 0) {
+            // примитивы, добавленные в пакет раньше, должны оказаться под экземплярами
+            if (active != null)
+                active.flush(gl2);
+            drawInstanced(gl2);
+        } else if (active != null) {
+            active.getColor(batchColor);
+            addTriangles(active);
+            active.setColor(batchColor[0], batchColor[1], batchColor[2], batchColor[3]);
+        } else {
+            if (fallbackBatch == null)
+                fallbackBatch = new GeometryBatch(true, false);
+            addTriangles(fallbackBatch);
+            fallbackBatch.flush(gl2);
+        }
+        clear();
+    }
+
+    /**
+     * Вывести экземпляры рисованием экземпляров
+     *
+     * @param gl2 переменная OpenGL
+     */
+    private void drawInstanced(@NotNull GL2 gl2) {
+        if (meshBufferId == 0) {
+            int[] ids = new int[2];
+            gl2.glGenBuffers(2, ids, 0);
+            meshBufferId = ids[0];
+            instanceBufferId = ids[1];
+            FloatBuffer meshBuffer = GLAtlasTextRenderer.allocate(mesh.length);
+            meshBuffer.put(mesh).flip();
+            gl2.glBindBuffer(GL_ARRAY_BUFFER, meshBufferId);
+            gl2.glBufferData(GL_ARRAY_BUFFER, (long) mesh.length * Float.BYTES, meshBuffer, GL_STATIC_DRAW);
+        }
+        gl2.glUseProgram(programId);
+
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, meshBufferId);
+        gl2.glEnableVertexAttribArray(POSITION_ATTRIB);
+        gl2.glVertexAttribPointer(POSITION_ATTRIB, 2, GL_FLOAT, false, 0, 0);
+
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, instanceBufferId);
+        instances.flip();
+        gl2.glBufferData(GL_ARRAY_BUFFER, (long) instanceCnt * INSTANCE_BYTES, instances, GL_STREAM_DRAW);
+        gl2.glEnableVertexAttribArray(RECT_ATTRIB);
+        gl2.glVertexAttribPointer(RECT_ATTRIB, 4, GL_FLOAT, false, INSTANCE_BYTES, 0);
+        gl2.glVertexAttribDivisor(RECT_ATTRIB, 1);
+        gl2.glEnableVertexAttribArray(COLOR_ATTRIB);
+        gl2.glVertexAttribPointer(COLOR_ATTRIB, 4, GL_FLOAT, false, INSTANCE_BYTES, 4 * Float.BYTES);
+        gl2.glVertexAttribDivisor(COLOR_ATTRIB, 1);
+
+        gl2.glDrawArraysInstanced(GL_TRIANGLES, 0, mesh.length / 2, instanceCnt);
+
+        gl2.glVertexAttribDivisor(COLOR_ATTRIB, 0);
+        gl2.glVertexAttribDivisor(RECT_ATTRIB, 0);
+        gl2.glDisableVertexAttribArray(COLOR_ATTRIB);
+        gl2.glDisableVertexAttribArray(RECT_ATTRIB);
+        gl2.glDisableVertexAttribArray(POSITION_ATTRIB);
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, 0);
+        gl2.glUseProgram(0);
+    }
+
+    /**
+     * Развернуть экземпляры в треугольники пакета геометрии
+     *
+     * @param batch пакет геометрии
+     */
+    private void addTriangles(@NotNull GeometryBatch batch) {
+        batch.reserveTriangles(instanceCnt * (mesh.length / 6));
+        for (int i = 0; i < instanceCnt; i++) {
+            int base = i * INSTANCE_FLOATS;
+            float x = instances.get(base);
+            float y = instances.get(base + 1);
+            float w = instances.get(base + 2);
+            float h = instances.get(base + 3);
+            batch.setColor(
+                    instances.get(base + 4), instances.get(base + 5), instances.get(base + 6), instances.get(base + 7)
+            );
+            for (int j = 0; j < mesh.length; j += 6)
+                batch.addTriangle(
+                        x + mesh[j] * w, y + mesh[j + 1] * h, 0,
+                        x + mesh[j + 2] * w, y + mesh[j + 3] * h, 0,
+                        x + mesh[j + 4] * w, y + mesh[j + 5] * h, 0
+                );
+        }
+    }
+
+    /**
+     * Создать программу шейдеров рисования экземпляров
+     *
+     * @param gl2 переменная OpenGL
+     * @return id программы, -1, если рисование экземпляров недоступно
+     */
+    private static int createProgram(@NotNull GL2 gl2) {
+        if (!gl2.isFunctionAvailable("glDrawArraysInstanced") || !gl2.isFunctionAvailable("glVertexAttribDivisor"))
+            return -1;
+        int vertexShader = GLAtlasTextRenderer.compileShader(gl2, GL_VERTEX_SHADER, VERTEX_SHADER);
+        int fragmentShader = GLAtlasTextRenderer.compileShader(gl2, GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+        if (vertexShader == 0 || fragmentShader == 0) {
+            gl2.glDeleteShader(vertexShader);
+            gl2.glDeleteShader(fragmentShader);
+            return -1;
+        }
+        int program = gl2.glCreateProgram();
+        gl2.glAttachShader(program, vertexShader);
+        gl2.glAttachShader(program, fragmentShader);
+        gl2.glBindAttribLocation(program, POSITION_ATTRIB, "position");
+        gl2.glBindAttribLocation(program, RECT_ATTRIB, "instanceRect");
+        gl2.glBindAttribLocation(program, COLOR_ATTRIB, "instanceColor");
+        gl2.glLinkProgram(program);
+        gl2.glDeleteShader(vertexShader);
+        gl2.glDeleteShader(fragmentShader);
+        int[] status = new int[1];
+        gl2.glGetProgramiv(program, GL_LINK_STATUS, status, 0);
+        if (status[0] == 0) {
+            gl2.glDeleteProgram(program);
+            return -1;
+        }
+        return program;
+    }
+
+    /**
+     * Проверить, выводятся ли экземпляры рисованием экземпляров. До первого вывода
+     * поддержка неизвестна
+     *
+     * @return флаг, выводятся ли экземпляры рисованием экземпляров
+     */
+    public boolean isInstanced() {
+        return programId > 0;
+    }
+
+    /**
+     * Отбросить добавленные экземпляры, не выводя их
+     */
+    public void clear() {
+        instances.clear();
+        instanceCnt = 0;
+    }
+
+    /**
+     * Освободить буферы и программу шейдеров
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public void dispose(@NotNull GL2 gl2) {
+        if (meshBufferId != 0)
+            gl2.glDeleteBuffers(2, new int[]{meshBufferId, instanceBufferId}, 0);
+        if (programId > 0)
+            gl2.glDeleteProgram(programId);
+        meshBufferId = 0;
+        instanceBufferId = 0;
+        programId = 0;
+    }
+
+    /**
+     * Получить вид фигуры
+     *
+     * @return вид фигуры
+     */
+    @NotNull
+    public Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Получить кол-во добавленных экземпляров
+     *
+     * @return кол-во экземпляров
+     */
+    public int getInstanceCnt() {
+        return instanceCnt;
+    }
+
+    /**
+     * Получить кол-во вершин единичной сетки
+     *
+     * @return кол-во вершин сетки
+     */
+    public int getMeshVertexCnt() {
+        return mesh.length / 2;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "GLShapeInstancer{shape, getMeshVertexCnt(), instanceCnt, isInstanced()}"
+     */
+    @Override
+    public String toString() {
+        return "GLShapeInstancer{" + shape + ", " + getMeshVertexCnt() + ", " + instanceCnt + ", " + isInstanced() + '}';
+    }
+}
@@ -0,0 +1,249 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.jogamp.opengl.util.awt.TextRenderer;
+import com.sun.istack.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Очередь текста одного кадра. Контроллеры текста, которым задана очередь,
+ * не выводят текст сразу, а складывают его в очередь. При сбросе очереди
+ * строки группируются по шрифтам, и каждый шрифт выводится за один проход
+ * рисовальщика текста
+ */
+public class GLTextBatch {
+    /**
+     * Очередь строк одного шрифта
+     */
+    private static class FontQueue {
+        /**
+         * ключ шрифта
+         */
+        @NotNull
+        private final FontKey fontKey;
+        /**
+         * рисовальщик текста
+         */
+        @NotNull
+        private TextRenderer textRenderer;
+        /**
+         * поколение кэша рисовальщиков, в котором получен рисовальщик текста
+         */
+        private int textRendererGeneration;
+        /**
+         * строки
+         */
+        @NotNull
+        private String[] texts = new String[16];
+        /**
+         * координаты строк в СК окна, по две на строку
+         */
+        @NotNull
+        private int[] coords = new int[32];
+        /**
+         * цвета строк, по четыре компоненты на строку
+         */
+        @NotNull
+        private float[] colors = new float[64];
+        /**
+         * кол-во строк в очереди
+         */
+        private int size;
+
+        /**
+         * Конструктор очереди строк одного шрифта
+         *
+         * @param fontKey ключ шрифта
+         */
+        private FontQueue(@NotNull FontKey fontKey) {
+            this.fontKey = fontKey;
+            this.textRendererGeneration = TextRendererCache.getGeneration();
+            this.textRenderer = TextRendererCache.acquire(fontKey);
+        }
+
+        /**
+         * Добавить строку в очередь
+         *
+         * @param text текст
+         * @param x    X координата в СК окна
+         * @param y    Y координата в СК окна
+         * @param r    красная компонента цвета
+         * @param g    зелёная компонента цвета
+         * @param b    синяя компонента цвета
+         * @param a    прозрачность
+         */
+        private void add(@NotNull String text, int x, int y, float r, float g, float b, float a) {
+            if (size == texts.length) {
+                texts = Arrays.copyOf(texts, size * 2);
+                coords = Arrays.copyOf(coords, size * 4);
+                colors = Arrays.copyOf(colors, size * 8);
+            }
+            texts[size] = text;
+            coords[2 * size] = x;
+            coords[2 * size + 1] = y;
+            colors[4 * size] = r;
+            colors[4 * size + 1] = g;
+            colors[4 * size + 2] = b;
+            colors[4 * size + 3] = a;
+            size++;
+        }
+
+        /**
+         * Вывести все строки очереди за один проход и очистить её
+         *
+         * @param clientWidth  ширина окна
+         * @param clientHeight высота окна
+         */
+        private void flush(int clientWidth, int clientHeight) {
+            if (size == 0)
+                return;
+            // рисовальщик прошлого поколения кэша освобождён, поэтому берётся новый
+            if (textRendererGeneration != TextRendererCache.getGeneration()) {
+                textRendererGeneration = TextRendererCache.getGeneration();
+                textRenderer = TextRendererCache.acquire(fontKey);
+            }
+            textRenderer.beginRendering(clientWidth, clientHeight);
+            for (int i = 0; i < size; i++) {
+                // смена цвета сбрасывает накопленные глифы, поэтому цвет задаётся только при изменении
+                if (i == 0 || colors[4 * i] != colors[4 * i - 4] || colors[4 * i + 1] != colors[4 * i - 3] ||
+                        colors[4 * i + 2] != colors[4 * i - 2] || colors[4 * i + 3] != colors[4 * i - 1])
+                    textRenderer.setColor(colors[4 * i], colors[4 * i + 1], colors[4 * i + 2], colors[4 * i + 3]);
+                textRenderer.draw(texts[i], coords[2 * i], coords[2 * i + 1]);
+            }
+            textRenderer.endRendering();
+            clear();
+        }
+
+        /**
+         * Очистить очередь
+         */
+        private void clear() {
+            Arrays.fill(texts, 0, size, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * очереди строк по шрифтам в порядке первого использования шрифта
+     */
+    @NotNull
+    private final Map<FontKey, FontQueue> queues = new HashMap<>();
+    /**
+     * очереди строк в порядке первого использования шрифта, обходятся по индексу,
+     * чтобы сброс очереди в каждом кадре не создавал итераторов
+     */
+    @NotNull
+    private final List<FontQueue> queueList = new ArrayList<>();
+
+    /**
+     * Добавить строку в очередь кадра
+     *
+     * @param fontKey ключ шрифта
+     * @param text    текст
+     * @param x       X координата в СК окна
+     * @param y       Y координата в СК окна
+     * @param r       красная компонента цвета
+     * @param g       зелёная компонента цвета
+     * @param b       синяя компонента цвета
+     * @param a       прозрачность
+     */
+    public void add(@NotNull FontKey fontKey, @NotNull String text, int x, int y, float r, float g, float b, float a) {
+        FontQueue queue = queues.get(Objects.requireNonNull(fontKey));
+        if (queue == null) {
+            queue = new FontQueue(fontKey);
+            queues.put(fontKey, queue);
+            queueList.add(queue);
+        }
+        queue.add(Objects.requireNonNull(text), x, y, r, g, b, a);
+    }
+
+    /**
+     * Вывести весь накопленный текст: по одному проходу рисовальщика на шрифт.
+     * Метод должен вызываться из потока OpenGL один раз за кадр
+     *
+     * @param clientWidth  ширина окна
+     * @param clientHeight высота окна
+     */
+    public void flush(int clientWidth, int clientHeight) {
+        for (int i = 0; i < queueList.size(); i++)
+            queueList.get(i).flush(clientWidth, clientHeight);
+    }
+
+    /**
+     * Вывести весь накопленный текст в области вывода текущего размера
+     *
+     * @param viewport область вывода
+     */
+    public void flush(@NotNull GLViewport viewport) {
+        flush(viewport.getWidth(), viewport.getHeight());
+    }
+
+    /**
+     * Отбросить накопленный текст, не выводя его
+     */
+    public void clear() {
+        for (int i = 0; i < queueList.size(); i++)
+            queueList.get(i).clear();
+    }
+
+    /**
+     * Получить кол-во строк, ожидающих вывода
+     *
+     * @return кол-во строк, ожидающих вывода
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < queueList.size(); i++)
+            size += queueList.get(i).size;
+        return size;
+    }
+
+    /**
+     * Получить строки, ожидающие вывода, в порядке вывода
+     *
+     * @return список строк
+     */
+    @NotNull
+    public List<String> getTexts() {
+        List<String> texts = new ArrayList<>(size());
+        for (int i = 0; i < queueList.size(); i++) {
+            FontQueue queue = queueList.get(i);
+            texts.addAll(Arrays.asList(queue.texts).subList(0, queue.size));
+        }
+        return texts;
+    }
+
+    /**
+     * Получить кол-во шрифтов, которые использовались в очереди
+     *
+     * @return кол-во шрифтов
+     */
+    public int getFontCnt() {
+        return queues.size();
+    }
+
+    /**
+     * Освободить рисовальщики текста очереди. Метод должен вызываться из потока OpenGL
+     */
+    public void dispose() {
+        for (FontQueue queue : queueList)
+            TextRendererCache.release(queue.fontKey, queue.textRenderer);
+        queues.clear();
+        queueList.clear();
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "GLTextBatch{size(), getFontCnt()}"
+     */
+    @Override
+    public String toString() {
+        return "GLTextBatch{" + size() + ", " + getFontCnt() + '}';
+    }
+}
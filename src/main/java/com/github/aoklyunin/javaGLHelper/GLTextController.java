@@ -1,5 +1,6 @@
 package com.github.aoklyunin.javaGLHelper;
 
+import com.jogamp.opengl.GLContext;
 import com.jogamp.opengl.util.awt.TextRenderer;
 import com.sun.istack.NotNull;
 import com.sun.istack.Nullable;
@@ -7,11 +8,10 @@ import com.sun.istack.Nullable;
 import jMath.aoklyunin.github.com.coordinateSystem.CoordinateSystem2d;
 import jMath.aoklyunin.github.com.coordinateSystem.CoordinateSystem2i;
 import jMath.aoklyunin.github.com.vector.Vector2d;
-import jMath.aoklyunin.github.com.vector.Vector2i;
 import jMath.aoklyunin.github.com.vector.Vector3d;
 import jMath.aoklyunin.github.com.vector.Vector4d;
 
-import java.awt.*;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -23,14 +23,28 @@ public class GLTextController {
      */
     @NotNull
     private final CaptionParams captionParams;
+    /**
+     * область вывода
+     */
+    @NotNull
+    private final GLViewport viewport;
+    /**
+     * слушатель изменения размеров области вывода
+     */
+    @NotNull
+    private final GLViewport.Listener resizeListener = this::resize;
+    /**
+     * флаг, подписан ли контроллер на изменение размеров области вывода
+     */
+    private boolean attached;
     /**
      * ширина окна
      */
-    private final int clientWidth;
+    private int clientWidth;
     /**
      * высота окна
      */
-    private final int clientHeight;
+    private int clientHeight;
     /**
      * система координат OpenGL
      */
@@ -40,7 +54,36 @@ public class GLTextController {
      * система координат экрана
      */
     @NotNull
-    private final CoordinateSystem2i clientCS;
+    private CoordinateSystem2i clientCS;
+    /**
+     * ключ шрифта
+     */
+    @NotNull
+    private final FontKey fontKey;
+    /**
+     * рисовальщик текста, берётся из общего кэша при первом выводе текста
+     */
+    @Nullable
+    private TextRenderer textRenderer;
+    /**
+     * поколение кэша рисовальщиков, в котором получен рисовальщик текста
+     */
+    private int textRendererGeneration;
+    /**
+     * очередь текста кадра, если она задана, текст не выводится сразу, а добавляется в неё
+     */
+    @Nullable
+    private GLTextBatch textBatch;
+    /**
+     * рисовальщик текста по атласу глифов, если он задан, текст выводится через него
+     */
+    @Nullable
+    private GLAtlasTextRenderer atlasTextRenderer;
+    /**
+     * кэш заранее отрисованных надписей, если он задан, строки выводятся готовыми текстурами
+     */
+    @Nullable
+    private GLLabelCache labelCache;
 
     /**
      * Конструктор контроллера текста
@@ -50,11 +93,60 @@ public class GLTextController {
      * @param captionParams параметры текста
      */
     public GLTextController(int clientWidth, int clientHeight, @NotNull CaptionParams captionParams) {
-        this.clientHeight = clientHeight;
-        this.clientWidth = clientWidth;
+        this(new GLViewport(clientWidth, clientHeight), captionParams);
+    }
+
+    /**
+     * Конструктор контроллера текста, следящего за размерами общей области вывода.
+     * Контроллер подписывается на область вывода при первом использовании
+     * и отписывается от неё в {@link #dispose()}
+     *
+     * @param viewport      область вывода
+     * @param captionParams параметры текста
+     */
+    public GLTextController(@NotNull GLViewport viewport, @NotNull CaptionParams captionParams) {
+        this(viewport, captionParams, FontKey.of(captionParams));
+    }
+
+    /**
+     * Конструктор контроллера текста с общим ключом шрифта
+     *
+     * @param viewport      область вывода
+     * @param captionParams параметры текста
+     * @param fontKey       ключ шрифта, должен соответствовать параметрам текста
+     */
+    GLTextController(@NotNull GLViewport viewport, @NotNull CaptionParams captionParams, @NotNull FontKey fontKey) {
+        this.viewport = Objects.requireNonNull(viewport);
         this.glCS = new CoordinateSystem2d(0, 1, 0, 1);
-        this.clientCS = new CoordinateSystem2i(0, clientWidth, 0, clientHeight);
         this.captionParams = captionParams;
+        this.fontKey = fontKey;
+        resize(viewport.getWidth(), viewport.getHeight());
+    }
+
+    /**
+     * Подписаться на изменение размеров области вывода, если контроллер ещё не подписан,
+     * и взять её текущие размеры
+     */
+    private void attach() {
+        if (attached)
+            return;
+        resize(viewport.getWidth(), viewport.getHeight());
+        viewport.addListener(resizeListener);
+        attached = true;
+    }
+
+    /**
+     * Обновить перевод координат под новые размеры окна. Размеры и разбиения строк
+     * кэшируются в пикселях и от размеров окна не зависят, а надписи и атласы хранят
+     * только глифы, поэтому сбрасывать при изменении размеров больше нечего
+     *
+     * @param clientWidth  ширина окна
+     * @param clientHeight высота окна
+     */
+    private void resize(int clientWidth, int clientHeight) {
+        this.clientWidth = clientWidth;
+        this.clientHeight = clientHeight;
+        this.clientCS = new CoordinateSystem2i(0, clientWidth, 0, clientHeight);
     }
 
     /**
@@ -73,8 +165,8 @@ public class GLTextController {
      * @param pos  положение на экране в СК OpenGL
      */
     public void drawText(@NotNull String text, @NotNull Vector2d pos) {
-        Vector2i posI = clientCS.getCoords(Objects.requireNonNull(pos), glCS);
-        drawText(Objects.requireNonNull(text), posI, captionParams.getColor());
+        Objects.requireNonNull(pos);
+        drawText(Objects.requireNonNull(text), pos.x, pos.y);
     }
 
     /**
@@ -85,26 +177,103 @@ public class GLTextController {
      * @param color цвет текста
      */
     public void drawText(@NotNull String text, @NotNull Vector2d pos, @Nullable Vector3d color) {
-        Vector2i posI = clientCS.getCoords(Objects.requireNonNull(pos), glCS);
-        drawText(Objects.requireNonNull(text), posI, color);
+        Objects.requireNonNull(pos);
+        if (color == null)
+            drawText(Objects.requireNonNull(text), pos.x, pos.y, 1, 1, 1, 1);
+        else
+            drawText(Objects.requireNonNull(text), pos.x, pos.y, (float) color.x, (float) color.y, (float) color.z, 1);
+    }
+
+    /**
+     * Вывести текст на экран цветом из параметров текста. Метод не создаёт объектов,
+     * поэтому подходит для вывода текста в каждом кадре
+     *
+     * @param text текст
+     * @param x    X координата в СК OpenGL
+     * @param y    Y координата в СК OpenGL
+     */
+    public void drawText(@NotNull String text, double x, double y) {
+        Vector4d color = captionParams.getColor();
+        drawText(
+                Objects.requireNonNull(text), x, y,
+                (float) color.x, (float) color.y, (float) color.z, (float) color.w
+        );
+    }
+
+    /**
+     * Вывести текст на экран. Метод не создаёт объектов,
+     * поэтому подходит для вывода текста в каждом кадре
+     *
+     * @param text текст
+     * @param x    X координата в СК OpenGL
+     * @param y    Y координата в СК OpenGL
+     * @param rgba цвет текста, упакованный в виде 0xRRGGBBAA
+     */
+    public void drawText(@NotNull String text, double x, double y, int rgba) {
+        drawText(
+                Objects.requireNonNull(text), x, y,
+                (rgba >>> 24) / 255f, ((rgba >>> 16) & 0xFF) / 255f, ((rgba >>> 8) & 0xFF) / 255f, (rgba & 0xFF) / 255f
+        );
     }
 
     /**
      * Вывести текст на экран
      *
-     * @param text  текст
-     * @param pos   положение на экране в СК окна
-     * @param color цвет текста
+     * @param text текст
+     * @param x    X координата в СК OpenGL
+     * @param y    Y координата в СК OpenGL
+     * @param r    красная компонента цвета
+     * @param g    зелёная компонента цвета
+     * @param b    синяя компонента цвета
+     * @param a    прозрачность
      */
-    private void drawText(@NotNull String text, @NotNull Vector2i pos, @Nullable Vector3d color) {
-        color = Objects.requireNonNullElse(color, Vector3d.ones());
-        TextRenderer textRenderer = new TextRenderer(new Font(
-                captionParams.getFontName(), captionParams.isBold() ? Font.BOLD : Font.PLAIN, captionParams.getFontSize())
+    void drawText(@NotNull String text, double x, double y, float r, float g, float b, float a) {
+        drawText(text, toClientX(x), toClientY(y), r, g, b, a);
+    }
+
+    /**
+     * Вывести текст на экран так, чтобы центр его границ совпал с заданной точкой
+     *
+     * @param text   текст
+     * @param center положение центра текста на экране в СК OpenGL
+     */
+    public void drawCenteredText(@NotNull String text, @NotNull Vector2d center) {
+        float[] bounds = TextMetricsCache.getBounds(fontKey, Objects.requireNonNull(text));
+        Objects.requireNonNull(center);
+        Vector4d color = captionParams.getColor();
+        drawText(
+                text, toClientX(center.x) - Math.round(bounds[0] + bounds[2] / 2),
+                toClientY(center.y) + Math.round(bounds[1] + bounds[3] / 2),
+                (float) color.x, (float) color.y, (float) color.z, (float) color.w
         );
-        textRenderer.beginRendering(clientWidth, clientHeight);
-        textRenderer.setColor((float) color.x, (float) color.y, (float) color.z, 1);
-        textRenderer.draw(text, pos.x, pos.y);
-        textRenderer.endRendering();
+    }
+
+    /**
+     * Измерить текст. Размеры строк кэшируются, поэтому повторное измерение
+     * той же строки не обращается к метрикам шрифта
+     *
+     * @param text текст
+     * @return ширина и высота текста в СК OpenGL
+     */
+    @NotNull
+    public Vector2d measure(@NotNull String text) {
+        attach();
+        float[] bounds = TextMetricsCache.getBounds(fontKey, Objects.requireNonNull(text));
+        return new Vector2d((double) bounds[2] / clientWidth, (double) bounds[3] / clientHeight);
+    }
+
+    /**
+     * Разбить текст на строки, ширина которых не превышает заданную.
+     * Разбиения кэшируются
+     *
+     * @param text     текст
+     * @param maxWidth максимальная ширина строки в СК OpenGL
+     * @return неизменяемый список строк
+     */
+    @NotNull
+    public List<String> layout(@NotNull String text, double maxWidth) {
+        attach();
+        return TextMetricsCache.layout(fontKey, Objects.requireNonNull(text), (int) (maxWidth * clientWidth));
     }
 
     /**
@@ -114,29 +283,182 @@ public class GLTextController {
      * @param pos   положение на экране в СК OpenGL
      * @param color цвет текста
      */
-    void drawText(@NotNull String text, @NotNull Vector2d pos, @NotNull Vector4d color) {
-        Vector2i posI = clientCS.getCoords(pos, glCS);
-        drawText(text, posI, color);
+    void drawText(@NotNull String text, @NotNull Vector2d pos, @Nullable Vector4d color) {
+        if (color == null)
+            drawText(text, pos.x, pos.y, 1, 1, 1, 1);
+        else
+            drawText(text, pos.x, pos.y, (float) color.x, (float) color.y, (float) color.z, (float) color.w);
     }
 
     /**
-     * Вывести текст на экран
+     * Перевести X координату из СК OpenGL в СК окна. СК OpenGL контроллера - единичный квадрат,
+     * поэтому перевод сводится к умножению на ширину окна и не требует промежуточных векторов
      *
-     * @param text  текст
-     * @param pos   положение на экране в СК окна
-     * @param color цвет текста
+     * @param x X координата в СК OpenGL
+     * @return X координата в СК окна
      */
-    private void drawText(@NotNull String text, @NotNull Vector2i pos, @Nullable Vector4d color) {
-        color = Objects.requireNonNullElse(color, new Vector4d(1, 1, 1, 1));
-        TextRenderer textRenderer = new TextRenderer(new Font(
-                captionParams.getFontName(), captionParams.isBold() ? Font.BOLD : Font.PLAIN, captionParams.getFontSize())
-        );
+    private int toClientX(double x) {
+        attach();
+        return (int) (x * clientWidth);
+    }
+
+    /**
+     * Перевести Y координату из СК OpenGL в СК окна
+     *
+     * @param y Y координата в СК OpenGL
+     * @return Y координата в СК окна
+     */
+    private int toClientY(double y) {
+        attach();
+        return (int) (y * clientHeight);
+    }
+
+    /**
+     * Вывести текст на экран или добавить его в очередь кадра, если она задана
+     *
+     * @param text текст
+     * @param x    X координата в СК окна
+     * @param y    Y координата в СК окна
+     * @param r    красная компонента цвета
+     * @param g    зелёная компонента цвета
+     * @param b    синяя компонента цвета
+     * @param a    прозрачность
+     */
+    private void drawText(@NotNull String text, int x, int y, float r, float g, float b, float a) {
+        if (atlasTextRenderer != null) {
+            float scale = (float) captionParams.getFontSize() / atlasTextRenderer.getAtlas().getBaseSize();
+            atlasTextRenderer.add(text, x, y, scale, r, g, b, a);
+            return;
+        }
+        if (labelCache != null) {
+            labelCache.draw(
+                    GLContext.getCurrentGL().getGL2(), fontKey, text, x, y, clientWidth, clientHeight, r, g, b, a
+            );
+            return;
+        }
+        if (textBatch != null) {
+            textBatch.add(fontKey, text, x, y, r, g, b, a);
+            return;
+        }
+        TextRenderer textRenderer = getTextRenderer();
         textRenderer.beginRendering(clientWidth, clientHeight);
-        textRenderer.setColor((float) color.x, (float) color.y, (float) color.z, (float) color.w);
-        textRenderer.draw(text, pos.x, pos.y);
+        textRenderer.setColor(r, g, b, a);
+        textRenderer.draw(text, x, y);
         textRenderer.endRendering();
     }
 
+    /**
+     * Получить рисовальщик текста. При первом вызове, а также после освобождения
+     * всех рисовальщиков кэша, рисовальщик берётся из общего кэша
+     *
+     * @return рисовальщик текста
+     */
+    @NotNull
+    private TextRenderer getTextRenderer() {
+        if (textRenderer == null || textRendererGeneration != TextRendererCache.getGeneration()) {
+            textRendererGeneration = TextRendererCache.getGeneration();
+            textRenderer = TextRendererCache.acquire(fontKey);
+        }
+        return textRenderer;
+    }
+
+    /**
+     * Освободить ресурсы контроллера и отписаться от области вывода. Метод должен вызываться
+     * из потока OpenGL, после него контроллер можно использовать снова, рисовальщик
+     * будет получен заново, а подписка восстановлена
+     */
+    public void dispose() {
+        if (attached) {
+            viewport.removeListener(resizeListener);
+            attached = false;
+        }
+        if (textRenderer != null) {
+            TextRendererCache.release(fontKey, textRenderer);
+            textRenderer = null;
+        }
+    }
+
+    /**
+     * Задать очередь текста кадра. Пока очередь задана, текст выводится только
+     * при её сбросе {@link GLTextBatch#flush(int, int)}
+     *
+     * @param textBatch очередь текста кадра, null - выводить текст сразу
+     */
+    public void setTextBatch(@Nullable GLTextBatch textBatch) {
+        this.textBatch = textBatch;
+    }
+
+    /**
+     * Получить очередь текста кадра
+     *
+     * @return очередь текста кадра, null, если текст выводится сразу
+     */
+    @Nullable
+    public GLTextBatch getTextBatch() {
+        return textBatch;
+    }
+
+    /**
+     * Задать рисовальщик текста по атласу глифов. Пока он задан, текст выводится
+     * только при его сбросе {@link GLAtlasTextRenderer#flush}
+     *
+     * @param atlasTextRenderer рисовальщик текста по атласу глифов, null - выводить текст
+     *                          рисовальщиком AWT
+     */
+    public void setAtlasTextRenderer(@Nullable GLAtlasTextRenderer atlasTextRenderer) {
+        this.atlasTextRenderer = atlasTextRenderer;
+    }
+
+    /**
+     * Получить рисовальщик текста по атласу глифов
+     *
+     * @return рисовальщик текста по атласу глифов, null, если текст выводится рисовальщиком AWT
+     */
+    @Nullable
+    public GLAtlasTextRenderer getAtlasTextRenderer() {
+        return atlasTextRenderer;
+    }
+
+    /**
+     * Задать кэш заранее отрисованных надписей. Режим подходит для строк, которые
+     * редко меняются: каждая строка растеризуется один раз и выводится одним квадратом
+     *
+     * @param labelCache кэш заранее отрисованных надписей, null - растеризовать строки при каждом выводе
+     */
+    public void setLabelCache(@Nullable GLLabelCache labelCache) {
+        this.labelCache = labelCache;
+    }
+
+    /**
+     * Получить кэш заранее отрисованных надписей
+     *
+     * @return кэш заранее отрисованных надписей, null, если режим надписей выключен
+     */
+    @Nullable
+    public GLLabelCache getLabelCache() {
+        return labelCache;
+    }
+
+    /**
+     * Получить область вывода
+     *
+     * @return область вывода
+     */
+    @NotNull
+    public GLViewport getViewport() {
+        return viewport;
+    }
+
+    /**
+     * Получить ключ шрифта
+     *
+     * @return ключ шрифта
+     */
+    @NotNull
+    public FontKey getFontKey() {
+        return fontKey;
+    }
+
     /**
      * Получить параметры заголовков
      *
@@ -160,14 +482,22 @@ public class GLTextController {
 
     /**
      * Строковое представление объекта вида:
-     * "clientWidth, clientHeight, glCS, clientCS"
+     * "captionParams, fontKey". Размеры окна меняются вместе с областью вывода,
+     * поэтому в строковое представление, как и в сравнение, не входят
      *
      * @return строковое представление объекта
      */
     protected String getString() {
-        return clientWidth + ", " + clientHeight + ", " + glCS + ", " + clientCS;
+        return captionParams + ", " + fontKey;
     }
 
+    /**
+     * Контроллеры равны, если у них равные параметры текста и шрифты
+     * и одна и та же область вывода
+     *
+     * @param o объект
+     * @return флаг, равны ли контроллеры
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -175,21 +505,17 @@ public class GLTextController {
 
         GLTextController that = (GLTextController) o;
 
-        if (clientWidth != that.clientWidth) return false;
-        if (clientHeight != that.clientHeight) return false;
+        if (viewport != that.viewport) return false;
         if (!Objects.equals(captionParams, that.captionParams))
             return false;
-        if (!Objects.equals(glCS, that.glCS)) return false;
-        return Objects.equals(clientCS, that.clientCS);
+        return Objects.equals(fontKey, that.fontKey);
     }
 
     @Override
     public int hashCode() {
         int result = captionParams.hashCode();
-        result = 31 * result + clientWidth;
-        result = 31 * result + clientHeight;
-        result = 31 * result + glCS.hashCode();
-        result = 31 * result + clientCS.hashCode();
+        result = 31 * result + fontKey.hashCode();
+        result = 31 * result + System.identityHashCode(viewport);
         return result;
     }
 }
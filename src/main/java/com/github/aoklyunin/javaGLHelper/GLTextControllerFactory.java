@@ -0,0 +1,117 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Фабрика контроллеров текста. Каждый запрос получает свой контроллер, поэтому настройки
+ * и освобождение одного контроллера не затрагивают другие, а контроллеры с одинаковыми
+ * настройками шрифта получают общий ключ шрифта, а через него общий шрифт AWT и общий
+ * рисовальщик текста из {@link TextRendererCache}. Поэтому время запуска и память текстур
+ * растут с кол-вом различных шрифтов, а не с кол-вом контроллеров
+ */
+public class GLTextControllerFactory {
+    /**
+     * область вывода
+     */
+    @NotNull
+    private final GLViewport viewport;
+    /**
+     * кол-во созданных контроллеров
+     */
+    private int controllerCnt;
+    /**
+     * единственные экземпляры ключей шрифтов
+     */
+    @NotNull
+    private final Map<FontKey, FontKey> fontKeys = new HashMap<>();
+
+    /**
+     * Конструктор фабрики контроллеров текста
+     *
+     * @param clientWidth  ширина окна
+     * @param clientHeight высота окна
+     */
+    public GLTextControllerFactory(int clientWidth, int clientHeight) {
+        this(new GLViewport(clientWidth, clientHeight));
+    }
+
+    /**
+     * Конструктор фабрики контроллеров текста, следящих за общей областью вывода
+     *
+     * @param viewport область вывода
+     */
+    public GLTextControllerFactory(@NotNull GLViewport viewport) {
+        this.viewport = Objects.requireNonNull(viewport);
+    }
+
+    /**
+     * Создать контроллер текста. Контроллер не делится с другими запросами, а его ключ шрифта -
+     * единственный экземпляр ключа среди контроллеров фабрики
+     *
+     * @param captionParams параметры текста
+     * @return контроллер текста
+     */
+    @NotNull
+    public GLTextController get(@NotNull CaptionParams captionParams) {
+        FontKey fontKey = fontKeys.computeIfAbsent(FontKey.of(Objects.requireNonNull(captionParams)), key -> key);
+        controllerCnt++;
+        return new GLTextController(viewport, captionParams, fontKey);
+    }
+
+    /**
+     * Получить контроллеры текстов из параметров
+     *
+     * @param map словарь параметров
+     * @return словарь контроллеров текста
+     */
+    @NotNull
+    public Map<String, GLTextController> getTextControllers(@NotNull Map<String, CaptionParams> map) {
+        Map<String, GLTextController> result = new HashMap<>();
+        for (Map.Entry<String, CaptionParams> entry : Objects.requireNonNull(map).entrySet())
+            result.put(entry.getKey(), get(entry.getValue()));
+        return result;
+    }
+
+    /**
+     * Получить кол-во различных шрифтов, созданных фабрикой
+     *
+     * @return кол-во различных шрифтов
+     */
+    public int getDistinctFontCnt() {
+        return fontKeys.size();
+    }
+
+    /**
+     * Получить кол-во контроллеров, созданных фабрикой
+     *
+     * @return кол-во контроллеров
+     */
+    public int getControllerCnt() {
+        return controllerCnt;
+    }
+
+    /**
+     * Получить область вывода
+     *
+     * @return область вывода
+     */
+    @NotNull
+    public GLViewport getViewport() {
+        return viewport;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "GLTextControllerFactory{viewport, getControllerCnt(), getDistinctFontCnt()}"
+     */
+    @Override
+    public String toString() {
+        return "GLTextControllerFactory{" + viewport + ", " +
+                getControllerCnt() + ", " + getDistinctFontCnt() + '}';
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Общая область вывода. Контроллеры текста, созданные по области вывода, при первом
+ * использовании подписываются на изменение её размеров и отписываются при освобождении,
+ * поэтому при изменении размеров окна достаточно вызвать
+ * {@link #setSize(int, int)}, например, из {@code GLEventListener.reshape}, а не
+ * пересоздавать контроллеры вместе со шрифтами и кэшами
+ */
+public class GLViewport {
+    /**
+     * Слушатель изменения размеров области вывода
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Обработать изменение размеров области вывода
+         *
+         * @param width  новая ширина
+         * @param height новая высота
+         */
+        void resized(int width, int height);
+    }
+
+    /**
+     * слушатели изменения размеров
+     */
+    @NotNull
+    private final List<Listener> listeners = new ArrayList<>();
+    /**
+     * ширина
+     */
+    private int width;
+    /**
+     * высота
+     */
+    private int height;
+
+    /**
+     * Конструктор общей области вывода
+     *
+     * @param width  ширина
+     * @param height высота
+     */
+    public GLViewport(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Задать размеры области вывода. Слушатели оповещаются, только если размеры изменились.
+     * Метод должен вызываться из того же потока, что и вывод текста
+     *
+     * @param width  ширина
+     * @param height высота
+     */
+    public void setSize(int width, int height) {
+        if (this.width == width && this.height == height)
+            return;
+        this.width = width;
+        this.height = height;
+        for (int i = 0; i < listeners.size(); i++)
+            listeners.get(i).resized(width, height);
+    }
+
+    /**
+     * Добавить слушателя изменения размеров
+     *
+     * @param listener слушатель
+     */
+    public void addListener(@NotNull Listener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Удалить слушателя изменения размеров
+     *
+     * @param listener слушатель
+     */
+    public void removeListener(@NotNull Listener listener) {
+        listeners.remove(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Получить кол-во слушателей изменения размеров
+     *
+     * @return кол-во слушателей
+     */
+    public int getListenerCnt() {
+        return listeners.size();
+    }
+
+    /**
+     * Получить ширину
+     *
+     * @return ширина
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Получить высоту
+     *
+     * @return высота
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "GLViewport{width, height}"
+     */
+    @Override
+    public String toString() {
+        return "GLViewport{" + width + ", " + height + '}';
+    }
+}
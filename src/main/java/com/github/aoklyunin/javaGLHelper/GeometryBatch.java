@@ -0,0 +1,551 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.jogamp.opengl.GL2;
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import static com.jogamp.opengl.GL.*;
+import static com.jogamp.opengl.GL2.*;
+
+/**
+ * Пакет геометрии: треугольники, четырёхугольники и отрезки с цветами вершин
+ * накапливаются в прямых буферах и выводятся при сбросе в порядке добавления:
+ * подряд идущие примитивы одного типа выводятся одним вызовом рисования,
+ * новый вызов начинается при смене типа. Пока пакет активен в потоке
+ * ({@link #begin()} ... {@link #end(GL2)}), примитивы {@link GLAlgorithms}, вызванные
+ * из этого потока, не рисуются сразу, а добавляются в него. Цвет вершин задаётся
+ * методом {@link #setColor} или {@link GLAlgorithms#setColor}, вызовы glColor
+ * внутри пакета не действуют. Методы должны вызываться из потока OpenGL
+ */
+public class GeometryBatch {
+    /**
+     * Поток вершин одного типа примитивов
+     */
+    private static class Stream {
+        /**
+         * тип примитивов OpenGL
+         */
+        private final int mode;
+        /**
+         * номер потока в пакете
+         */
+        private final int index;
+        /**
+         * координаты вершин x, y, z
+         */
+        @NotNull
+        private FloatBuffer positions = GLAtlasTextRenderer.allocate(3 * 256);
+        /**
+         * цвета вершин r, g, b, a
+         */
+        @NotNull
+        private FloatBuffer colors = GLAtlasTextRenderer.allocate(4 * 256);
+        /**
+         * кол-во вершин
+         */
+        private int vertexCnt;
+        /**
+         * id вершинного буфера, 0, если буфер ещё не создан
+         */
+        private int bufferId;
+
+        /**
+         * Конструктор потока вершин
+         *
+         * @param mode  тип примитивов OpenGL
+         * @param index номер потока в пакете
+         */
+        private Stream(int mode, int index) {
+            this.mode = mode;
+            this.index = index;
+        }
+
+        /**
+         * Увеличить буферы, если в них нет места для заданного кол-ва вершин
+         *
+         * @param extraVertexCnt кол-во добавляемых вершин
+         */
+        private void ensureCapacity(int extraVertexCnt) {
+            int required = vertexCnt + extraVertexCnt;
+            if (required * 3 <= positions.capacity())
+                return;
+            int capacity = Math.max(required, positions.capacity() / 3 * 2);
+            positions = grow(positions, capacity * 3);
+            colors = grow(colors, capacity * 4);
+        }
+
+        /**
+         * Скопировать буфер в новый буфер большей ёмкости
+         *
+         * @param buffer   буфер
+         * @param floatCnt ёмкость нового буфера
+         * @return новый буфер
+         */
+        @NotNull
+        private static FloatBuffer grow(@NotNull FloatBuffer buffer, int floatCnt) {
+            FloatBuffer grown = GLAtlasTextRenderer.allocate(floatCnt);
+            buffer.flip();
+            grown.put(buffer);
+            return grown;
+        }
+
+        /**
+         * Очистить поток
+         */
+        private void clear() {
+            positions.clear();
+            colors.clear();
+            vertexCnt = 0;
+        }
+    }
+
+    /**
+     * активный пакет потока, null - примитивы рисуются сразу
+     */
+    @NotNull
+    private static final ThreadLocal<GeometryBatch> ACTIVE = new ThreadLocal<>();
+
+    /**
+     * четырёхугольники
+     */
+    @NotNull
+    private final Stream quads = new Stream(GL_QUADS, 0);
+    /**
+     * треугольники
+     */
+    @NotNull
+    private final Stream triangles = new Stream(GL_TRIANGLES, 1);
+    /**
+     * отрезки
+     */
+    @NotNull
+    private final Stream lines = new Stream(GL_LINES, 2);
+    /**
+     * потоки по номерам
+     */
+    @NotNull
+    private final Stream[] streams = {quads, triangles, lines};
+    /**
+     * номера потоков вызовов рисования в порядке добавления
+     */
+    @NotNull
+    private int[] runStreams = new int[16];
+    /**
+     * номера первых вершин вызовов рисования в их потоках
+     */
+    @NotNull
+    private int[] runFirsts = new int[16];
+    /**
+     * кол-ва вершин вызовов рисования
+     */
+    @NotNull
+    private int[] runVertexCnts = new int[16];
+    /**
+     * кол-во вызовов рисования
+     */
+    private int runCnt;
+    /**
+     * флаг, выводятся ли цвета вершин, false - все вершины рисуются текущим цветом OpenGL
+     */
+    private final boolean colored;
+    /**
+     * флаг, хранятся ли вершины в вершинных буферах, false - выводятся из памяти клиента
+     */
+    private final boolean buffered;
+    /**
+     * текущий цвет
+     */
+    private float r = 1, g = 1, b = 1, a = 1;
+    /**
+     * первая вершина веера треугольников
+     */
+    private float fanX, fanY, fanZ;
+    /**
+     * предыдущая вершина веера треугольников или ломаной
+     */
+    private float prevX, prevY, prevZ;
+    /**
+     * кол-во вершин текущего веера треугольников или ломаной
+     */
+    private int pathVertexCnt;
+
+    /**
+     * Конструктор пакета геометрии с цветами вершин в вершинных буферах
+     */
+    public GeometryBatch() {
+        this(true, true);
+    }
+
+    /**
+     * Конструктор пакета геометрии
+     *
+     * @param colored  флаг, выводятся ли цвета вершин, false - все вершины рисуются текущим цветом OpenGL
+     * @param buffered флаг, хранятся ли вершины в вершинных буферах, false - выводятся из памяти клиента,
+     *                 такой пакет не привязан к контексту OpenGL
+     */
+    GeometryBatch(boolean colored, boolean buffered) {
+        this.colored = colored;
+        this.buffered = buffered;
+    }
+
+    /**
+     * Получить пакет, активный в текущем потоке
+     *
+     * @return активный пакет, null - примитивы рисуются сразу
+     */
+    @Nullable
+    static GeometryBatch getActive() {
+        return ACTIVE.get();
+    }
+
+    /**
+     * Сделать пакет активным в текущем потоке: примитивы {@link GLAlgorithms},
+     * вызванные из этого потока, будут добавляться в него
+     */
+    public void begin() {
+        GeometryBatch active = ACTIVE.get();
+        if (active != null)
+            throw new IllegalStateException("another geometry batch is active: " + active);
+        ACTIVE.set(this);
+    }
+
+    /**
+     * Вывести накопленные примитивы и перестать собирать их в пакет
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public void end(@NotNull GL2 gl2) {
+        if (ACTIVE.get() != this)
+            throw new IllegalStateException("geometry batch is not active: " + this);
+        ACTIVE.remove();
+        flush(gl2);
+    }
+
+    /**
+     * Задать цвет следующих вершин
+     *
+     * @param r красная составляющая
+     * @param g зелёная составляющая
+     * @param b синяя составляющая
+     * @param a прозрачность
+     */
+    public void setColor(float r, float g, float b, float a) {
+        this.r = r;
+        this.g = g;
+        this.b = b;
+        this.a = a;
+    }
+
+    /**
+     * Получить текущий цвет
+     *
+     * @param color массив, в который записывается цвет r, g, b, a
+     */
+    void getColor(@NotNull float[] color) {
+        color[0] = r;
+        color[1] = g;
+        color[2] = b;
+        color[3] = a;
+    }
+
+    /**
+     * Выделить место под треугольники заранее, чтобы при добавлении
+     * большого кол-ва треугольников буферы увеличивались не больше одного раза
+     *
+     * @param triangleCnt кол-во добавляемых треугольников
+     */
+    public void reserveTriangles(int triangleCnt) {
+        if (triangleCnt < 0)
+            throw new IllegalArgumentException("triangle count must be non-negative: " + triangleCnt);
+        triangles.ensureCapacity(3 * triangleCnt);
+    }
+
+    /**
+     * Добавить треугольник
+     *
+     * @param x1 X координата первой вершины
+     * @param y1 Y координата первой вершины
+     * @param z1 Z координата первой вершины
+     * @param x2 X координата второй вершины
+     * @param y2 Y координата второй вершины
+     * @param z2 Z координата второй вершины
+     * @param x3 X координата третьей вершины
+     * @param y3 Y координата третьей вершины
+     * @param z3 Z координата третьей вершины
+     */
+    public void addTriangle(
+            double x1, double y1, double z1, double x2, double y2, double z2, double x3, double y3, double z3
+    ) {
+        triangles.ensureCapacity(3);
+        putVertex(triangles, (float) x1, (float) y1, (float) z1);
+        putVertex(triangles, (float) x2, (float) y2, (float) z2);
+        putVertex(triangles, (float) x3, (float) y3, (float) z3);
+    }
+
+    /**
+     * Добавить четырёхугольник, вершины задаются по контуру
+     *
+     * @param x1 X координата первой вершины
+     * @param y1 Y координата первой вершины
+     * @param x2 X координата второй вершины
+     * @param y2 Y координата второй вершины
+     * @param x3 X координата третьей вершины
+     * @param y3 Y координата третьей вершины
+     * @param x4 X координата четвёртой вершины
+     * @param y4 Y координата четвёртой вершины
+     */
+    public void addQuad(double x1, double y1, double x2, double y2, double x3, double y3, double x4, double y4) {
+        quads.ensureCapacity(4);
+        putVertex(quads, (float) x1, (float) y1, 0);
+        putVertex(quads, (float) x2, (float) y2, 0);
+        putVertex(quads, (float) x3, (float) y3, 0);
+        putVertex(quads, (float) x4, (float) y4, 0);
+    }
+
+    /**
+     * Добавить отрезок
+     *
+     * @param x1 X координата первой точки
+     * @param y1 Y координата первой точки
+     * @param z1 Z координата первой точки
+     * @param x2 X координата второй точки
+     * @param y2 Y координата второй точки
+     * @param z2 Z координата второй точки
+     */
+    public void addLine(double x1, double y1, double z1, double x2, double y2, double z2) {
+        lines.ensureCapacity(2);
+        putVertex(lines, (float) x1, (float) y1, (float) z1);
+        putVertex(lines, (float) x2, (float) y2, (float) z2);
+    }
+
+    /**
+     * Начать веер треугольников или ломаную: следующие вершины задаются
+     * методами {@link #fanVertex} или {@link #stripVertex}
+     */
+    public void beginPath() {
+        pathVertexCnt = 0;
+    }
+
+    /**
+     * Добавить вершину веера треугольников, как в {@code GL_TRIANGLE_FAN}:
+     * каждая вершина после второй образует треугольник с первой и предыдущей вершинами
+     *
+     * @param x X координата вершины
+     * @param y Y координата вершины
+     * @param z Z координата вершины
+     */
+    public void fanVertex(double x, double y, double z) {
+        if (pathVertexCnt == 0) {
+            fanX = (float) x;
+            fanY = (float) y;
+            fanZ = (float) z;
+        } else if (pathVertexCnt > 1) {
+            triangles.ensureCapacity(3);
+            putVertex(triangles, fanX, fanY, fanZ);
+            putVertex(triangles, prevX, prevY, prevZ);
+            putVertex(triangles, (float) x, (float) y, (float) z);
+        }
+        setPrev(x, y, z);
+    }
+
+    /**
+     * Добавить вершину ломаной, как в {@code GL_LINE_STRIP}:
+     * каждая вершина после первой образует отрезок с предыдущей вершиной
+     *
+     * @param x X координата вершины
+     * @param y Y координата вершины
+     * @param z Z координата вершины
+     */
+    public void stripVertex(double x, double y, double z) {
+        if (pathVertexCnt > 0) {
+            lines.ensureCapacity(2);
+            putVertex(lines, prevX, prevY, prevZ);
+            putVertex(lines, (float) x, (float) y, (float) z);
+        }
+        setPrev(x, y, z);
+    }
+
+    /**
+     * Запомнить предыдущую вершину веера или ломаной
+     *
+     * @param x X координата вершины
+     * @param y Y координата вершины
+     * @param z Z координата вершины
+     */
+    private void setPrev(double x, double y, double z) {
+        prevX = (float) x;
+        prevY = (float) y;
+        prevZ = (float) z;
+        pathVertexCnt++;
+    }
+
+    /**
+     * Добавить вершину в поток, место должно быть выделено заранее
+     *
+     * @param stream поток вершин
+     * @param x      X координата
+     * @param y      Y координата
+     * @param z      Z координата
+     */
+    private void putVertex(@NotNull Stream stream, float x, float y, float z) {
+        if (runCnt == 0 || runStreams[runCnt - 1] != stream.index)
+            startRun(stream);
+        stream.positions.put(x).put(y).put(z);
+        if (colored)
+            stream.colors.put(r).put(g).put(b).put(a);
+        stream.vertexCnt++;
+        runVertexCnts[runCnt - 1]++;
+    }
+
+    /**
+     * Начать новый вызов рисования при смене типа примитивов
+     *
+     * @param stream поток вершин нового типа
+     */
+    private void startRun(@NotNull Stream stream) {
+        if (runCnt == runStreams.length) {
+            runStreams = Arrays.copyOf(runStreams, runCnt * 2);
+            runFirsts = Arrays.copyOf(runFirsts, runCnt * 2);
+            runVertexCnts = Arrays.copyOf(runVertexCnts, runCnt * 2);
+        }
+        runStreams[runCnt] = stream.index;
+        runFirsts[runCnt] = stream.vertexCnt;
+        runVertexCnts[runCnt] = 0;
+        runCnt++;
+    }
+
+    /**
+     * Вывести накопленные примитивы в порядке добавления, по одному вызову рисования
+     * на каждую последовательность примитивов одного типа, и очистить пакет.
+     * После вывода массива цветов текущий цвет OpenGL не определён, поэтому
+     * цветной пакет сохраняет и восстанавливает его
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public void flush(@NotNull GL2 gl2) {
+        if (isEmpty())
+            return;
+        if (colored)
+            gl2.glPushAttrib(GL_CURRENT_BIT);
+        gl2.glEnableClientState(GL_VERTEX_ARRAY);
+        if (colored)
+            gl2.glEnableClientState(GL_COLOR_ARRAY);
+        for (Stream stream : streams)
+            upload(gl2, stream);
+        for (int i = 0; i < runCnt; i++) {
+            Stream stream = streams[runStreams[i]];
+            bind(gl2, stream);
+            gl2.glDrawArrays(stream.mode, runFirsts[i], runVertexCnts[i]);
+        }
+        if (colored)
+            gl2.glDisableClientState(GL_COLOR_ARRAY);
+        gl2.glDisableClientState(GL_VERTEX_ARRAY);
+        if (buffered)
+            gl2.glBindBuffer(GL_ARRAY_BUFFER, 0);
+        if (colored)
+            gl2.glPopAttrib();
+        clear();
+    }
+
+    /**
+     * Подготовить вершины потока к выводу: при выводе из вершинного буфера загрузить их в него
+     *
+     * @param gl2    переменная OpenGL
+     * @param stream поток вершин
+     */
+    private void upload(@NotNull GL2 gl2, @NotNull Stream stream) {
+        if (stream.vertexCnt == 0)
+            return;
+        stream.positions.flip();
+        stream.colors.flip();
+        if (!buffered)
+            return;
+        if (stream.bufferId == 0) {
+            int[] ids = new int[1];
+            gl2.glGenBuffers(1, ids, 0);
+            stream.bufferId = ids[0];
+        }
+        long positionBytes = (long) stream.vertexCnt * 3 * Float.BYTES;
+        long colorBytes = colored ? (long) stream.vertexCnt * 4 * Float.BYTES : 0;
+        gl2.glBindBuffer(GL_ARRAY_BUFFER, stream.bufferId);
+        gl2.glBufferData(GL_ARRAY_BUFFER, positionBytes + colorBytes, null, GL_STREAM_DRAW);
+        gl2.glBufferSubData(GL_ARRAY_BUFFER, 0, positionBytes, stream.positions);
+        if (colored)
+            gl2.glBufferSubData(GL_ARRAY_BUFFER, positionBytes, colorBytes, stream.colors);
+    }
+
+    /**
+     * Указать OpenGL массивы вершин и цветов потока
+     *
+     * @param gl2    переменная OpenGL
+     * @param stream поток вершин
+     */
+    private void bind(@NotNull GL2 gl2, @NotNull Stream stream) {
+        if (buffered) {
+            gl2.glBindBuffer(GL_ARRAY_BUFFER, stream.bufferId);
+            gl2.glVertexPointer(3, GL_FLOAT, 0, 0);
+            if (colored)
+                gl2.glColorPointer(4, GL_FLOAT, 0, (long) stream.vertexCnt * 3 * Float.BYTES);
+        } else {
+            // при привязанном вершинном буфере указатель считался бы смещением в нём
+            gl2.glBindBuffer(GL_ARRAY_BUFFER, 0);
+            gl2.glVertexPointer(3, GL_FLOAT, 0, stream.positions);
+            if (colored)
+                gl2.glColorPointer(4, GL_FLOAT, 0, stream.colors);
+        }
+    }
+
+    /**
+     * Проверить, пуст ли пакет
+     *
+     * @return флаг, пуст ли пакет
+     */
+    public boolean isEmpty() {
+        return quads.vertexCnt == 0 && triangles.vertexCnt == 0 && lines.vertexCnt == 0;
+    }
+
+    /**
+     * Получить кол-во накопленных вершин
+     *
+     * @return кол-во вершин
+     */
+    public int getVertexCnt() {
+        return quads.vertexCnt + triangles.vertexCnt + lines.vertexCnt;
+    }
+
+    /**
+     * Очистить пакет, не выводя примитивы
+     */
+    public void clear() {
+        quads.clear();
+        triangles.clear();
+        lines.clear();
+        runCnt = 0;
+    }
+
+    /**
+     * Освободить вершинные буферы
+     *
+     * @param gl2 переменная OpenGL
+     */
+    public void dispose(@NotNull GL2 gl2) {
+        for (Stream stream : streams) {
+            if (stream.bufferId != 0)
+                gl2.glDeleteBuffers(1, new int[]{stream.bufferId}, 0);
+            stream.bufferId = 0;
+        }
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "GeometryBatch{quads.vertexCnt, triangles.vertexCnt, lines.vertexCnt}"
+     */
+    @Override
+    public String toString() {
+        return "GeometryBatch{" + quads.vertexCnt + ", " + triangles.vertexCnt + ", " + lines.vertexCnt + '}';
+    }
+}
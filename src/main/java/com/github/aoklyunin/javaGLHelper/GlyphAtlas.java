@@ -0,0 +1,786 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Атлас глифов: все глифы шрифта один раз растеризуются в одно общее
+ * изображение, для каждого глифа хранится его прямоугольник в атласе и метрики.
+ * Атлас содержит печатные символы латиницы, дополнения Latin-1 и кириллицы.
+ * Стороны атласа - степени двойки, атлас близок к квадрату и растёт вместе с размером шрифта.
+ * Класс не использует OpenGL, поэтому атлас можно строить в любом потоке
+ */
+public class GlyphAtlas {
+    /**
+     * символ, который выводится вместо символов, отсутствующих в атласе
+     */
+    private static final char MISSING_CHAR = '?';
+    /**
+     * символ, следующий за последним символом, который может быть в атласе
+     */
+    static final int CHAR_LIMIT = 0x0460;
+    /**
+     * наибольшая сторона атласа, размер текстуры, который поддерживает почти любая видеокарта
+     */
+    public static final int MAX_SIZE = 8192;
+    /**
+     * отступ между глифами и от краёв атласа
+     */
+    private static final int PADDING = 1;
+    /**
+     * во сколько раз глифы увеличиваются при построении поля расстояний
+     */
+    private static final int SDF_UPSCALE = 4;
+    /**
+     * бесконечность для преобразования расстояний, конечная, чтобы не получать NaN в разностях
+     */
+    private static final double EDT_INF = 1e20;
+    /**
+     * версия формата файла атласа
+     */
+    private static final int FILE_VERSION = 1;
+
+    /**
+     * ключ шрифта
+     */
+    @NotNull
+    private final FontKey fontKey;
+    /**
+     * размер шрифта, с которым растеризованы глифы
+     */
+    private final int baseSize;
+    /**
+     * ширина поля расстояний в пикселях, 0 - обычный атлас без поля расстояний
+     */
+    private final int spread;
+    /**
+     * ширина атласа
+     */
+    private final int width;
+    /**
+     * высота атласа
+     */
+    private final int height;
+    /**
+     * значения альфа-канала атласа построчно, начиная с верхней строки
+     */
+    @NotNull
+    private final byte[] alpha;
+    /**
+     * номера глифов по символам, -1, если глифа нет
+     */
+    @NotNull
+    private final short[] glyphIds;
+    /**
+     * прямоугольники глифов в атласе: x, y, ширина, высота
+     */
+    @NotNull
+    private final int[] rects;
+    /**
+     * смещения глифов относительно точки на базовой линии: x, y(вниз)
+     */
+    @NotNull
+    private final float[] offsets;
+    /**
+     * продвижения пера после каждого глифа
+     */
+    @NotNull
+    private final float[] advances;
+    /**
+     * подъём шрифта над базовой линией
+     */
+    private final float ascent;
+    /**
+     * спуск шрифта под базовую линию
+     */
+    private final float descent;
+
+    /**
+     * Конструктор атласа глифов
+     *
+     * @param fontKey  ключ шрифта
+     * @param baseSize размер шрифта, с которым растеризованы глифы
+     * @param spread   ширина поля расстояний в пикселях, 0 - обычный атлас без поля расстояний
+     * @param width    ширина атласа
+     * @param height   высота атласа
+     * @param alpha    значения альфа-канала атласа построчно, начиная с верхней строки
+     * @param glyphIds номера глифов по символам
+     * @param rects    прямоугольники глифов в атласе
+     * @param offsets  смещения глифов относительно точки на базовой линии
+     * @param advances продвижения пера после каждого глифа
+     * @param ascent   подъём шрифта над базовой линией
+     * @param descent  спуск шрифта под базовую линию
+     */
+    GlyphAtlas(
+            @NotNull FontKey fontKey, int baseSize, int spread, int width, int height, @NotNull byte[] alpha,
+            @NotNull short[] glyphIds, @NotNull int[] rects, @NotNull float[] offsets, @NotNull float[] advances,
+            float ascent, float descent
+    ) {
+        this.fontKey = fontKey;
+        this.baseSize = baseSize;
+        this.spread = spread;
+        this.width = width;
+        this.height = height;
+        this.alpha = alpha;
+        this.glyphIds = glyphIds;
+        this.rects = rects;
+        this.offsets = offsets;
+        this.advances = advances;
+        this.ascent = ascent;
+        this.descent = descent;
+    }
+
+    /**
+     * Растеризовать атлас глифов шрифта
+     *
+     * @param fontKey ключ шрифта
+     * @return атлас глифов
+     */
+    @NotNull
+    public static GlyphAtlas rasterize(@NotNull FontKey fontKey) {
+        Font font = Objects.requireNonNull(fontKey).getFont();
+        FontRenderContext frc = new FontRenderContext(null, true, true);
+        char[] chars = getAtlasChars(font);
+
+        int[] rects = new int[chars.length * 4];
+        float[] offsets = new float[chars.length * 2];
+        float[] advances = new float[chars.length];
+        GlyphVector[] glyphVectors = new GlyphVector[chars.length];
+        for (int i = 0; i < chars.length; i++) {
+            glyphVectors[i] = font.createGlyphVector(frc, new char[]{chars[i]});
+            Rectangle bounds = getPixelBounds(glyphVectors[i], frc);
+            checkGlyphSize(fontKey, chars[i], bounds.width, bounds.height);
+            rects[4 * i + 2] = bounds.width;
+            rects[4 * i + 3] = bounds.height;
+            offsets[2 * i] = bounds.x;
+            offsets[2 * i + 1] = bounds.y;
+            advances[i] = glyphVectors[i].getGlyphMetrics(0).getAdvanceX();
+        }
+        int width = getAtlasWidth(rects);
+        int height = pack(fontKey, rects, width);
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        graphics.setColor(Color.WHITE);
+        for (int i = 0; i < chars.length; i++)
+            graphics.drawGlyphVector(glyphVectors[i], rects[4 * i] - offsets[2 * i], rects[4 * i + 1] - offsets[2 * i + 1]);
+        graphics.dispose();
+
+        LineMetrics lineMetrics = font.getLineMetrics("Hg", frc);
+        return new GlyphAtlas(
+                fontKey, fontKey.getFontSize(), 0, width, height,
+                ((DataBufferByte) image.getRaster().getDataBuffer()).getData(),
+                getGlyphIds(chars), rects, offsets, advances, lineMetrics.getAscent(), lineMetrics.getDescent()
+        );
+    }
+
+    /**
+     * Построить атлас поля расстояний со знаком. В каждом пикселе атласа хранится
+     * расстояние до контура глифа: 0.5 - на контуре, больше - внутри, меньше - снаружи.
+     * Такой атлас, построенный один раз, чётко выводится при любом размере шрифта.
+     * Глифы растеризуются в увеличенном масштабе, поэтому построение занимает заметное
+     * время, и атлас стоит сохранять в файл {@link #loadOrRasterizeSdf(FontKey, int, Path)}
+     *
+     * @param fontKey ключ шрифта, его размер становится размером атласа
+     * @param spread  ширина поля расстояний в пикселях атласа
+     * @return атлас поля расстояний
+     */
+    @NotNull
+    public static GlyphAtlas rasterizeSdf(@NotNull FontKey fontKey, int spread) {
+        if (spread <= 0)
+            throw new IllegalArgumentException("spread must be positive: " + spread);
+        Font font = Objects.requireNonNull(fontKey).createFont()
+                .deriveFont((float) fontKey.getFontSize() * SDF_UPSCALE);
+        // без сглаживания: поле расстояний строится по бинарной маске
+        FontRenderContext frc = new FontRenderContext(null, false, true);
+        char[] chars = getAtlasChars(font);
+
+        int padding = spread * SDF_UPSCALE;
+        int[] rects = new int[chars.length * 4];
+        float[] offsets = new float[chars.length * 2];
+        float[] advances = new float[chars.length];
+        byte[][] fields = new byte[chars.length][];
+        for (int i = 0; i < chars.length; i++) {
+            GlyphVector glyphVector = font.createGlyphVector(frc, new char[]{chars[i]});
+            Rectangle bounds = getPixelBounds(glyphVector, frc);
+            int w = bounds.width == 0 ? 0 : (bounds.width + 2 * padding + SDF_UPSCALE - 1) / SDF_UPSCALE;
+            int h = bounds.height == 0 ? 0 : (bounds.height + 2 * padding + SDF_UPSCALE - 1) / SDF_UPSCALE;
+            // проверка до построения поля: поле большого глифа строится долго
+            checkGlyphSize(fontKey, chars[i], w, h);
+            rects[4 * i + 2] = w;
+            rects[4 * i + 3] = h;
+            offsets[2 * i] = (float) (bounds.x - padding) / SDF_UPSCALE;
+            offsets[2 * i + 1] = (float) (bounds.y - padding) / SDF_UPSCALE;
+            advances[i] = glyphVector.getGlyphMetrics(0).getAdvanceX() / SDF_UPSCALE;
+            fields[i] = getDistanceField(glyphVector, bounds.x - padding, bounds.y - padding, w, h, padding);
+        }
+        int width = getAtlasWidth(rects);
+        int height = pack(fontKey, rects, width);
+
+        byte[] alpha = new byte[width * height];
+        for (int i = 0; i < chars.length; i++) {
+            int w = rects[4 * i + 2];
+            for (int y = 0; y < rects[4 * i + 3]; y++)
+                System.arraycopy(fields[i], y * w, alpha, (rects[4 * i + 1] + y) * width + rects[4 * i], w);
+        }
+
+        LineMetrics lineMetrics = font.getLineMetrics("Hg", frc);
+        return new GlyphAtlas(
+                fontKey, fontKey.getFontSize(), spread, width, height, alpha, getGlyphIds(chars),
+                rects, offsets, advances, lineMetrics.getAscent() / SDF_UPSCALE, lineMetrics.getDescent() / SDF_UPSCALE
+        );
+    }
+
+    /**
+     * Загрузить атлас поля расстояний из файла кэша, а если файла нет или он построен
+     * для другого шрифта, построить атлас и сохранить его в файл
+     *
+     * @param fontKey   ключ шрифта
+     * @param spread    ширина поля расстояний в пикселях атласа
+     * @param cacheFile файл кэша
+     * @return атлас поля расстояний
+     * @throws IOException ошибка записи файла кэша
+     */
+    @NotNull
+    public static GlyphAtlas loadOrRasterizeSdf(
+            @NotNull FontKey fontKey, int spread, @NotNull Path cacheFile
+    ) throws IOException {
+        if (Files.exists(Objects.requireNonNull(cacheFile))) {
+            try {
+                GlyphAtlas atlas = load(cacheFile);
+                if (atlas.fontKey.equals(fontKey) && atlas.spread == spread)
+                    return atlas;
+            } catch (IOException ignored) {
+                // повреждённый или устаревший кэш строится заново
+            }
+        }
+        GlyphAtlas atlas = rasterizeSdf(fontKey, spread);
+        atlas.save(cacheFile);
+        return atlas;
+    }
+
+    /**
+     * Сохранить атлас в файл
+     *
+     * @param path путь к файлу
+     * @throws IOException ошибка записи файла
+     */
+    public void save(@NotNull Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(FILE_VERSION);
+            out.writeUTF(fontKey.getFontName());
+            out.writeBoolean(fontKey.isBold());
+            out.writeInt(fontKey.getFontSize());
+            out.writeInt(baseSize);
+            out.writeInt(spread);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeFloat(ascent);
+            out.writeFloat(descent);
+            out.writeInt(advances.length);
+            for (short glyphId : glyphIds)
+                out.writeShort(glyphId);
+            for (int rect : rects)
+                out.writeInt(rect);
+            for (float offset : offsets)
+                out.writeFloat(offset);
+            for (float advance : advances)
+                out.writeFloat(advance);
+            out.write(alpha);
+        }
+    }
+
+    /**
+     * Загрузить атлас из файла
+     *
+     * @param path путь к файлу
+     * @return атлас глифов
+     * @throws IOException ошибка чтения файла или файл другой версии
+     */
+    @NotNull
+    public static GlyphAtlas load(@NotNull Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != FILE_VERSION)
+                throw new IOException("unsupported glyph atlas file version: " + path);
+            FontKey fontKey = new FontKey(in.readUTF(), in.readBoolean(), in.readInt());
+            int baseSize = in.readInt();
+            int spread = in.readInt();
+            int width = in.readInt();
+            int height = in.readInt();
+            float ascent = in.readFloat();
+            float descent = in.readFloat();
+            int glyphCnt = in.readInt();
+            short[] glyphIds = new short[CHAR_LIMIT];
+            for (int i = 0; i < glyphIds.length; i++)
+                glyphIds[i] = in.readShort();
+            int[] rects = new int[glyphCnt * 4];
+            for (int i = 0; i < rects.length; i++)
+                rects[i] = in.readInt();
+            float[] offsets = new float[glyphCnt * 2];
+            for (int i = 0; i < offsets.length; i++)
+                offsets[i] = in.readFloat();
+            float[] advances = new float[glyphCnt];
+            for (int i = 0; i < advances.length; i++)
+                advances[i] = in.readFloat();
+            byte[] alpha = new byte[width * height];
+            in.readFully(alpha);
+            return new GlyphAtlas(
+                    fontKey, baseSize, spread, width, height, alpha, glyphIds, rects, offsets, advances, ascent, descent
+            );
+        }
+    }
+
+    /**
+     * Получить границы глифа в пикселях. Для очень крупных глифов AWT не строит
+     * растровые границы, тогда они берутся по контуру глифа
+     *
+     * @param glyphVector глиф
+     * @param frc         контекст отрисовки шрифта
+     * @return границы глифа относительно пера на базовой линии
+     */
+    @NotNull
+    private static Rectangle getPixelBounds(@NotNull GlyphVector glyphVector, @NotNull FontRenderContext frc) {
+        Rectangle bounds = glyphVector.getPixelBounds(frc, 0, 0);
+        return bounds.isEmpty() ? glyphVector.getOutline().getBounds() : bounds;
+    }
+
+    /**
+     * Проверить, что глиф помещается в атлас наибольшего размера
+     *
+     * @param fontKey ключ шрифта
+     * @param c       символ
+     * @param w       ширина глифа в атласе
+     * @param h       высота глифа в атласе
+     */
+    private static void checkGlyphSize(@NotNull FontKey fontKey, char c, int w, int h) {
+        if (w + 2 * PADDING > MAX_SIZE || h + 2 * PADDING > MAX_SIZE)
+            throw new IllegalArgumentException(
+                    "glyph '" + c + "' of " + fontKey + " is " + w + "x" + h + " px, atlas size is limited to " + MAX_SIZE
+            );
+    }
+
+    /**
+     * Получить ширину атласа: степень двойки, близкую к стороне квадрата,
+     * площадь которого равна суммарной площади глифов, но не меньше ширины самого широкого глифа
+     *
+     * @param rects прямоугольники глифов, ширина и высота должны быть заданы
+     * @return ширина атласа, степень двойки
+     */
+    private static int getAtlasWidth(@NotNull int[] rects) {
+        long area = 0;
+        int maxWidth = 0;
+        for (int i = 0; i < rects.length / 4; i++) {
+            int w = rects[4 * i + 2];
+            int h = rects[4 * i + 3];
+            area += (long) (w + PADDING) * (h + PADDING);
+            maxWidth = Math.max(maxWidth, w + 2 * PADDING);
+        }
+        int side = Math.max((int) Math.ceil(Math.sqrt(area)), maxWidth);
+        return Math.min(ceilPowerOfTwo(side), MAX_SIZE);
+    }
+
+    /**
+     * Получить наименьшую степень двойки, не меньшую числа
+     *
+     * @param value положительное число
+     * @return степень двойки
+     */
+    private static int ceilPowerOfTwo(int value) {
+        return Integer.highestOneBit(Math.max(value, 1) * 2 - 1);
+    }
+
+    /**
+     * Разместить глифы в атласе полками: глифы идут слева направо,
+     * пока помещаются в строку атласа, затем начинается новая полка
+     *
+     * @param fontKey ключ шрифта
+     * @param rects   прямоугольники глифов, ширина и высота должны быть заданы,
+     *                координаты записываются методом
+     * @param width   ширина атласа, не меньше ширины самого широкого глифа с отступами
+     * @return высота атласа, степень двойки
+     */
+    private static int pack(@NotNull FontKey fontKey, @NotNull int[] rects, int width) {
+        int shelfX = PADDING;
+        int shelfY = PADDING;
+        int shelfHeight = 0;
+        for (int i = 0; i < rects.length / 4; i++) {
+            int w = rects[4 * i + 2];
+            int h = rects[4 * i + 3];
+            if (shelfX + w + PADDING > width) {
+                shelfX = PADDING;
+                shelfY += shelfHeight + PADDING;
+                shelfHeight = 0;
+            }
+            rects[4 * i] = shelfX;
+            rects[4 * i + 1] = shelfY;
+            shelfX += w + PADDING;
+            shelfHeight = Math.max(shelfHeight, h);
+        }
+        int height = shelfY + shelfHeight + PADDING;
+        if (height > MAX_SIZE)
+            throw new IllegalArgumentException(
+                    "glyphs of " + fontKey + " need " + width + "x" + height + " px, atlas size is limited to " + MAX_SIZE
+            );
+        return ceilPowerOfTwo(height);
+    }
+
+    /**
+     * Получить номера глифов по символам
+     *
+     * @param chars символы атласа
+     * @return номера глифов по символам, -1 для символов, которых нет в атласе
+     */
+    @NotNull
+    private static short[] getGlyphIds(@NotNull char[] chars) {
+        short[] glyphIds = new short[CHAR_LIMIT];
+        Arrays.fill(glyphIds, (short) -1);
+        for (int i = 0; i < chars.length; i++)
+            glyphIds[chars[i]] = (short) i;
+        return glyphIds;
+    }
+
+    /**
+     * Построить поле расстояний глифа
+     *
+     * @param glyphVector глиф в увеличенном масштабе
+     * @param originX     X координата левой границы поля относительно пера в увеличенном масштабе
+     * @param originY     Y координата верхней границы поля относительно базовой линии в увеличенном масштабе
+     * @param w           ширина поля в пикселях атласа
+     * @param h           высота поля в пикселях атласа
+     * @param padding     ширина поля расстояний в увеличенном масштабе
+     * @return значения поля построчно, начиная с верхней строки
+     */
+    @NotNull
+    private static byte[] getDistanceField(
+            @NotNull GlyphVector glyphVector, int originX, int originY, int w, int h, int padding
+    ) {
+        byte[] field = new byte[w * h];
+        if (w == 0 || h == 0)
+            return field;
+        int maskWidth = w * SDF_UPSCALE;
+        int maskHeight = h * SDF_UPSCALE;
+        BufferedImage image = new BufferedImage(maskWidth, maskHeight, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.drawGlyphVector(glyphVector, -originX, -originY);
+        graphics.dispose();
+        byte[] mask = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+
+        // квадраты расстояний до ближайшего пикселя глифа и до ближайшего пикселя фона
+        double[] toInside = new double[mask.length];
+        double[] toOutside = new double[mask.length];
+        for (int i = 0; i < mask.length; i++) {
+            boolean inside = (mask[i] & 0xFF) > 127;
+            toInside[i] = inside ? 0 : EDT_INF;
+            toOutside[i] = inside ? EDT_INF : 0;
+        }
+        distanceTransform(toInside, maskWidth, maskHeight);
+        distanceTransform(toOutside, maskWidth, maskHeight);
+
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int i = (y * SDF_UPSCALE + SDF_UPSCALE / 2) * maskWidth + x * SDF_UPSCALE + SDF_UPSCALE / 2;
+                // расстояние со знаком от центра пикселя до контура: снаружи положительное
+                double distance = toOutside[i] > 0 ? 0.5 - Math.sqrt(toOutside[i]) : Math.sqrt(toInside[i]) - 0.5;
+                double value = Math.min(Math.max(0.5 - distance / (2.0 * padding), 0), 1);
+                field[y * w + x] = (byte) Math.round(value * 255);
+            }
+        }
+        return field;
+    }
+
+    /**
+     * Точное преобразование расстояний (Felzenszwalb, Huttenlocher): на входе 0 в пикселях
+     * множества и {@link #EDT_INF} в остальных, на выходе квадрат расстояния до ближайшего
+     * пикселя множества
+     *
+     * @param grid   значения построчно
+     * @param width  ширина
+     * @param height высота
+     */
+    private static void distanceTransform(@NotNull double[] grid, int width, int height) {
+        int n = Math.max(width, height);
+        double[] f = new double[n];
+        double[] d = new double[n];
+        int[] v = new int[n];
+        double[] z = new double[n + 1];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++)
+                f[y] = grid[y * width + x];
+            distanceTransform(f, height, d, v, z);
+            for (int y = 0; y < height; y++)
+                grid[y * width + x] = d[y];
+        }
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(grid, y * width, f, 0, width);
+            distanceTransform(f, width, d, v, z);
+            System.arraycopy(d, 0, grid, y * width, width);
+        }
+    }
+
+    /**
+     * Одномерное преобразование расстояний: нижняя огибающая парабол
+     *
+     * @param f входные значения
+     * @param n кол-во значений
+     * @param d выходные значения
+     * @param v рабочий массив вершин парабол
+     * @param z рабочий массив границ парабол
+     */
+    private static void distanceTransform(
+            @NotNull double[] f, int n, @NotNull double[] d, @NotNull int[] v, @NotNull double[] z
+    ) {
+        int k = 0;
+        v[0] = 0;
+        z[0] = -EDT_INF;
+        z[1] = EDT_INF;
+        for (int q = 1; q < n; q++) {
+            double s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            while (s <= z[k]) {
+                k--;
+                s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            }
+            k++;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = EDT_INF;
+        }
+        k = 0;
+        for (int q = 0; q < n; q++) {
+            while (z[k + 1] < q)
+                k++;
+            d[q] = (double) (q - v[k]) * (q - v[k]) + f[v[k]];
+        }
+    }
+
+    /**
+     * Получить символы, которые будут помещены в атлас: печатные символы латиницы,
+     * дополнения Latin-1 и кириллицы, которые есть в шрифте
+     *
+     * @param font шрифт
+     * @return символы атласа
+     */
+    @NotNull
+    static char[] getAtlasChars(@NotNull Font font) {
+        char[] chars = new char[CHAR_LIMIT];
+        int cnt = 0;
+        for (char c = 0x20; c < CHAR_LIMIT; c++) {
+            boolean printable = c < 0x7F || (c >= 0xA0 && c < 0x100) || c >= 0x400;
+            if (printable && (font.canDisplay(c) || c == MISSING_CHAR))
+                chars[cnt++] = c;
+        }
+        return Arrays.copyOf(chars, cnt);
+    }
+
+    /**
+     * Получить номер глифа символа
+     *
+     * @param c символ
+     * @return номер глифа, если символа нет в атласе, то номер глифа символа-заменителя
+     */
+    public int getGlyphId(char c) {
+        int id = c < CHAR_LIMIT ? glyphIds[c] : -1;
+        return id >= 0 ? id : glyphIds[MISSING_CHAR];
+    }
+
+    /**
+     * Получить ширину строки в пикселях при размере шрифта, с которым растеризован атлас
+     *
+     * @param text строка
+     * @return ширина строки
+     */
+    public float getAdvance(@NotNull CharSequence text) {
+        float advance = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int id = getGlyphId(text.charAt(i));
+            if (id >= 0)
+                advance += advances[id];
+        }
+        return advance;
+    }
+
+    /**
+     * Получить X координату левой границы глифа в атласе
+     *
+     * @param glyphId номер глифа
+     * @return X координата левой границы глифа в атласе
+     */
+    public int getGlyphX(int glyphId) {
+        return rects[4 * glyphId];
+    }
+
+    /**
+     * Получить Y координату верхней границы глифа в атласе
+     *
+     * @param glyphId номер глифа
+     * @return Y координата верхней границы глифа в атласе
+     */
+    public int getGlyphY(int glyphId) {
+        return rects[4 * glyphId + 1];
+    }
+
+    /**
+     * Получить ширину глифа в атласе
+     *
+     * @param glyphId номер глифа
+     * @return ширина глифа в атласе
+     */
+    public int getGlyphWidth(int glyphId) {
+        return rects[4 * glyphId + 2];
+    }
+
+    /**
+     * Получить высоту глифа в атласе
+     *
+     * @param glyphId номер глифа
+     * @return высота глифа в атласе
+     */
+    public int getGlyphHeight(int glyphId) {
+        return rects[4 * glyphId + 3];
+    }
+
+    /**
+     * Получить смещение левой границы глифа относительно пера
+     *
+     * @param glyphId номер глифа
+     * @return смещение левой границы глифа относительно пера
+     */
+    public float getGlyphOffsetX(int glyphId) {
+        return offsets[2 * glyphId];
+    }
+
+    /**
+     * Получить смещение верхней границы глифа относительно базовой линии, ось направлена вниз
+     *
+     * @param glyphId номер глифа
+     * @return смещение верхней границы глифа относительно базовой линии
+     */
+    public float getGlyphOffsetY(int glyphId) {
+        return offsets[2 * glyphId + 1];
+    }
+
+    /**
+     * Получить продвижение пера после глифа
+     *
+     * @param glyphId номер глифа
+     * @return продвижение пера после глифа
+     */
+    public float getGlyphAdvance(int glyphId) {
+        return advances[glyphId];
+    }
+
+    /**
+     * Получить ключ шрифта
+     *
+     * @return ключ шрифта
+     */
+    @NotNull
+    public FontKey getFontKey() {
+        return fontKey;
+    }
+
+    /**
+     * Получить размер шрифта, с которым растеризованы глифы
+     *
+     * @return размер шрифта, с которым растеризованы глифы
+     */
+    public int getBaseSize() {
+        return baseSize;
+    }
+
+    /**
+     * Получить флаг, является ли атлас полем расстояний со знаком
+     *
+     * @return флаг, является ли атлас полем расстояний со знаком
+     */
+    public boolean isSdf() {
+        return spread > 0;
+    }
+
+    /**
+     * Получить ширину поля расстояний в пикселях
+     *
+     * @return ширина поля расстояний в пикселях, 0 - обычный атлас без поля расстояний
+     */
+    public int getSpread() {
+        return spread;
+    }
+
+    /**
+     * Получить ширину атласа
+     *
+     * @return ширина атласа
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Получить высоту атласа
+     *
+     * @return высота атласа
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Получить значения альфа-канала атласа построчно, начиная с верхней строки
+     *
+     * @return значения альфа-канала атласа
+     */
+    @NotNull
+    public byte[] getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Получить подъём шрифта над базовой линией
+     *
+     * @return подъём шрифта над базовой линией
+     */
+    public float getAscent() {
+        return ascent;
+    }
+
+    /**
+     * Получить спуск шрифта под базовую линию
+     *
+     * @return спуск шрифта под базовую линию
+     */
+    public float getDescent() {
+        return descent;
+    }
+
+    /**
+     * Получить кол-во глифов в атласе
+     *
+     * @return кол-во глифов в атласе
+     */
+    public int getGlyphCnt() {
+        return advances.length;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "GlyphAtlas{fontKey, spread, width, height, getGlyphCnt()}"
+     */
+    @Override
+    public String toString() {
+        return "GlyphAtlas{" + fontKey + ", " + spread + ", " + width + ", " + height + ", " + getGlyphCnt() + '}';
+    }
+}
@@ -40,13 +40,19 @@ public class SpiralCoordinateSystem {
 
         consumeSpiral(quadCnt, (Vector2i pos) -> {
             int id = getSpiralNumber(quadCnt, pos);
-            gl2.glColor3d(colors.get(id).x, colors.get(id).y, colors.get(id).z);
+            Vector3d color = colors.get(id);
+            GLAlgorithms.setColor(gl2, (float) color.x, (float) color.y, (float) color.z, 1);
+            GLAlgorithms.renderFilledQuad(gl2, renderCS.getCoords(pos, spiralCS), quadSize);
+        });
+        // подписи рисуются поверх квадратов, в том числе квадратов, накопленных в пакете геометрии
+        GLAlgorithms.flushBatch(gl2);
+        consumeSpiral(quadCnt, (Vector2i pos) -> {
+            int id = getSpiralNumber(quadCnt, pos);
             Vector2d quadPos = renderCS.getCoords(pos, spiralCS);
-            GLAlgorithms.renderFilledQuad(gl2, quadPos, quadSize);
-            textController.drawText(
+            textController.drawCenteredText(
                     captions.get(id),
                     Vector2d.sum(
-                            quadPos, Vector2d.mul(quadSize, 0.4)
+                            quadPos, Vector2d.mul(quadSize, 0.5)
                     )
             );
         });
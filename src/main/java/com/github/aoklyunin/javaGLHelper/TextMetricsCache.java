@@ -0,0 +1,267 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Rectangle2D;
+import java.util.*;
+import java.util.List;
+
+/**
+ * Общий кэш размеров и разбиений строк. Для каждого шрифта хранится
+ * ограниченный кэш, из которого первыми вытесняются давно не использованные строки,
+ * поэтому повторное измерение строки стоит одного поиска в хэш-таблице
+ * вместо обращения к метрикам шрифта AWT
+ */
+public class TextMetricsCache {
+    /**
+     * Ключ разбиения строки
+     */
+    private static class LayoutKey {
+        /**
+         * строка
+         */
+        @NotNull
+        private final String text;
+        /**
+         * максимальная ширина строки в пикселях
+         */
+        private final int maxWidth;
+
+        /**
+         * Конструктор ключа разбиения строки
+         *
+         * @param text     строка
+         * @param maxWidth максимальная ширина строки в пикселях
+         */
+        private LayoutKey(@NotNull String text, int maxWidth) {
+            this.text = text;
+            this.maxWidth = maxWidth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            LayoutKey layoutKey = (LayoutKey) o;
+
+            if (maxWidth != layoutKey.maxWidth) return false;
+            return text.equals(layoutKey.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * text.hashCode() + maxWidth;
+        }
+    }
+
+    /**
+     * Ограниченный кэш, вытесняющий давно не использованные записи
+     *
+     * @param <K> тип ключа
+     * @param <V> тип значения
+     */
+    private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+        /**
+         * Конструктор ограниченного кэша
+         */
+        private LruMap() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /**
+     * Кэш одного шрифта
+     */
+    private static class FontCache {
+        /**
+         * шрифт AWT
+         */
+        @NotNull
+        private final Font font;
+        /**
+         * границы строк в пикселях: x, y(вниз от базовой линии), ширина, высота
+         */
+        @NotNull
+        private final LruMap<String, float[]> bounds = new LruMap<>();
+        /**
+         * разбиения строк
+         */
+        @NotNull
+        private final LruMap<LayoutKey, List<String>> layouts = new LruMap<>();
+
+        /**
+         * Конструктор кэша одного шрифта
+         *
+         * @param font шрифт AWT
+         */
+        private FontCache(@NotNull Font font) {
+            this.font = font;
+        }
+    }
+
+    /**
+     * контекст отрисовки, совпадающий с контекстом рисовальщика текста по умолчанию
+     */
+    @NotNull
+    private static final FontRenderContext FONT_RENDER_CONTEXT = new FontRenderContext(null, false, false);
+    /**
+     * кэши по ключам шрифтов
+     */
+    @NotNull
+    private static final Map<FontKey, FontCache> caches = new HashMap<>();
+    /**
+     * максимальное кол-во записей каждого вида в кэше одного шрифта
+     */
+    private static int capacity = 1024;
+    /**
+     * кол-во попаданий в кэш
+     */
+    private static long hitCnt;
+    /**
+     * кол-во промахов кэша
+     */
+    private static long missCnt;
+
+    /**
+     * Получить границы строки в пикселях. Возвращаемый массив принадлежит кэшу и не должен изменяться
+     *
+     * @param fontKey ключ шрифта
+     * @param text    строка
+     * @return границы строки: x, y(вниз от базовой линии), ширина, высота
+     */
+    @NotNull
+    static synchronized float[] getBounds(@NotNull FontKey fontKey, @NotNull String text) {
+        FontCache cache = getFontCache(fontKey);
+        float[] bounds = cache.bounds.get(text);
+        if (bounds != null) {
+            hitCnt++;
+            return bounds;
+        }
+        missCnt++;
+        Rectangle2D rect = cache.font.getStringBounds(text, FONT_RENDER_CONTEXT);
+        bounds = new float[]{(float) rect.getX(), (float) rect.getY(), (float) rect.getWidth(), (float) rect.getHeight()};
+        cache.bounds.put(text, bounds);
+        return bounds;
+    }
+
+    /**
+     * Разбить строку на строки, ширина которых не превышает заданную.
+     * Строка разбивается по пробелам и переводам строки, слово шире
+     * максимальной ширины занимает отдельную строку целиком
+     *
+     * @param fontKey  ключ шрифта
+     * @param text     строка
+     * @param maxWidth максимальная ширина строки в пикселях
+     * @return неизменяемый список строк
+     */
+    @NotNull
+    static synchronized List<String> layout(@NotNull FontKey fontKey, @NotNull String text, int maxWidth) {
+        FontCache cache = getFontCache(fontKey);
+        LayoutKey key = new LayoutKey(text, maxWidth);
+        List<String> lines = cache.layouts.get(key);
+        if (lines != null) {
+            hitCnt++;
+            return lines;
+        }
+        missCnt++;
+        lines = new ArrayList<>();
+        for (String paragraph : text.split("\n", -1)) {
+            StringBuilder line = new StringBuilder();
+            for (String word : paragraph.split(" ")) {
+                if (word.isEmpty())
+                    continue;
+                if (line.length() > 0 &&
+                        cache.font.getStringBounds(line + " " + word, FONT_RENDER_CONTEXT).getWidth() > maxWidth) {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                }
+                if (line.length() > 0)
+                    line.append(' ');
+                line.append(word);
+            }
+            lines.add(line.toString());
+        }
+        lines = Collections.unmodifiableList(lines);
+        cache.layouts.put(key, lines);
+        return lines;
+    }
+
+    /**
+     * Получить кэш шрифта, создав его при необходимости
+     *
+     * @param fontKey ключ шрифта
+     * @return кэш шрифта
+     */
+    @NotNull
+    private static FontCache getFontCache(@NotNull FontKey fontKey) {
+        FontCache cache = caches.get(Objects.requireNonNull(fontKey));
+        if (cache == null) {
+            cache = new FontCache(fontKey.getFont());
+            caches.put(fontKey, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Задать максимальное кол-во записей каждого вида в кэше одного шрифта.
+     * Лишние записи вытесняются при следующих добавлениях
+     *
+     * @param capacity максимальное кол-во записей
+     */
+    public static synchronized void setCapacity(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        TextMetricsCache.capacity = capacity;
+    }
+
+    /**
+     * Получить максимальное кол-во записей каждого вида в кэше одного шрифта
+     *
+     * @return максимальное кол-во записей
+     */
+    public static synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Очистить кэш
+     */
+    public static synchronized void clear() {
+        caches.clear();
+    }
+
+    /**
+     * Получить кол-во попаданий в кэш
+     *
+     * @return кол-во попаданий в кэш
+     */
+    public static synchronized long getHitCnt() {
+        return hitCnt;
+    }
+
+    /**
+     * Получить кол-во промахов кэша
+     *
+     * @return кол-во промахов кэша
+     */
+    public static synchronized long getMissCnt() {
+        return missCnt;
+    }
+
+    /**
+     * Конструктор для запрета наследования
+     */
+    private TextMetricsCache() {
+        // Подавление создания конструктора по умолчанию
+        // для достижения неинстанцируемости
+        throw new AssertionError("constructor is disabled");
+    }
+}
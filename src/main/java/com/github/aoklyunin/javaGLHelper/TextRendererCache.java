@@ -0,0 +1,159 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.jogamp.opengl.util.awt.TextRenderer;
+import com.sun.istack.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Общий кэш рисовальщиков текста. Каждый рисовальщик хранит кэш глифов
+ * и собственную текстуру, поэтому на один шрифт создаётся ровно один рисовальщик,
+ * который используют все контроллеры текста с этим шрифтом.
+ * Рисовальщик освобождается, когда его отпустил последний контроллер.
+ * {@link #disposeAll()} освобождает все рисовальщики сразу и начинает новое поколение кэша:
+ * пользователи сравнивают поколение, в котором получили рисовальщик, с текущим
+ * и получают рисовальщик заново, а отпускать освобождённый рисовальщик не нужно
+ */
+public class TextRendererCache {
+    /**
+     * Запись кэша
+     */
+    private static class Entry {
+        /**
+         * рисовальщик текста
+         */
+        @NotNull
+        private final TextRenderer textRenderer;
+        /**
+         * кол-во пользователей рисовальщика
+         */
+        private int refCnt;
+
+        /**
+         * Конструктор записи кэша
+         *
+         * @param textRenderer рисовальщик текста
+         */
+        private Entry(@NotNull TextRenderer textRenderer) {
+            this.textRenderer = textRenderer;
+        }
+    }
+
+    /**
+     * записи кэша по ключам шрифтов
+     */
+    @NotNull
+    private static final Map<FontKey, Entry> entries = new HashMap<>();
+    /**
+     * поколение кэша, увеличивается при освобождении всех рисовальщиков
+     */
+    private static volatile int generation;
+    /**
+     * кол-во попаданий в кэш
+     */
+    private static long hitCnt;
+    /**
+     * кол-во промахов кэша
+     */
+    private static long missCnt;
+
+    /**
+     * Получить рисовальщик текста для шрифта. Каждый вызов должен быть
+     * парным вызову {@link #release(FontKey, TextRenderer)}
+     *
+     * @param fontKey ключ шрифта
+     * @return рисовальщик текста
+     */
+    @NotNull
+    public static synchronized TextRenderer acquire(@NotNull FontKey fontKey) {
+        Entry entry = entries.get(Objects.requireNonNull(fontKey));
+        if (entry == null) {
+            missCnt++;
+            entry = new Entry(new TextRenderer(fontKey.getFont()));
+            entries.put(fontKey, entry);
+        } else {
+            hitCnt++;
+        }
+        entry.refCnt++;
+        return entry.textRenderer;
+    }
+
+    /**
+     * Отпустить рисовальщик текста. Когда рисовальщик отпущен всеми
+     * пользователями, его текстура освобождается, поэтому метод должен
+     * вызываться из потока OpenGL. Если рисовальщик уже освобождён
+     * {@link #disposeAll()}, метод ничего не делает
+     *
+     * @param fontKey      ключ шрифта
+     * @param textRenderer рисовальщик текста, полученный {@link #acquire(FontKey)}
+     */
+    public static synchronized void release(@NotNull FontKey fontKey, @NotNull TextRenderer textRenderer) {
+        Entry entry = entries.get(Objects.requireNonNull(fontKey));
+        if (entry == null || entry.textRenderer != Objects.requireNonNull(textRenderer))
+            return;
+        entry.refCnt--;
+        if (entry.refCnt == 0) {
+            entries.remove(fontKey);
+            entry.textRenderer.dispose();
+        }
+    }
+
+    /**
+     * Освободить все рисовальщики текста, независимо от кол-ва пользователей,
+     * и начать новое поколение кэша
+     */
+    public static synchronized void disposeAll() {
+        for (Entry entry : entries.values())
+            entry.textRenderer.dispose();
+        entries.clear();
+        generation++;
+    }
+
+    /**
+     * Получить поколение кэша. Рисовальщик, полученный в прошлом поколении,
+     * освобождён и не должен использоваться
+     *
+     * @return поколение кэша
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Получить кол-во попаданий в кэш
+     *
+     * @return кол-во попаданий в кэш
+     */
+    public static synchronized long getHitCnt() {
+        return hitCnt;
+    }
+
+    /**
+     * Получить кол-во промахов кэша
+     *
+     * @return кол-во промахов кэша
+     */
+    public static synchronized long getMissCnt() {
+        return missCnt;
+    }
+
+    /**
+     * Получить кол-во живых текстур (по одной на каждый рисовальщик в кэше)
+     *
+     * @return кол-во живых текстур
+     */
+    public static synchronized int getLiveTextureCnt() {
+        return entries.size();
+    }
+
+    /**
+     * Конструктор для запрета наследования
+     */
+    private TextRendererCache() {
+        // Подавление создания конструктора по умолчанию
+        // для достижения неинстанцируемости
+        throw new AssertionError("constructor is disabled");
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.aoklyunin.javaGLHelper;
+
+/**
+ * Ограничитель частоты по схеме корзины маркеров. Корзина пополняется
+ * с постоянной скоростью до своей ёмкости, каждое событие забирает один маркер,
+ * поэтому за любой интервал t пропускается не больше capacity + rate * t событий
+ */
+public class TokenBucket {
+    /**
+     * скорость пополнения в маркерах в секунду
+     */
+    private final double rate;
+    /**
+     * ёмкость корзины в маркерах
+     */
+    private final double capacity;
+    /**
+     * кол-во маркеров в корзине
+     */
+    private double tokens;
+    /**
+     * момент последнего пополнения в наносекундах
+     */
+    private long lastTime;
+
+    /**
+     * Конструктор ограничителя частоты. Корзина создаётся полной
+     *
+     * @param rate     скорость пополнения в маркерах в секунду
+     * @param capacity ёмкость корзины в маркерах, наибольшая пачка событий
+     * @param now      текущий момент по монотонным часам в наносекундах
+     */
+    public TokenBucket(double rate, double capacity, long now) {
+        if (!(rate > 0))
+            throw new IllegalArgumentException("rate must be positive: " + rate);
+        if (!(capacity >= 1))
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        this.rate = rate;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastTime = now;
+    }
+
+    /**
+     * Попытаться забрать маркер. Метод можно вызывать из любого потока
+     *
+     * @param now текущий момент по монотонным часам в наносекундах
+     * @return флаг, пропущено ли событие
+     */
+    public synchronized boolean tryAcquire(long now) {
+        long elapsed = now - lastTime;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * rate / 1e9);
+            lastTime = now;
+        }
+        if (tokens < 1)
+            return false;
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Получить скорость пополнения в маркерах в секунду
+     *
+     * @return скорость пополнения
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Получить ёмкость корзины в маркерах
+     *
+     * @return ёмкость корзины
+     */
+    public double getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "TokenBucket{rate, capacity, tokens}"
+     */
+    @Override
+    public synchronized String toString() {
+        return "TokenBucket{" + rate + ", " + capacity + ", " + tokens + '}';
+    }
+}
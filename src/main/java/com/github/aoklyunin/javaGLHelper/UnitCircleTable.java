@@ -0,0 +1,133 @@
+package com.github.aoklyunin.javaGLHelper;
+
+import com.sun.istack.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Таблица косинусов и синусов углов, по которым строятся круги и скругления.
+ * Значения вычисляются теми же выражениями, что и при построении фигуры без таблицы,
+ * поэтому вершины, построенные по таблице, совпадают с прежними до бита,
+ * а построение фигуры сводится к умножениям и сложениям
+ */
+public class UnitCircleTable {
+    /**
+     * таблица скругления: углы {@code i / 20 * PI} для i от 0 до 9,
+     * по которым строятся углы скруглённых квадратов
+     */
+    public static final UnitCircleTable ROUNDED_CORNER = createRoundedCorner();
+    /**
+     * таблицы кругов по кол-ву сегментов
+     */
+    @NotNull
+    private static final Map<Integer, UnitCircleTable> CIRCLES = new ConcurrentHashMap<>();
+
+    /**
+     * косинусы углов
+     */
+    @NotNull
+    private final double[] cos;
+    /**
+     * синусы углов
+     */
+    @NotNull
+    private final double[] sin;
+
+    /**
+     * Конструктор таблицы
+     *
+     * @param size кол-во углов
+     */
+    private UnitCircleTable(int size) {
+        this.cos = new double[size];
+        this.sin = new double[size];
+    }
+
+    /**
+     * Получить таблицу круга: углы {@code 2 * PI * i / segmentCnt} для i от 0 до segmentCnt - 1.
+     * Таблица строится при первом запросе и дальше берётся из кэша
+     *
+     * @param segmentCnt кол-во сегментов
+     * @return таблица круга
+     */
+    @NotNull
+    public static UnitCircleTable of(int segmentCnt) {
+        if (segmentCnt < 0)
+            throw new IllegalArgumentException("segment count must be non-negative: " + segmentCnt);
+        UnitCircleTable table = CIRCLES.get(segmentCnt);
+        return table != null ? table : CIRCLES.computeIfAbsent(segmentCnt, UnitCircleTable::createCircle);
+    }
+
+    /**
+     * Построить таблицу круга
+     *
+     * @param segmentCnt кол-во сегментов
+     * @return таблица круга
+     */
+    @NotNull
+    private static UnitCircleTable createCircle(int segmentCnt) {
+        UnitCircleTable table = new UnitCircleTable(segmentCnt);
+        for (int i = 0; i < segmentCnt; i++) {
+            double theta = 2 * Math.PI * i / segmentCnt;
+            table.cos[i] = Math.cos(theta);
+            table.sin[i] = Math.sin(theta);
+        }
+        return table;
+    }
+
+    /**
+     * Построить таблицу скругления
+     *
+     * @return таблица скругления
+     */
+    @NotNull
+    private static UnitCircleTable createRoundedCorner() {
+        UnitCircleTable table = new UnitCircleTable(10);
+        for (int i = 0; i < 10; i++) {
+            double angle = (double) i / 20 * Math.PI;
+            table.cos[i] = Math.cos(angle);
+            table.sin[i] = Math.sin(angle);
+        }
+        return table;
+    }
+
+    /**
+     * Получить кол-во углов
+     *
+     * @return кол-во углов
+     */
+    public int getSize() {
+        return cos.length;
+    }
+
+    /**
+     * Получить косинус угла
+     *
+     * @param i номер угла
+     * @return косинус угла
+     */
+    public double cos(int i) {
+        return cos[i];
+    }
+
+    /**
+     * Получить синус угла
+     *
+     * @param i номер угла
+     * @return синус угла
+     */
+    public double sin(int i) {
+        return sin[i];
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "UnitCircleTable{getSize()}"
+     */
+    @Override
+    public String toString() {
+        return "UnitCircleTable{" + getSize() + '}';
+    }
+}
@@ -400,7 +400,7 @@ public class SimpleScroller {
      */
     public void renderScroller(GL2 gl2) {
         // рисуем скроллер для перемещения по истории мира
-        gl2.glColor3f(1, 1, 1);
+        GLAlgorithms.setColor(gl2, 1, 1, 1, 1);
         switch (params.getType()) {
             case HORIZONTAL:
                 renderHorizontalScroller(gl2);
@@ -420,7 +420,7 @@ public class SimpleScroller {
      */
     public void renderScroller(GL2 gl2, long pos) {
         // рисуем скроллер для перемещения по истории мира
-        gl2.glColor3f(1, 1, 1);
+        GLAlgorithms.setColor(gl2, 1, 1, 1, 1);
         switch (params.getType()) {
             case HORIZONTAL:
                 renderHorizontalScroller(gl2, pos);
@@ -439,9 +439,12 @@ public class SimpleScroller {
      * @param pos положение скроллера
      */
     protected void renderHorizontalScroller(GL2 gl2, long pos) {
+        // отрезки рисуются напрямую со своей толщиной линии,
+        // поэтому сначала выводятся примитивы, уже добавленные в пакет
+        GLAlgorithms.flushBatch(gl2);
         gl2.glLineWidth(5);
         long size = getSize();
-        gl2.glColor3d(0.9, 0.9, 0.9);
+        GLAlgorithms.setColor(gl2, 0.9f, 0.9f, 0.9f, 1);
         // ширина одного шага скроллера
         double kScrollerPos = params.getRenderSize() / size;
         // получаем кол-во шагов скроллера между большими палочками
@@ -508,10 +511,13 @@ public class SimpleScroller {
      * @param pos положение скроллера
      */
     protected void renderVerticalScroller(GL2 gl2, long pos) {
+        // отрезки рисуются напрямую со своей толщиной линии,
+        // поэтому сначала выводятся примитивы, уже добавленные в пакет
+        GLAlgorithms.flushBatch(gl2);
         gl2.glLineWidth(5);
 
         long size = getSize();
-        gl2.glColor3d(0.9, 0.9, 0.9);
+        GLAlgorithms.setColor(gl2, 0.9f, 0.9f, 0.9f, 1);
         // ширина одного шага скроллера
         double kScrollerPos = params.getRenderSize() / size;
         // получаем кол-во шагов скроллера между большими палочками
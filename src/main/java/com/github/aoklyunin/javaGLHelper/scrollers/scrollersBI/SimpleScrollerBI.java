@@ -389,7 +389,7 @@ public class SimpleScrollerBI {
      */
     public void renderScroller(GL2 gl2, BigInteger pos) {
         // рисуем скроллер для перемещения по истории мира
-        gl2.glColor3f(1, 1, 1);
+        GLAlgorithms.setColor(gl2, 1, 1, 1, 1);
         switch (params.getType()) {
             case HORIZONTAL:
                 renderHorizontalScroller(gl2, pos);
@@ -409,7 +409,10 @@ public class SimpleScrollerBI {
      */
     protected void renderHorizontalScroller(GL2 gl2, BigInteger pos) {
         BigInteger size = getSize();
-        gl2.glColor3d(0.9, 0.9, 0.9);
+        GLAlgorithms.setColor(gl2, 0.9f, 0.9f, 0.9f, 1);
+        // отрезки рисуются напрямую,
+        // поэтому сначала выводятся примитивы, уже добавленные в пакет
+        GLAlgorithms.flushBatch(gl2);
         // ширина одного шага скроллера
         double kScrollerPos = params.getRenderSize() / size.doubleValue();
         // получаем кол-во шагов скроллера между большими палочками
@@ -466,7 +469,10 @@ public class SimpleScrollerBI {
      */
     protected void renderVerticalScroller(GL2 gl2, BigInteger pos) {
         BigInteger size = getSize();
-        gl2.glColor3d(0.9, 0.9, 0.9);
+        GLAlgorithms.setColor(gl2, 0.9f, 0.9f, 0.9f, 1);
+        // отрезки рисуются напрямую,
+        // поэтому сначала выводятся примитивы, уже добавленные в пакет
+        GLAlgorithms.flushBatch(gl2);
         // ширина одного шага скроллера
         double kScrollerPos = params.getRenderSize() / size.doubleValue();
         // получаем кол-во шагов скроллера между большими палочками
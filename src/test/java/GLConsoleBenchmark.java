@@ -0,0 +1,43 @@
+import com.github.aoklyunin.javaGLHelper.CaptionParams;
+import com.github.aoklyunin.javaGLHelper.GLConsole;
+import com.github.aoklyunin.javaGLHelper.GLTextController;
+
+/**
+ * Замер стоимости добавления строки в консоль при разном максимальном количестве линий.
+ * При кольцевом буфере время на строку не должно зависеть от размера консоли
+ */
+public class GLConsoleBenchmark {
+    /**
+     * кол-во добавляемых строк в одном замере
+     */
+    private static final int LINE_CNT = 2_000_000;
+
+    /**
+     * Замерить время добавления строки
+     *
+     * @param maxLineCnt максимальное количество линий консоли
+     * @param lines      добавляемые строки
+     * @return время добавления одной строки в наносекундах
+     */
+    private static double measure(int maxLineCnt, String[] lines) {
+        GLConsole console = new GLConsole(
+                new GLTextController(800, 600, CaptionParams.getDefaultCaptionParams()), 100, maxLineCnt
+        );
+        long start = System.nanoTime();
+        for (int i = 0; i < LINE_CNT; i++)
+            console.addLine(lines[i & (lines.length - 1)]);
+        return (double) (System.nanoTime() - start) / LINE_CNT;
+    }
+
+    public static void main(String[] args) {
+        String[] lines = new String[1024];
+        for (int i = 0; i < lines.length; i++)
+            lines[i] = "line " + i;
+        int[] maxLineCnts = {10, 100, 1_000, 10_000, 100_000};
+        // прогрев JIT
+        for (int maxLineCnt : maxLineCnts)
+            measure(maxLineCnt, lines);
+        for (int maxLineCnt : maxLineCnts)
+            System.out.printf("maxLineCnt = %6d: %.2f ns/line%n", maxLineCnt, measure(maxLineCnt, lines));
+    }
+}
@@ -0,0 +1,75 @@
+import com.github.aoklyunin.javaGLHelper.CaptionParams;
+import com.github.aoklyunin.javaGLHelper.ConsoleEntry;
+import com.github.aoklyunin.javaGLHelper.GLConsole;
+import com.github.aoklyunin.javaGLHelper.GLTextController;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Замер памяти и времени на строку при частом выводе в консоль готовых строк
+ * и отложенных записей. В каждом кадре в консоль пишется много строк, а выводятся
+ * только последние из них, поэтому отложенные записи строят текст лишь видимых строк
+ */
+public class GLConsoleEntryBenchmark {
+    /**
+     * кол-во строк в одном кадре
+     */
+    private static final int LINES_PER_FRAME = 1_000;
+    /**
+     * кол-во кадров в одном замере
+     */
+    private static final int FRAME_CNT = 2_000;
+    /**
+     * максимальное количество линий консоли
+     */
+    private static final int MAX_LINE_CNT = 20;
+
+    /**
+     * Получить кол-во байт, выделенных текущим потоком
+     *
+     * @return кол-во выделенных байт
+     */
+    private static long getAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Замерить вывод строк и напечатать память и время на строку
+     *
+     * @param name название замера
+     * @param lazy флаг, писать ли отложенные записи вместо готовых строк
+     */
+    private static void measure(String name, boolean lazy) {
+        GLConsole console = new GLConsole(
+                new GLTextController(800, 600, CaptionParams.getDefaultCaptionParams()), 100, MAX_LINE_CNT
+        );
+        long visibleLength = 0;
+        long startBytes = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int frame = 0; frame < FRAME_CNT; frame++) {
+            for (int i = 0; i < LINES_PER_FRAME; i++) {
+                double value = frame * 0.5 + i;
+                if (lazy)
+                    console.addLine(ConsoleEntry.of("frame {} line {} value {}").arg(frame).arg(i).arg(value));
+                else
+                    console.addLine("frame " + frame + " line " + i + " value " + value);
+            }
+            // вывод кадра строит текст только видимых строк
+            for (int i = 0; i < MAX_LINE_CNT; i++)
+                visibleLength += console.getLine(i).length();
+        }
+        long lineCnt = (long) FRAME_CNT * LINES_PER_FRAME;
+        double ns = (double) (System.nanoTime() - start) / lineCnt;
+        double bytes = (double) (getAllocatedBytes() - startBytes) / lineCnt;
+        System.out.printf("%-6s: %6.1f B/line, %6.1f ns/line (%d)%n", name, bytes, ns, visibleLength);
+    }
+
+    public static void main(String[] args) {
+        // прогрев JIT
+        measure("eager", false);
+        measure("lazy", true);
+        measure("eager", false);
+        measure("lazy", true);
+    }
+}
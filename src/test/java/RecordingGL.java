@@ -0,0 +1,337 @@
+import com.jogamp.opengl.GL2;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.jogamp.opengl.GL.GL_LINES;
+import static com.jogamp.opengl.GL.GL_LINE_LOOP;
+import static com.jogamp.opengl.GL.GL_LINE_STRIP;
+import static com.jogamp.opengl.GL2.GL_COLOR_ARRAY;
+import static com.jogamp.opengl.GL2.GL_CURRENT_BIT;
+import static com.jogamp.opengl.GL2.GL_VERTEX_ARRAY;
+
+/**
+ * Переменная OpenGL для тестов: вместо рисования записывает выведенные вершины
+ * в виде строк "тип толщина_линии x y z r g b a", толщина записывается только для отрезков. Поддерживает непосредственный режим,
+ * массивы вершин в памяти клиента и вершинные буферы, остальные вызовы игнорируются.
+ * Как и драйверы, после вывода массива цветов оставляет текущим цвет последней вершины
+ */
+public class RecordingGL {
+    /**
+     * выведенные вершины
+     */
+    private final List<String> vertices = new ArrayList<>();
+    /**
+     * кол-во вызовов glDrawArrays
+     */
+    private int drawCallCnt;
+    /**
+     * текущий цвет
+     */
+    private final float[] color = {1, 1, 1, 1};
+    /**
+     * стек сохранённых цветов glPushAttrib, null - цвет не сохранялся
+     */
+    private final Deque<float[]> attribStack = new ArrayDeque<>();
+    /**
+     * текущая толщина линии
+     */
+    private float lineWidth = 1;
+    /**
+     * тип примитивов непосредственного режима, -1 - вне glBegin/glEnd
+     */
+    private int immediateMode = -1;
+    /**
+     * включённые массивы клиента
+     */
+    private final Set<Integer> clientStates = new HashSet<>();
+    /**
+     * вершинные буферы по id
+     */
+    private final Map<Integer, ByteBuffer> buffers = new HashMap<>();
+    /**
+     * id привязанного вершинного буфера
+     */
+    private int boundBuffer;
+    /**
+     * id последнего созданного вершинного буфера
+     */
+    private int lastBufferId;
+    /**
+     * массив координат вершин: буфер клиента или null, если координаты в вершинном буфере
+     */
+    private FloatBuffer vertexArray;
+    /**
+     * массив цветов вершин: буфер клиента или null, если цвета в вершинном буфере
+     */
+    private FloatBuffer colorArray;
+    /**
+     * id вершинного буфера массива координат
+     */
+    private int vertexBuffer;
+    /**
+     * смещение массива координат в вершинном буфере в байтах
+     */
+    private long vertexOffset;
+    /**
+     * id вершинного буфера массива цветов
+     */
+    private int colorBuffer;
+    /**
+     * смещение массива цветов в вершинном буфере в байтах
+     */
+    private long colorOffset;
+    /**
+     * флаг, доступны ли функции OpenGL по имени
+     */
+    private final boolean functionsAvailable;
+    /**
+     * переменная OpenGL
+     */
+    private final GL2 gl2;
+
+    /**
+     * Конструктор записывающей переменной OpenGL без дополнительных функций
+     */
+    public RecordingGL() {
+        this(false);
+    }
+
+    /**
+     * Конструктор записывающей переменной OpenGL
+     *
+     * @param functionsAvailable флаг, доступны ли функции OpenGL по имени
+     */
+    public RecordingGL(boolean functionsAvailable) {
+        this.functionsAvailable = functionsAvailable;
+        this.gl2 = (GL2) Proxy.newProxyInstance(
+                GL2.class.getClassLoader(), new Class<?>[]{GL2.class}, (proxy, method, args) -> invoke(method, args)
+        );
+    }
+
+    /**
+     * Получить переменную OpenGL
+     *
+     * @return переменная OpenGL
+     */
+    public GL2 getGL2() {
+        return gl2;
+    }
+
+    /**
+     * Получить выведенные вершины
+     *
+     * @return выведенные вершины
+     */
+    public List<String> getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Получить кол-во вызовов glDrawArrays
+     *
+     * @return кол-во вызовов
+     */
+    public int getDrawCallCnt() {
+        return drawCallCnt;
+    }
+
+    /**
+     * Обработать вызов метода OpenGL
+     *
+     * @param method метод
+     * @param args   аргументы
+     * @return результат вызова
+     */
+    private Object invoke(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "glColor3f":
+            case "glColor3d":
+            case "glColor4f":
+            case "glColor4d":
+                for (int i = 0; i < 4; i++)
+                    color[i] = i < args.length ? ((Number) args[i]).floatValue() : 1;
+                return null;
+            case "glPushAttrib":
+                attribStack.push(((Integer) args[0] & GL_CURRENT_BIT) != 0 ? color.clone() : new float[0]);
+                return null;
+            case "glPopAttrib":
+                float[] saved = attribStack.pop();
+                System.arraycopy(saved, 0, color, 0, saved.length);
+                return null;
+            case "glLineWidth":
+                lineWidth = (Float) args[0];
+                return null;
+            case "glBegin":
+                immediateMode = (Integer) args[0];
+                return null;
+            case "glEnd":
+                immediateMode = -1;
+                return null;
+            case "glVertex2d":
+            case "glVertex2f":
+            case "glVertex3d":
+                record(
+                        immediateMode, ((Number) args[0]).floatValue(), ((Number) args[1]).floatValue(),
+                        args.length > 2 ? ((Number) args[2]).floatValue() : 0, color
+                );
+                return null;
+            case "glEnableClientState":
+                clientStates.add((Integer) args[0]);
+                return null;
+            case "glDisableClientState":
+                clientStates.remove(args[0]);
+                return null;
+            case "glGenBuffers":
+                int[] ids = (int[]) args[1];
+                for (int i = 0; i < (Integer) args[0]; i++)
+                    ids[(Integer) args[2] + i] = ++lastBufferId;
+                return null;
+            case "glBindBuffer":
+                boundBuffer = (Integer) args[1];
+                return null;
+            case "glBufferData":
+                ByteBuffer data = ByteBuffer.allocate((int) (long) (Long) args[1]).order(ByteOrder.nativeOrder());
+                buffers.put(boundBuffer, data);
+                return null;
+            case "glBufferSubData":
+                FloatBuffer src = ((FloatBuffer) args[3]).duplicate();
+                ByteBuffer dst = buffers.get(boundBuffer).duplicate().order(ByteOrder.nativeOrder());
+                dst.position((int) (long) (Long) args[1]);
+                dst.asFloatBuffer().put(src);
+                return null;
+            case "glVertexPointer":
+                if (args[3] instanceof Buffer) {
+                    assertClientMemory();
+                    vertexArray = (FloatBuffer) args[3];
+                } else {
+                    vertexArray = null;
+                    vertexBuffer = boundBuffer;
+                    vertexOffset = (Long) args[3];
+                }
+                return null;
+            case "glColorPointer":
+                if (args[3] instanceof Buffer) {
+                    assertClientMemory();
+                    colorArray = (FloatBuffer) args[3];
+                } else {
+                    colorArray = null;
+                    colorBuffer = boundBuffer;
+                    colorOffset = (Long) args[3];
+                }
+                return null;
+            case "glDrawArrays":
+                drawArrays((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+                return null;
+            case "isFunctionAvailable":
+            case "isExtensionAvailable":
+                return functionsAvailable;
+            default:
+                return defaultValue(method.getReturnType());
+        }
+    }
+
+    /**
+     * Вывести вершины из массивов
+     *
+     * @param mode  тип примитивов
+     * @param first номер первой вершины
+     * @param count кол-во вершин
+     */
+    private void drawArrays(int mode, int first, int count) {
+        if (!clientStates.contains(GL_VERTEX_ARRAY))
+            throw new AssertionError("vertex array is disabled");
+        drawCallCnt++;
+        FloatBuffer positions = vertexArray != null ? vertexArray : floats(vertexBuffer, vertexOffset);
+        boolean colored = clientStates.contains(GL_COLOR_ARRAY);
+        FloatBuffer colors = !colored ? null : colorArray != null ? colorArray : floats(colorBuffer, colorOffset);
+        float[] vertexColor = new float[4];
+        for (int i = first; i < first + count; i++) {
+            for (int j = 0; j < 4; j++)
+                vertexColor[j] = colored ? colors.get(colors.position() + 4 * i + j) : color[j];
+            int p = positions.position() + 3 * i;
+            record(mode, positions.get(p), positions.get(p + 1), positions.get(p + 2), vertexColor);
+        }
+        if (colored && count > 0)
+            System.arraycopy(vertexColor, 0, color, 0, 4);
+    }
+
+    /**
+     * Проверить, что массив в памяти клиента указывается без привязанного вершинного буфера
+     */
+    private void assertClientMemory() {
+        if (boundBuffer != 0)
+            throw new AssertionError("client array with bound buffer " + boundBuffer);
+    }
+
+    /**
+     * Получить массив из вершинного буфера
+     *
+     * @param bufferId id вершинного буфера
+     * @param offset   смещение в байтах
+     * @return массив
+     */
+    private FloatBuffer floats(int bufferId, long offset) {
+        ByteBuffer buffer = buffers.get(bufferId).duplicate().order(ByteOrder.nativeOrder());
+        buffer.position((int) offset);
+        return buffer.slice().order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * Записать вершину
+     *
+     * @param mode  тип примитивов
+     * @param x     X координата
+     * @param y     Y координата
+     * @param z     Z координата
+     * @param color цвет
+     */
+    private void record(int mode, float x, float y, float z, float[] color) {
+        vertices.add(
+                mode + " " + (isLineMode(mode) ? lineWidth : 0) + " " + x + " " + y + " " + z + " " +
+                        color[0] + " " + color[1] + " " + color[2] + " " + color[3]
+        );
+    }
+
+    /**
+     * Проверить, состоит ли тип примитивов из отрезков
+     *
+     * @param mode тип примитивов
+     * @return флаг, состоит ли тип примитивов из отрезков
+     */
+    private static boolean isLineMode(int mode) {
+        return mode == GL_LINES || mode == GL_LINE_STRIP || mode == GL_LINE_LOOP;
+    }
+
+    /**
+     * Получить значение по умолчанию для типа результата
+     *
+     * @param type тип результата
+     * @return значение по умолчанию
+     */
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class)
+            return false;
+        if (type == int.class)
+            return 0;
+        if (type == long.class)
+            return 0L;
+        if (type == float.class)
+            return 0f;
+        if (type == double.class)
+            return 0d;
+        return null;
+    }
+}
@@ -0,0 +1,177 @@
+import com.github.aoklyunin.javaGLHelper.BoundedLockFreeQueue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestBoundedLockFreeQueue {
+    /**
+     * кол-во производителей
+     */
+    private static final int PRODUCER_CNT = 4;
+    /**
+     * кол-во элементов от одного производителя
+     */
+    private static final int ELEMENT_CNT = 200000;
+
+    /**
+     * Извлечь все элементы очереди
+     *
+     * @param queue очередь
+     * @return элементы в порядке извлечения
+     */
+    private static List<Integer> pollAll(BoundedLockFreeQueue<Integer> queue) {
+        List<Integer> elements = new ArrayList<>();
+        Integer element;
+        while ((element = queue.poll()) != null)
+            elements.add(element);
+        return elements;
+    }
+
+    /**
+     * Добавлять элементы из нескольких потоков, одновременно извлекая их, и проверить,
+     * что каждый элемент получен не больше одного раза, элементы каждого производителя
+     * получены по порядку, а все неполученные элементы учтены как отброшенные
+     *
+     * @param overflowPolicy политика переполнения
+     * @throws InterruptedException прерывание ожидания потоков
+     */
+    private static void checkMultiProducer(BoundedLockFreeQueue.OverflowPolicy overflowPolicy)
+            throws InterruptedException {
+        BoundedLockFreeQueue<Integer> queue = new BoundedLockFreeQueue<>(256, overflowPolicy);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCER_CNT; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                    for (int i = 0; i < ELEMENT_CNT; i++)
+                        queue.offer(producer * ELEMENT_CNT + i);
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+
+        boolean[] received = new boolean[PRODUCER_CNT * ELEMENT_CNT];
+        int[] lastReceived = new int[PRODUCER_CNT];
+        Arrays.fill(lastReceived, -1);
+        long[] receivedCnt = new long[1];
+        Consumer<Integer> consumer = element -> {
+            assertFalse("duplicate " + element, received[element]);
+            received[element] = true;
+            int producer = element / ELEMENT_CNT;
+            assertTrue("reordered " + element, element % ELEMENT_CNT > lastReceived[producer]);
+            lastReceived[producer] = element % ELEMENT_CNT;
+            receivedCnt[0]++;
+        };
+        startLatch.countDown();
+        for (Thread thread : producers) {
+            while (thread.isAlive())
+                queue.drain(consumer);
+            thread.join();
+        }
+        queue.drain(consumer);
+
+        assertNull(error.get());
+        assertEquals(0, queue.size());
+        assertEquals((long) PRODUCER_CNT * ELEMENT_CNT, receivedCnt[0] + queue.getDroppedCnt());
+    }
+
+    @Test
+    public void testMultiProducerDropOldest() throws InterruptedException {
+        checkMultiProducer(BoundedLockFreeQueue.OverflowPolicy.DROP_OLDEST);
+    }
+
+    @Test
+    public void testMultiProducerDropNewest() throws InterruptedException {
+        checkMultiProducer(BoundedLockFreeQueue.OverflowPolicy.DROP_NEWEST);
+    }
+
+    @Test
+    public void testMultiProducerCountDropped() throws InterruptedException {
+        checkMultiProducer(BoundedLockFreeQueue.OverflowPolicy.COUNT_DROPPED);
+    }
+
+    @Test
+    public void testOverflowContents() {
+        for (BoundedLockFreeQueue.OverflowPolicy overflowPolicy : BoundedLockFreeQueue.OverflowPolicy.values()) {
+            BoundedLockFreeQueue<Integer> queue = new BoundedLockFreeQueue<>(4, overflowPolicy);
+            int acceptedCnt = 0;
+            for (int i = 1; i <= 6; i++)
+                if (queue.offer(i))
+                    acceptedCnt++;
+            assertEquals(4, queue.size());
+            assertEquals(2, queue.getDroppedCnt());
+            if (overflowPolicy == BoundedLockFreeQueue.OverflowPolicy.DROP_OLDEST) {
+                assertEquals(6, acceptedCnt);
+                assertEquals(List.of(3, 4, 5, 6), pollAll(queue));
+            } else {
+                assertEquals(4, acceptedCnt);
+                assertEquals(List.of(1, 2, 3, 4), pollAll(queue));
+            }
+        }
+    }
+
+    @Test
+    public void testCapacityIsRoundedUp() {
+        BoundedLockFreeQueue<Integer> queue = new BoundedLockFreeQueue<>(5, BoundedLockFreeQueue.OverflowPolicy.DROP_NEWEST);
+        assertEquals(8, queue.getCapacity());
+        for (int i = 0; i < 10; i++)
+            queue.offer(i);
+        assertEquals(8, queue.size());
+        assertEquals(2, queue.getDroppedCnt());
+    }
+
+    @Test
+    public void testDrainIsBoundedByCapacity() {
+        BoundedLockFreeQueue<Integer> queue = new BoundedLockFreeQueue<>(4, BoundedLockFreeQueue.OverflowPolicy.DROP_NEWEST);
+        for (int i = 0; i < 4; i++)
+            queue.offer(i);
+        // получатель возвращает каждый элемент в очередь, как непрерывно пишущий производитель
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, queue.drain(element -> {
+            drained.add(element);
+            queue.offer(element + 4);
+        }));
+        assertEquals(List.of(0, 1, 2, 3), drained);
+        assertEquals(List.of(4, 5, 6, 7), pollAll(queue));
+        assertEquals(0, queue.getDroppedCnt());
+    }
+
+    @Test
+    public void testSizeAcrossWraparound() {
+        BoundedLockFreeQueue<Integer> queue = new BoundedLockFreeQueue<>(4, BoundedLockFreeQueue.OverflowPolicy.DROP_OLDEST);
+        int next = 0;
+        int expected = 0;
+        int polledCnt = 0;
+        for (int round = 0; round < 100; round++) {
+            int offerCnt = round % 7;
+            for (int i = 0; i < offerCnt; i++)
+                queue.offer(next++);
+            expected = Math.min(4, expected + offerCnt);
+            assertEquals(expected, queue.size());
+            int pollCnt = round % 3;
+            for (int i = 0; i < pollCnt && expected > 0; i++) {
+                assertEquals(next - expected, (int) queue.poll());
+                expected--;
+                polledCnt++;
+            }
+            assertEquals(expected, queue.size());
+        }
+        assertEquals(next - polledCnt - expected, queue.getDroppedCnt());
+    }
+}
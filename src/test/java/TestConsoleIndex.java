@@ -0,0 +1,111 @@
+import com.github.aoklyunin.javaGLHelper.ConsoleFilter;
+import com.github.aoklyunin.javaGLHelper.ConsoleHistory;
+import com.github.aoklyunin.javaGLHelper.ConsoleIndex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestConsoleIndex {
+    /**
+     * кол-во строк истории
+     */
+    private static final int LINE_CNT = 100000;
+    /**
+     * ёмкость словаря
+     */
+    private static final int MAX_TOKEN_CNT = 5000;
+    /**
+     * наибольшая длина списка строк одного слова
+     */
+    private static final int MAX_POSTING_CNT = 1000;
+    /**
+     * папка файлов истории
+     */
+    private Path dir;
+    /**
+     * история строк
+     */
+    private ConsoleHistory history;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("history");
+        history = ConsoleHistory.open(dir.resolve("data"), dir.resolve("index"));
+        for (int i = 0; i < LINE_CNT; i++) {
+            if (i % 1000 == 0)
+                history.append("error: disk quota exceeded on volume" + i / 1000);
+            else
+                history.append("request " + Integer.toHexString(i * 7919) + " status ok");
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        history.close();
+        Files.deleteIfExists(dir.resolve("data"));
+        Files.deleteIfExists(dir.resolve("index"));
+        Files.delete(dir);
+    }
+
+    /**
+     * Проверить, что фильтр по индексу находит те же строки, что и просмотр всей истории
+     *
+     * @param index     индекс истории
+     * @param substring подстрока
+     * @return кол-во найденных строк
+     */
+    private int assertSameMatches(ConsoleIndex index, String substring) {
+        ConsoleFilter filter = ConsoleFilter.substring(substring);
+        filter.update(index);
+        int matchCnt = 0;
+        for (int i = 0; i < LINE_CNT; i++) {
+            if (history.getLine(i).contains(substring)) {
+                assertEquals(substring, i, filter.getMatch(matchCnt));
+                matchCnt++;
+            }
+        }
+        assertEquals(substring, matchCnt, filter.getMatchCnt());
+        return matchCnt;
+    }
+
+    @Test
+    public void testBoundedIndexMatchesFullScan() {
+        ConsoleIndex index = new ConsoleIndex(history, MAX_TOKEN_CNT, MAX_POSTING_CNT);
+        assertEquals(LINE_CNT, index.getIndexedLineCnt());
+        assertEquals(MAX_TOKEN_CNT, index.getTokenCnt());
+        assertTrue(index.getUnindexedLineCnt() > 0);
+
+        int errorCnt = LINE_CNT / 1000;
+        assertEquals(errorCnt, assertSameMatches(index, "quota"));
+        assertEquals(errorCnt, assertSameMatches(index, "error:"));
+        assertEquals(errorCnt, assertSameMatches(index, "rror"));
+        assertEquals(errorCnt, assertSameMatches(index, "on vol"));
+        assertEquals(1, assertSameMatches(index, "olume19"));
+        assertEquals(11, assertSameMatches(index, "on volume7"));
+        assertEquals(LINE_CNT - errorCnt, assertSameMatches(index, "status ok"));
+        // слова из начала истории попали в словарь, из конца - нет
+        assertEquals(1, assertSameMatches(index, " " + Integer.toHexString(7 * 7919) + " "));
+        assertEquals(1, assertSameMatches(index, " " + Integer.toHexString((LINE_CNT - 1) * 7919) + " "));
+        assertEquals(0, assertSameMatches(index, "absent"));
+    }
+
+    @Test
+    public void testIndexUpdatesIncrementally() {
+        ConsoleIndex index = new ConsoleIndex(history, MAX_TOKEN_CNT, MAX_POSTING_CNT);
+        ConsoleFilter filter = ConsoleFilter.substring("quota");
+        filter.update(index);
+        assertEquals(LINE_CNT / 1000, filter.getMatchCnt());
+        history.append("warning: quota almost exceeded");
+        index.add("warning: quota almost exceeded");
+        assertTrue(filter.update(index));
+        assertEquals(LINE_CNT / 1000 + 1, filter.getMatchCnt());
+        assertEquals(LINE_CNT, filter.getMatch(LINE_CNT / 1000));
+    }
+}
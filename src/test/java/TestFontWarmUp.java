@@ -0,0 +1,64 @@
+import com.github.aoklyunin.javaGLHelper.FontKey;
+import com.github.aoklyunin.javaGLHelper.FontWarmUp;
+import com.github.aoklyunin.javaGLHelper.GlyphAtlas;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestFontWarmUp {
+
+    @Test
+    public void testReport() {
+        FontKey regular = new FontKey("Arial", false, 20);
+        FontKey bold = new FontKey("Arial", true, 20);
+        FontWarmUp fontWarmUp = new FontWarmUp(Runnable::run);
+        fontWarmUp.start(regular);
+        fontWarmUp.start(bold);
+        fontWarmUp.start(regular);
+        assertTrue(fontWarmUp.isDone());
+
+        List<GlyphAtlas> atlases = new ArrayList<>();
+        assertEquals(2, fontWarmUp.drain(atlases::add));
+        assertEquals(0, fontWarmUp.drain(atlases::add));
+        assertEquals(List.of(regular, bold), new ArrayList<>(fontWarmUp.getTimings().keySet()));
+
+        String[] lines = fontWarmUp.getReport().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("font warm-up:", lines[0]);
+        assertTrue(lines[1], lines[1].matches(
+                "\\Q" + regular + "\\E: \\d+\\.\\d ms, " + atlases.get(0).getGlyphCnt() + " glyphs"
+        ));
+        assertTrue(lines[2], lines[2].startsWith(bold + ": "));
+    }
+
+    @Test
+    public void testReportInProgress() {
+        List<Runnable> tasks = new ArrayList<>();
+        FontKey fontKey = new FontKey("Arial", false, 21);
+        FontWarmUp fontWarmUp = new FontWarmUp(tasks::add);
+        fontWarmUp.start(fontKey);
+        assertEquals("font warm-up:\n" + fontKey + ": in progress", fontWarmUp.getReport());
+        assertEquals(0, fontWarmUp.getTimings().size());
+    }
+
+    @Test
+    public void testTimingExcludesQueueWait() throws InterruptedException {
+        FontKey fontKey = new FontKey("Arial", false, 22);
+        // первый прогрев загружает шрифт AWT, второй измеряет только растеризацию
+        new FontWarmUp(Runnable::run).start(fontKey);
+
+        List<Runnable> tasks = new ArrayList<>();
+        FontWarmUp fontWarmUp = new FontWarmUp(tasks::add);
+        fontWarmUp.start(fontKey);
+        long waitMs = 500;
+        Thread.sleep(waitMs);
+        tasks.forEach(Runnable::run);
+        Map<FontKey, Double> timings = fontWarmUp.getTimings();
+        assertTrue(timings.toString(), timings.get(fontKey) < waitMs);
+    }
+}
@@ -0,0 +1,285 @@
+import com.github.aoklyunin.javaGLHelper.GLAlgorithms;
+import jMath.aoklyunin.github.com.vector.Vector2d;
+import org.joml.Matrix2d;
+import org.junit.Test;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import static java.lang.Math.*;
+import static org.junit.Assert.assertEquals;
+
+public class TestGLAlgorithms {
+    /**
+     * кол-во случайных проверок
+     */
+    private static final int SAMPLE_CNT = 100000;
+    /**
+     * стрелки: X, Y координаты начала и X, Y координаты вектора направления,
+     * третья стрелка нулевой длины
+     */
+    private static final double[] ARROWS = {
+            0.1, 0.2, 0.3, 0.1,
+            -0.5, 0.25, 0, -0.4,
+            0.3, 0.3, 0, 0,
+            0.75, -0.5, -0.2, -0.2,
+    };
+    /**
+     * ширина линии стрелки
+     */
+    private static final double ARROW_LINE_WIDTH = 0.01;
+    /**
+     * размер конуса стрелки
+     */
+    private static final double ARROW_CONE_SIZE = 0.05;
+
+    /**
+     * Прежняя реализация пересечения линии и скруглённого квадрата
+     *
+     * @param posA первая точка, определяющая прямую
+     * @param posB вторая точка, определяющая прямую
+     * @param size размеры квадрата вдоль осей
+     * @param rad  радиус скругления
+     * @return точка пересечения линии и скруглённого квадрата
+     */
+    private static Vector2d getReferencePoint(Vector2d posA, Vector2d posB, Vector2d size, double rad) {
+        Vector2d delta = Vector2d.subtract(posB, posA);
+        double angle = atan2(delta.y, delta.x);
+        if (angle < 0)
+            angle += 2 * PI;
+        double[] reperAngles = new double[]{
+                atan2(size.y / 2 - rad, size.x / 2),
+                atan2(size.y / 2, size.x / 2 - rad),
+                atan2(size.y / 2, -size.x / 2 + rad),
+                atan2(size.y / 2 - rad, -size.x / 2),
+                2 * PI + atan2(-size.y / 2 + rad, -size.x / 2),
+                2 * PI + atan2(-size.y / 2, -size.x / 2 + rad),
+                2 * PI + atan2(-size.y / 2, size.x / 2 - rad),
+                2 * PI + atan2(-size.y / 2 + rad, size.x / 2),
+        };
+        Vector2d res = Vector2d.zeros();
+        if (angle < reperAngles[0] || angle > reperAngles[7]) {
+            res = getReferenceLineLine(delta, size.x / 2, -size.y / 2 + rad, size.x / 2, size.y / 2 - rad);
+        } else if (angle <= reperAngles[1]) {
+            res = getReferenceCircle(delta.x, delta.y, size.x / 2 - rad, size.y / 2 - rad, rad);
+        } else if (angle <= reperAngles[2]) {
+            res = getReferenceLineLine(delta, size.x / 2 - rad, size.y / 2, -size.x / 2 + rad, size.y / 2);
+        } else if (angle <= reperAngles[3]) {
+            res = getReferenceCircle(delta.x, delta.y, -size.x / 2 + rad, size.y / 2 - rad, rad);
+        } else if (angle <= reperAngles[4]) {
+            res = getReferenceLineLine(delta, -size.x / 2, size.y / 2 - rad, -size.x / 2, -size.y / 2 + rad);
+        } else if (angle <= reperAngles[5]) {
+            res = getReferenceCircle(delta.x, delta.y, -size.x / 2 + rad, -size.y / 2 + rad, rad);
+        } else if (angle <= reperAngles[6]) {
+            res = getReferenceLineLine(delta, size.x / 2 - rad, -size.y / 2, -size.x / 2 + rad, -size.y / 2);
+        } else if (angle <= reperAngles[7]) {
+            res = getReferenceCircle(delta.x, delta.y, size.x / 2 - rad, -size.y / 2 + rad, rad);
+        }
+        return Vector2d.sum(res, posA);
+    }
+
+    /**
+     * Прежняя реализация пересечения прямой, проходящей через начало координат, с другой прямой
+     *
+     * @param p2 вторая точка первой прямой
+     * @param x3 X координата первой точки второй прямой
+     * @param y3 Y координата первой точки второй прямой
+     * @param x4 X координата второй точки второй прямой
+     * @param y4 Y координата второй точки второй прямой
+     * @return точка пересечения двух прямых
+     */
+    private static Vector2d getReferenceLineLine(Vector2d p2, double x3, double y3, double x4, double y4) {
+        Vector2d p1 = Vector2d.zeros();
+        double div = new Matrix2d(
+                new Matrix2d(p1.x, 1, p2.x, 1).determinant(),
+                new Matrix2d(p1.y, 1, p2.y, 1).determinant(),
+                new Matrix2d(x3, 1, x4, 1).determinant(),
+                new Matrix2d(y3, 1, y4, 1).determinant()
+        ).determinant();
+        return new Vector2d(
+                new Matrix2d(
+                        new Matrix2d(p1.x, p1.y, p2.x, p2.y).determinant(),
+                        new Matrix2d(p1.x, 1, p2.x, 1).determinant(),
+                        new Matrix2d(x3, y3, x4, y4).determinant(),
+                        new Matrix2d(x3, 1, x4, 1).determinant()
+                ).determinant() / div,
+                new Matrix2d(
+                        new Matrix2d(p1.x, p1.y, p2.x, p2.y).determinant(),
+                        new Matrix2d(p1.y, 1, p2.y, 1).determinant(),
+                        new Matrix2d(x3, y3, x4, y4).determinant(),
+                        new Matrix2d(y3, 1, y4, 1).determinant()
+                ).determinant() / div
+        );
+    }
+
+    /**
+     * Прежняя реализация пересечения вектора с кругом
+     *
+     * @param x0 X координата вектора
+     * @param y0 Y координата вектора
+     * @param xR X координата цетра круга
+     * @param yR Y координата центра круга
+     * @param R  радиус круга
+     * @return точка пересечения веткора с кругом
+     */
+    private static Vector2d getReferenceCircle(double x0, double y0, double xR, double yR, double R) {
+        double a = x0 * x0 + y0 * y0;
+        double b = -2 * xR * x0 - 2 * yR * y0;
+        double c = xR * xR + yR * yR - R * R;
+        double D = b * b - 4 * a * c;
+        double t1 = (-b - sqrt(D)) / (2 * a);
+        double t2 = (-b + sqrt(D)) / (2 * a);
+        double x;
+        if (x0 > 0)
+            x = max(x0 * t1, x0 * t2);
+        else
+            x = min(x0 * t1, x0 * t2);
+        return new Vector2d(x, y0 / x0 * x);
+    }
+
+    /**
+     * Проверить, что значения совпадают до бита
+     *
+     * @param message  сообщение об ошибке
+     * @param expected ожидаемое значение
+     * @param actual   полученное значение
+     */
+    private static void assertBitEquals(String message, double expected, double actual) {
+        assertEquals(message, Double.doubleToLongBits(expected), Double.doubleToLongBits(actual));
+    }
+
+    /**
+     * Проверить точку пересечения с прежней реализацией
+     *
+     * @param posA первая точка, определяющая прямую
+     * @param posB вторая точка, определяющая прямую
+     * @param size размеры квадрата вдоль осей
+     * @param rad  радиус скругления
+     */
+    private static void check(Vector2d posA, Vector2d posB, Vector2d size, double rad) {
+        Vector2d expected = getReferencePoint(posA, posB, size, rad);
+        Vector2d actual = GLAlgorithms.getRoundedQuadCrossLinePoint(posA, posB, size, rad);
+        String message = posA + " " + posB + " " + size + " " + rad;
+        assertBitEquals(message, expected.x, actual.x);
+        assertBitEquals(message, expected.y, actual.y);
+    }
+
+    @Test
+    public void testRoundedQuadCrossLinePointRandom() {
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLE_CNT; i++) {
+            Vector2d size = new Vector2d(0.01 + random.nextDouble() * 0.2, 0.01 + random.nextDouble() * 0.2);
+            double rad = random.nextDouble() * min(size.x, size.y) / 2;
+            check(
+                    new Vector2d(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1),
+                    new Vector2d(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1),
+                    size, rad
+            );
+        }
+    }
+
+    @Test
+    public void testRoundedQuadCrossLinePointEdgeCases() {
+        Vector2d size = new Vector2d(0.2, 0.1);
+        Vector2d posA = new Vector2d(0.3, -0.4);
+        double[][] deltas = {
+                {1, 0}, {-1, 0}, {0, 1}, {0, -1}, {0.2, 0.1}, {-0.2, 0.1}, {-0.2, -0.1}, {0.2, -0.1},
+                {0, 0}, {1e-300, 1e-300}, {-0.0, -1}, {1, -0.0}, {Double.NaN, 1}
+        };
+        for (double[] delta : deltas) {
+            Vector2d posB = new Vector2d(posA.x + delta[0], posA.y + delta[1]);
+            check(posA, posB, size, 0);
+            check(posA, posB, size, 0.02);
+            check(posA, posB, size, 0.05);
+        }
+    }
+
+    @Test
+    public void testRoundedQuadCrossLinePoints() {
+        Random random = new Random(7);
+        int nodeCnt = 50;
+        int edgeCnt = 200;
+        double rad = 0.01;
+        double[] positions = new double[2 * nodeCnt];
+        double[] sizes = new double[2 * nodeCnt];
+        for (int i = 0; i < nodeCnt; i++) {
+            positions[2 * i] = random.nextDouble() * 2 - 1;
+            positions[2 * i + 1] = random.nextDouble() * 2 - 1;
+            sizes[2 * i] = 0.05 + random.nextDouble() * 0.1;
+            sizes[2 * i + 1] = 0.05 + random.nextDouble() * 0.1;
+        }
+        int[] edges = new int[2 * edgeCnt];
+        for (int i = 0; i < edges.length; i++)
+            edges[i] = random.nextInt(nodeCnt);
+        double[] out = new double[4 * edgeCnt];
+        GLAlgorithms.getRoundedQuadCrossLinePoints(positions, sizes, rad, edges, edgeCnt, out);
+        for (int i = 0; i < edgeCnt; i++) {
+            int from = edges[2 * i];
+            int to = edges[2 * i + 1];
+            Vector2d posFrom = new Vector2d(positions[2 * from], positions[2 * from + 1]);
+            Vector2d posTo = new Vector2d(positions[2 * to], positions[2 * to + 1]);
+            Vector2d start = getReferencePoint(
+                    posFrom, posTo, new Vector2d(sizes[2 * from], sizes[2 * from + 1]), rad
+            );
+            Vector2d end = getReferencePoint(
+                    posTo, posFrom, new Vector2d(sizes[2 * to], sizes[2 * to + 1]), rad
+            );
+            assertBitEquals("edge " + i, start.x, out[4 * i]);
+            assertBitEquals("edge " + i, start.y, out[4 * i + 1]);
+            assertBitEquals("edge " + i, end.x, out[4 * i + 2]);
+            assertBitEquals("edge " + i, end.y, out[4 * i + 3]);
+        }
+    }
+
+    /**
+     * Нарисовать стрелки по одной
+     *
+     * @param arrows стрелки
+     * @return записывающая переменная OpenGL
+     */
+    private static RecordingGL renderArrowsOneByOne(double[] arrows) {
+        RecordingGL recorder = new RecordingGL();
+        for (int i = 0; i < arrows.length; i += 4)
+            GLAlgorithms.renderArrow(
+                    recorder.getGL2(), ARROW_LINE_WIDTH, ARROW_CONE_SIZE,
+                    new Vector2d(arrows[i], arrows[i + 1]), new Vector2d(arrows[i + 2], arrows[i + 3])
+            );
+        // стрелка нулевой длины пропускается
+        assertEquals((arrows.length / 4 - 1) * 9, recorder.getVertices().size());
+        return recorder;
+    }
+
+    @Test
+    public void testRenderArrowsDoubleBuffer() {
+        RecordingGL expected = renderArrowsOneByOne(ARROWS);
+
+        // буфер с ненулевым положением и неполной стрелкой в конце
+        DoubleBuffer arrows = DoubleBuffer.allocate(ARROWS.length + 3);
+        arrows.put(1).put(ARROWS).put(2).put(3).position(1);
+        RecordingGL actual = new RecordingGL();
+        GLAlgorithms.renderArrows(actual.getGL2(), ARROW_LINE_WIDTH, ARROW_CONE_SIZE, arrows);
+        assertEquals(1, actual.getDrawCallCnt());
+        assertEquals(1, arrows.position());
+        assertEquals(expected.getVertices(), actual.getVertices());
+    }
+
+    @Test
+    public void testRenderArrowsFloatBuffer() {
+        double[] floatArrows = new double[ARROWS.length];
+        FloatBuffer arrows = FloatBuffer.allocate(ARROWS.length + 1);
+        arrows.put(1).position(1);
+        for (int i = 0; i < ARROWS.length; i++) {
+            arrows.put((float) ARROWS[i]);
+            floatArrows[i] = (float) ARROWS[i];
+        }
+        arrows.position(1);
+        RecordingGL expected = renderArrowsOneByOne(floatArrows);
+
+        RecordingGL actual = new RecordingGL();
+        GLAlgorithms.renderArrows(actual.getGL2(), ARROW_LINE_WIDTH, ARROW_CONE_SIZE, arrows);
+        assertEquals(1, actual.getDrawCallCnt());
+        assertEquals(1, arrows.position());
+        assertEquals(expected.getVertices(), actual.getVertices());
+    }
+}
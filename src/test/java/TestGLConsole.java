@@ -0,0 +1,299 @@
+import com.github.aoklyunin.javaGLHelper.BoundedLockFreeQueue;
+import com.github.aoklyunin.javaGLHelper.CaptionParams;
+import com.github.aoklyunin.javaGLHelper.ConsoleChannel;
+import com.github.aoklyunin.javaGLHelper.ConsoleEntry;
+import com.github.aoklyunin.javaGLHelper.GLConsole;
+import com.github.aoklyunin.javaGLHelper.GLTextBatch;
+import com.github.aoklyunin.javaGLHelper.GLTextController;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestGLConsole {
+    /**
+     * миллисекунда в наносекундах
+     */
+    private static final long MS = 1_000_000L;
+    /**
+     * текущее время ручных часов консоли в наносекундах
+     */
+    private long time;
+    /**
+     * пакет текста, в который консоль выводит строки
+     */
+    private GLTextBatch textBatch;
+    /**
+     * контроллер текста консоли
+     */
+    private GLTextController textController;
+    /**
+     * консоль с временем жизни строки в одну секунду
+     */
+    private GLConsole console;
+
+    @Before
+    public void setUp() {
+        textBatch = new GLTextBatch();
+        textController = new GLTextController(800, 600, CaptionParams.getDefaultCaptionParams());
+        textController.setTextBatch(textBatch);
+        console = createConsole();
+    }
+
+    @After
+    public void tearDown() {
+        textBatch.dispose();
+        textController.dispose();
+    }
+
+    /**
+     * Создать консоль с ручными часами и временем жизни строки в одну секунду
+     *
+     * @return консоль
+     */
+    private GLConsole createConsole() {
+        return new GLConsole(
+                textController, Duration.ofSeconds(1), 8,
+                64, BoundedLockFreeQueue.OverflowPolicy.DROP_OLDEST, () -> time
+        );
+    }
+
+    /**
+     * Нарисовать консоль
+     *
+     * @return кол-во выведенных строк
+     */
+    private int render() {
+        textBatch.clear();
+        console.render();
+        return textBatch.size();
+    }
+
+    /**
+     * Нарисовать консоль
+     *
+     * @return выведенные строки в порядке вывода
+     */
+    private List<String> renderTexts() {
+        render();
+        return textBatch.getTexts();
+    }
+
+    @Test
+    public void testLinesExpireByClock() {
+        assertEquals(0, render());
+        console.addLine("a");
+        time = 500 * MS;
+        console.addLine("b");
+        assertEquals(2, render());
+        time = 999 * MS;
+        assertEquals(2, render());
+        time = 1000 * MS;
+        assertEquals(1, render());
+        time = 1499 * MS;
+        assertEquals(1, render());
+        time = 1500 * MS;
+        assertEquals(0, render());
+        console.post("c");
+        assertEquals(1, render());
+        assertEquals("c", console.getLine(0));
+    }
+
+    @Test
+    public void testExpiryAcrossClockOverflow() {
+        time = Long.MAX_VALUE - 500 * MS;
+        console = createConsole();
+        console.addLine("a");
+        time += 700 * MS;
+        assertEquals(1, render());
+        time += 400 * MS;
+        assertEquals(0, render());
+    }
+
+    @Test
+    public void testMixedRetentionChannels() {
+        ConsoleChannel longChannel = new ConsoleChannel(
+                "long", CaptionParams.getDefaultCaptionParams().getColor(), Duration.ofSeconds(5)
+        );
+        ConsoleChannel shortChannel = new ConsoleChannel(
+                "short", CaptionParams.getDefaultCaptionParams().getColor(), Duration.ofMillis(200)
+        );
+        console.addLine("a");
+        console.addLine(longChannel, "L1");
+        console.addLine(shortChannel, "s1");
+        time = 100 * MS;
+        console.addLine("b");
+        console.addLine(shortChannel, "s2");
+        console.addLine(longChannel, "L2");
+
+        // строки сгруппированы по каналам в порядке их появления, внутри канала - от новой к старой
+        time = 150 * MS;
+        assertEquals(List.of("b", "a", "L2", "L1", "s2", "s1"), renderTexts());
+        time = 250 * MS;
+        assertEquals(List.of("b", "a", "L2", "L1", "s2"), renderTexts());
+        // погасшая вторая по новизне строка не скрывает более старые строки других каналов
+        time = 350 * MS;
+        assertEquals(List.of("b", "a", "L2", "L1"), renderTexts());
+        time = 1050 * MS;
+        assertEquals(List.of("b", "L2", "L1"), renderTexts());
+        time = 1200 * MS;
+        assertEquals(List.of("L2", "L1"), renderTexts());
+        time = 5100 * MS;
+        assertEquals(List.of(), renderTexts());
+    }
+
+    @Test
+    public void testCoalescing() {
+        console.setCoalesceDepth(2);
+        console.addLine("a");
+        console.addLine("b");
+        console.addLine("a");
+        assertEquals("a ×2", console.getLine(0));
+        assertEquals("b", console.getLine(1));
+        console.addLine("c");
+        console.addLine("d");
+        console.addLine("a");
+        // "a ×2" глубже двух самых новых строк
+        assertEquals("a", console.getLine(0));
+        assertEquals("d", console.getLine(1));
+        assertEquals("a ×2", console.getLine(3));
+
+        // склеенная строка снова живёт полное время
+        time = 900 * MS;
+        console.addLine("a");
+        assertEquals("a ×2", console.getLine(0));
+        time = 1800 * MS;
+        assertEquals(1, render());
+        // погасшие строки не склеиваются
+        time = 1900 * MS;
+        console.addLine("a");
+        assertEquals("a", console.getLine(0));
+        assertEquals("a ×2", console.getLine(1));
+    }
+
+    @Test
+    public void testCoalescingKeepsChannels() {
+        console.setCoalesceDepth(1);
+        console.addLine("a");
+        console.addLine(new ConsoleChannel(
+                "warn", CaptionParams.getDefaultCaptionParams().getColor(), Duration.ofSeconds(1)
+        ), "a");
+        assertEquals("a", console.getLine(0));
+        assertEquals("a", console.getLine(1));
+    }
+
+    @Test
+    public void testRateLimit() {
+        console.setRateLimit(2, 2);
+        assertTrue(console.addLine("src", "1"));
+        assertTrue(console.addLine("src", "2"));
+        assertFalse(console.addLine("src", "3"));
+        assertTrue(console.addLine("other", "4"));
+        assertEquals(1, console.getRateLimitedLineCnt());
+
+        time = 499 * MS;
+        assertFalse(console.addLine("src", "5"));
+        time = 500 * MS;
+        assertTrue(console.addLine("src", "6"));
+        assertFalse(console.addLine("src", "7"));
+        // пачка не копится больше заданной
+        time = 10_000 * MS;
+        assertTrue(console.addLine("src", "8"));
+        assertTrue(console.addLine("src", "9"));
+        assertFalse(console.addLine("src", "10"));
+        assertEquals(4, console.getRateLimitedLineCnt());
+        assertEquals("9", console.getLine(0));
+
+        console.setRateLimit(0, 0);
+        for (int i = 0; i < 10; i++)
+            assertTrue(console.addLine("src", "line"));
+    }
+
+    @Test
+    public void testRateLimitersAreBounded() {
+        console.setRateLimit(1, 1);
+        assertTrue(console.addLine("src", "1"));
+        for (int i = 0; i < GLConsole.MAX_RATE_LIMITER_CNT * 2; i++)
+            assertTrue(console.addLine("src" + i, "line"));
+        assertEquals(GLConsole.MAX_RATE_LIMITER_CNT, console.getRateLimiterCnt());
+        // ограничитель давно молчавшего источника вытеснен, источник снова получает полную пачку
+        assertTrue(console.addLine("src", "2"));
+        assertFalse(console.addLine("src", "3"));
+        // ограничитель недавнего источника сохранён
+        assertFalse(console.addLine("src" + (GLConsole.MAX_RATE_LIMITER_CNT * 2 - 1), "line"));
+    }
+
+    @Test
+    public void testCopyStartsDetached() {
+        int[] drainCnt = new int[1];
+        console.addSource((glConsole, visibleCnt) -> drainCnt[0]++);
+        console.setCoalesceDepth(1);
+        console.addLine("a");
+        console.post("b");
+
+        GLConsole copy = new GLConsole(console);
+        assertEquals("a", copy.getLine(0));
+        assertEquals(1, copy.getCoalesceDepth());
+        assertEquals(0, copy.getQueueDepth());
+        assertNull(copy.getHistory());
+        assertNull(copy.getIndex());
+        assertNull(copy.getFilter());
+        textBatch.clear();
+        copy.render();
+        assertEquals(1, textBatch.size());
+        assertEquals(0, drainCnt[0]);
+
+        copy.addLine("a");
+        assertEquals("a ×2", copy.getLine(0));
+        assertEquals("a", console.getLine(0));
+        assertEquals(2, render());
+        assertEquals(1, drainCnt[0]);
+        assertEquals("b", console.getLine(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPostedEntryIsFrozen() {
+        ConsoleEntry entry = ConsoleEntry.of("fps {} frame {}").arg(60);
+        console.post(entry);
+        assertTrue(entry.isFrozen());
+        entry.arg(1);
+    }
+
+    @Test
+    public void testEqualityKeepsEntriesUnformatted() {
+        GLConsole other = new GLConsole(console);
+        ConsoleEntry entry = ConsoleEntry.of("fps {}").arg(60);
+        ConsoleEntry otherEntry = ConsoleEntry.of("fps {}").arg(60);
+        console.addLine(entry);
+        other.addLine(otherEntry);
+        assertEquals(console, other);
+        assertEquals(console.hashCode(), other.hashCode());
+        assertFalse(entry.isFormatted());
+        assertFalse(otherEntry.isFormatted());
+
+        console.addLine(ConsoleEntry.of("fps {}").arg(30));
+        other.addLine(ConsoleEntry.of("fps {}").arg(60));
+        assertNotEquals(console, other);
+    }
+
+    @Test
+    public void testDisableTextureCachingWithoutContext() {
+        console.setTextureCaching(true);
+        console.setTextureCaching(false);
+        assertFalse(console.isTextureCaching());
+        console.addLine("a");
+        assertEquals(1, render());
+        console.setTextureCaching(true);
+        assertTrue(console.isTextureCaching());
+        console.setTextureCaching(false);
+        console.dispose();
+    }
+}
@@ -0,0 +1,113 @@
+import com.github.aoklyunin.javaGLHelper.BoundedLockFreeQueue;
+import com.github.aoklyunin.javaGLHelper.CaptionParams;
+import com.github.aoklyunin.javaGLHelper.ConsoleHistory;
+import com.github.aoklyunin.javaGLHelper.ConsoleSource;
+import com.github.aoklyunin.javaGLHelper.GLConsole;
+import com.github.aoklyunin.javaGLHelper.GLConsoleHandler;
+import com.github.aoklyunin.javaGLHelper.GLTextController;
+import com.sun.istack.NotNull;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestGLConsoleHandler {
+    /**
+     * Создать консоль с ручными часами
+     *
+     * @param time текущее время в наносекундах
+     * @return консоль
+     */
+    private static GLConsole createConsole(long[] time) {
+        return new GLConsole(
+                new GLTextController(800, 600, CaptionParams.getDefaultCaptionParams()), Duration.ofSeconds(1), 8,
+                64, BoundedLockFreeQueue.OverflowPolicy.DROP_OLDEST, () -> time[0]
+        );
+    }
+
+    @Test
+    public void testSourceIsInferredInPublishingThread() {
+        GLConsoleHandler handler = new GLConsoleHandler(16);
+        handler.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                return record.getSourceMethodName() + ": " + record.getMessage();
+            }
+        });
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+        logger.info("text");
+
+        GLConsole console = createConsole(new long[1]);
+        handler.drainTo(console, console.getMaxLineCnt());
+        assertEquals("testSourceIsInferredInPublishingThread: text", console.getLine(0));
+    }
+
+    @Test
+    public void testDrainIsBoundedByQueueCapacity() throws IOException {
+        GLConsoleHandler handler = new GLConsoleHandler(4);
+        // каждая выведенная запись порождает новую, как непрерывно пишущий поток
+        handler.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                handler.publish(new LogRecord(Level.INFO, "next"));
+                return record.getMessage();
+            }
+        });
+        Path dir = Files.createTempDirectory("history");
+        try (ConsoleHistory history = ConsoleHistory.open(dir.resolve("data"), dir.resolve("index"))) {
+            GLConsole console = createConsole(new long[1]);
+            console.setHistory(history);
+            for (int i = 0; i < 4; i++)
+                handler.publish(new LogRecord(Level.INFO, "line"));
+            handler.drainTo(console, console.getMaxLineCnt());
+            assertEquals(4, history.getLineCnt());
+            assertFalse(handler.isEmpty());
+        } finally {
+            Files.deleteIfExists(dir.resolve("data"));
+            Files.deleteIfExists(dir.resolve("index"));
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testIsEmpty() {
+        GLConsoleHandler handler = new GLConsoleHandler(16);
+        assertTrue(handler.isEmpty());
+        handler.publish(new LogRecord(Level.INFO, "line"));
+        assertFalse(handler.isEmpty());
+        handler.drainTo(createConsole(new long[1]), 8);
+        assertTrue(handler.isEmpty());
+    }
+
+    @Test
+    public void testIdleConsoleSkipsEmptySources() {
+        int[] drainCnt = new int[1];
+        ConsoleSource source = new ConsoleSource() {
+            @Override
+            public void drainTo(@NotNull GLConsole console, int visibleCnt) {
+                drainCnt[0]++;
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return true;
+            }
+        };
+        GLConsole console = createConsole(new long[1]);
+        console.addSource(source);
+        console.render();
+        assertEquals(0, drainCnt[0]);
+    }
+}
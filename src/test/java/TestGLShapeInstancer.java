@@ -0,0 +1,156 @@
+import com.github.aoklyunin.javaGLHelper.GLAlgorithms;
+import com.github.aoklyunin.javaGLHelper.GLShapeInstancer;
+import com.github.aoklyunin.javaGLHelper.GeometryBatch;
+import jMath.aoklyunin.github.com.vector.Vector2d;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.jogamp.opengl.GL.GL_ARRAY_BUFFER;
+import static com.jogamp.opengl.GL.GL_TRIANGLES;
+import static com.jogamp.opengl.GL2.GL_QUADS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TestGLShapeInstancer {
+    /**
+     * допустимая погрешность координат: экземпляры разворачиваются в float
+     */
+    private static final double EPS = 1e-6;
+
+    /**
+     * Разобрать записанные вершины, разбив четырёхугольники на треугольники, как сетка квадрата
+     *
+     * @param vertices вершины в виде строк {@link RecordingGL}
+     * @return вершины треугольников: x, y, r, g, b, a
+     */
+    private static List<double[]> toTriangles(List<String> vertices) {
+        List<double[]> triangles = new ArrayList<>();
+        for (int i = 0; i < vertices.size(); ) {
+            String[] parts = vertices.get(i).split(" ");
+            int mode = Integer.parseInt(parts[0]);
+            if (mode == GL_QUADS) {
+                for (int k : new int[]{0, 1, 2, 0, 2, 3})
+                    triangles.add(parse(vertices.get(i + k)));
+                i += 4;
+            } else {
+                assertEquals(GL_TRIANGLES, mode);
+                triangles.add(parse(vertices.get(i)));
+                i++;
+            }
+        }
+        return triangles;
+    }
+
+    /**
+     * Разобрать записанную вершину
+     *
+     * @param vertex вершина в виде строки {@link RecordingGL}
+     * @return x, y, r, g, b, a
+     */
+    private static double[] parse(String vertex) {
+        String[] parts = vertex.split(" ");
+        return new double[]{
+                Double.parseDouble(parts[2]), Double.parseDouble(parts[3]),
+                Double.parseDouble(parts[5]), Double.parseDouble(parts[6]),
+                Double.parseDouble(parts[7]), Double.parseDouble(parts[8])
+        };
+    }
+
+    /**
+     * Проверить, что вершины треугольников совпадают с заданной точностью
+     *
+     * @param expected ожидаемые вершины
+     * @param actual   полученные вершины
+     */
+    private static void assertSameTriangles(List<String> expected, List<String> actual) {
+        List<double[]> expectedTriangles = toTriangles(expected);
+        List<double[]> actualTriangles = toTriangles(actual);
+        assertFalse(expectedTriangles.isEmpty());
+        assertEquals(expectedTriangles.size(), actualTriangles.size());
+        for (int i = 0; i < expectedTriangles.size(); i++)
+            for (int j = 0; j < 6; j++)
+                assertEquals("vertex " + i, expectedTriangles.get(i)[j], actualTriangles.get(i)[j], EPS);
+    }
+
+    @Test
+    public void testFallbackQuadsMatchRenderFilledQuad() {
+        RecordingGL expected = new RecordingGL();
+        GLAlgorithms.setColor(expected.getGL2(), 1, 0, 0, 1);
+        GLAlgorithms.renderFilledQuad(expected.getGL2(), 0.1, 0.2, 0.3, 0.15);
+        GLAlgorithms.setColor(expected.getGL2(), 0, 0.5f, 1, 0.5f);
+        GLAlgorithms.renderFilledQuad(expected.getGL2(), -0.4, 0.6, 0.05, 0.25);
+
+        RecordingGL actual = new RecordingGL();
+        GLShapeInstancer instancer = GLShapeInstancer.quads();
+        instancer.add(0.1, 0.2, 0.3, 0.15, 1, 0, 0, 1);
+        instancer.add(-0.4, 0.6, 0.05, 0.25, 0, 0.5f, 1, 0.5f);
+        instancer.flush(actual.getGL2());
+        assertFalse(instancer.isInstanced());
+        assertEquals(1, actual.getDrawCallCnt());
+        assertSameTriangles(expected.getVertices(), actual.getVertices());
+    }
+
+    @Test
+    public void testFallbackRoundedQuadsMatchRenderFilledRoundedQuad() {
+        RecordingGL expected = new RecordingGL();
+        GLAlgorithms.setColor(expected.getGL2(), 0, 1, 0, 1);
+        GLAlgorithms.renderFilledRoundedQuad(expected.getGL2(), new Vector2d(0.1, 0.2), new Vector2d(0.2, 0.2), 0.05);
+        GLAlgorithms.renderFilledRoundedQuad(expected.getGL2(), new Vector2d(-0.5, 0), new Vector2d(0.4, 0.4), 0.1);
+
+        RecordingGL actual = new RecordingGL();
+        GLShapeInstancer instancer = GLShapeInstancer.roundedQuads(0.25);
+        instancer.add(0.1, 0.2, 0.2, 0.2, 0, 1, 0, 1);
+        instancer.add(-0.5, 0, 0.4, 0.4, 0, 1, 0, 1);
+        instancer.flush(actual.getGL2());
+        assertSameTriangles(expected.getVertices(), actual.getVertices());
+    }
+
+    @Test
+    public void testFallbackKeepsOrderInActiveBatch() {
+        GLShapeInstancer instancer = GLShapeInstancer.quads();
+        RecordingGL expected = new RecordingGL();
+        renderFrame(expected, instancer);
+
+        RecordingGL actual = new RecordingGL();
+        GeometryBatch batch = new GeometryBatch();
+        batch.begin();
+        try {
+            renderFrame(actual, instancer);
+            assertEquals(0, actual.getDrawCallCnt());
+        } finally {
+            batch.end(actual.getGL2());
+        }
+        assertSameTriangles(expected.getVertices(), actual.getVertices());
+    }
+
+    @Test
+    public void testFallbackKeepsColorAndUnbindsBuffer() {
+        GLShapeInstancer instancer = GLShapeInstancer.quads();
+        RecordingGL expected = new RecordingGL();
+        renderFrame(expected, instancer);
+
+        RecordingGL actual = new RecordingGL();
+        // вершинный буфер, оставленный привязанным чужим кодом
+        actual.getGL2().glBindBuffer(GL_ARRAY_BUFFER, 7);
+        renderFrame(actual, instancer);
+        assertSameTriangles(expected.getVertices(), actual.getVertices());
+    }
+
+    /**
+     * Нарисовать квадраты по обе стороны от экземпляров
+     *
+     * @param recorder  записывающая переменная OpenGL
+     * @param instancer вывод фигур
+     */
+    private static void renderFrame(RecordingGL recorder, GLShapeInstancer instancer) {
+        GLAlgorithms.setColor(recorder.getGL2(), 1, 0, 0, 1);
+        GLAlgorithms.renderFilledQuad(recorder.getGL2(), 0, 0, 0.5, 0.5);
+        instancer.add(0.1, 0.1, 0.1, 0.1, 0, 0, 1, 1);
+        instancer.add(0.2, 0.2, 0.1, 0.1, 0, 1, 0, 1);
+        instancer.flush(recorder.getGL2());
+        // цвет, заданный до экземпляров, действует и после них
+        GLAlgorithms.renderFilledQuad(recorder.getGL2(), 0.25, 0.25, 0.5, 0.5);
+    }
+}
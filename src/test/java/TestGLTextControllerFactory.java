@@ -0,0 +1,83 @@
+import com.github.aoklyunin.javaGLHelper.CaptionParams;
+import com.github.aoklyunin.javaGLHelper.GLLabelCache;
+import com.github.aoklyunin.javaGLHelper.GLTextController;
+import com.github.aoklyunin.javaGLHelper.GLTextControllerFactory;
+import com.github.aoklyunin.javaGLHelper.GLViewport;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestGLTextControllerFactory {
+
+    @Test
+    public void testEqualParamsGetDistinctControllersWithSharedFont() {
+        Map<String, GLTextController> controllers = CaptionParams.getTextControllersFromParams(
+                Map.of("a", CaptionParams.getDefaultCaptionParams(), "b", CaptionParams.getDefaultCaptionParams()),
+                800, 600
+        );
+        GLTextController a = controllers.get("a");
+        GLTextController b = controllers.get("b");
+        assertNotSame(a, b);
+        assertSame(a.getFontKey(), b.getFontKey());
+
+        a.setLabelCache(new GLLabelCache(1 << 20));
+        a.dispose();
+        assertNull(b.getLabelCache());
+    }
+
+    @Test
+    public void testFactoryCounters() {
+        GLTextControllerFactory factory = new GLTextControllerFactory(800, 600);
+        factory.get(CaptionParams.getDefaultCaptionParams());
+        factory.get(CaptionParams.getDefaultCaptionParams());
+        assertEquals(2, factory.getControllerCnt());
+        assertEquals(1, factory.getDistinctFontCnt());
+    }
+
+    @Test
+    public void testControllerUnsubscribesOnDispose() {
+        GLViewport viewport = new GLViewport(800, 600);
+        GLTextController controller = new GLTextControllerFactory(viewport).get(CaptionParams.getDefaultCaptionParams());
+        assertEquals(0, viewport.getListenerCnt());
+
+        double width = controller.measure("text").x;
+        assertTrue(width > 0);
+        assertEquals(1, viewport.getListenerCnt());
+        viewport.setSize(400, 600);
+        assertEquals(2 * width, controller.measure("text").x, 1e-9);
+
+        controller.dispose();
+        assertEquals(0, viewport.getListenerCnt());
+        viewport.setSize(800, 600);
+        assertEquals(width, controller.measure("text").x, 1e-9);
+        assertEquals(1, viewport.getListenerCnt());
+        controller.dispose();
+    }
+
+    @Test
+    public void testEqualityIgnoresResize() {
+        GLViewport viewport = new GLViewport(800, 600);
+        GLTextControllerFactory factory = new GLTextControllerFactory(viewport);
+        CaptionParams captionParams = CaptionParams.getDefaultCaptionParams();
+        GLTextController controller = factory.get(captionParams);
+        Set<GLTextController> controllers = new HashSet<>(Set.of(controller));
+        String string = controller.toString();
+
+        controller.measure("text");
+        viewport.setSize(400, 300);
+        assertTrue(controllers.contains(controller));
+        assertEquals(string, controller.toString());
+        assertEquals(controller, factory.get(captionParams));
+        assertNotEquals(controller, new GLTextControllerFactory(new GLViewport(400, 300)).get(captionParams));
+        controller.dispose();
+    }
+}
@@ -0,0 +1,139 @@
+import com.github.aoklyunin.javaGLHelper.GLAlgorithms;
+import com.github.aoklyunin.javaGLHelper.GeometryBatch;
+import com.github.aoklyunin.javaGLHelper.scrollers.params.SimpleScrollerParams;
+import com.github.aoklyunin.javaGLHelper.scrollers.scrollers.SimpleScroller;
+import com.jogamp.opengl.GL2;
+import jMath.aoklyunin.github.com.vector.Vector2d;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestGeometryBatch {
+    /**
+     * Нарисовать кадр сразу и внутри пакета геометрии
+     *
+     * @param frame рисование кадра
+     * @return выведенные вершины: сначала без пакета, потом с пакетом
+     */
+    private static List<List<String>> renderBothWays(Consumer<GL2> frame) {
+        RecordingGL immediate = new RecordingGL();
+        frame.accept(immediate.getGL2());
+
+        RecordingGL batched = new RecordingGL();
+        GeometryBatch batch = new GeometryBatch();
+        batch.begin();
+        try {
+            frame.accept(batched.getGL2());
+        } finally {
+            batch.end(batched.getGL2());
+        }
+        return List.of(immediate.getVertices(), batched.getVertices());
+    }
+
+    /**
+     * Проверить, что кадр выглядит одинаково сразу и внутри пакета
+     *
+     * @param frame рисование кадра
+     */
+    private static void assertSameInBatch(Consumer<GL2> frame) {
+        List<List<String>> vertices = renderBothWays(frame);
+        assertTrue(vertices.get(0).size() > 0);
+        assertEquals(vertices.get(0), vertices.get(1));
+    }
+
+    @Test
+    public void testPrimitiveTypesKeepSubmissionOrder() {
+        assertSameInBatch(gl2 -> {
+            GLAlgorithms.setColor(gl2, 1, 0, 0, 1);
+            GLAlgorithms.renderFilledRoundedQuad(gl2, new Vector2d(0.1, 0.1), new Vector2d(0.2, 0.1), 0.02);
+            GLAlgorithms.setColor(gl2, 0, 0, 1, 1);
+            GLAlgorithms.renderFilledQuad(gl2, 0.15, 0.12, 0.05, 0.05);
+            GLAlgorithms.renderLine(gl2, new Vector2d(0, 0), new Vector2d(1, 1));
+            GLAlgorithms.setColor(gl2, 0, 1, 0, 0.5f);
+            GLAlgorithms.renderFilledCircle(gl2, 0.5, 0.5, 0.1, 0.1, 16);
+            GLAlgorithms.renderFilledQuad(gl2, 0.5, 0.5, 0.05, 0.05);
+        });
+    }
+
+    @Test
+    public void testSameDrawCallsForConsecutivePrimitives() {
+        RecordingGL recorder = new RecordingGL();
+        GeometryBatch batch = new GeometryBatch();
+        batch.begin();
+        for (int i = 0; i < 10; i++)
+            GLAlgorithms.renderFilledQuad(recorder.getGL2(), 0.1 * i, 0, 0.05, 0.05);
+        GLAlgorithms.renderFilledCircle(recorder.getGL2(), 0.5, 0.5, 0.1, 0.1, 16);
+        GLAlgorithms.renderFilledQuad(recorder.getGL2(), 0, 0, 0.05, 0.05);
+        batch.end(recorder.getGL2());
+        assertEquals(3, recorder.getDrawCallCnt());
+        assertEquals(11 * 4 + 14 * 3, recorder.getVertices().size());
+    }
+
+    @Test
+    public void testScrollersLookSameInBatch() {
+        for (SimpleScrollerParams.ScrollerType type : SimpleScrollerParams.ScrollerType.values()) {
+            SimpleScroller scroller = new SimpleScroller(
+                    () -> 20L, () -> 7L, null,
+                    new SimpleScrollerParams(type, 0.035, 0.085, 5, 0.685, 0.2, 0)
+            );
+            assertSameInBatch(gl2 -> {
+                GLAlgorithms.setColor(gl2, 1, 0, 0, 1);
+                GLAlgorithms.renderFilledQuad(gl2, 0.6, 0.03, 0.3, 0.06);
+                scroller.renderScroller(gl2, 7);
+                GLAlgorithms.setColor(gl2, 0, 0, 1, 1);
+                GLAlgorithms.renderLineQuad(gl2, 0.6, 0.03, 0.3, 0.06);
+            });
+        }
+    }
+
+    @Test
+    public void testActiveBatchIsPerThread() throws InterruptedException {
+        RecordingGL recorder = new RecordingGL();
+        GeometryBatch batch = new GeometryBatch();
+        batch.begin();
+        try {
+            RecordingGL otherRecorder = new RecordingGL();
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            Thread other = new Thread(() -> {
+                try {
+                    GLAlgorithms.renderFilledQuad(otherRecorder.getGL2(), 0, 0, 0.1, 0.1);
+                    GeometryBatch otherBatch = new GeometryBatch();
+                    otherBatch.begin();
+                    GLAlgorithms.renderFilledQuad(otherRecorder.getGL2(), 0, 0, 0.1, 0.1);
+                    otherBatch.end(otherRecorder.getGL2());
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+            });
+            other.start();
+            other.join();
+            assertEquals(null, error.get());
+            assertEquals(8, otherRecorder.getVertices().size());
+            assertTrue(batch.isEmpty());
+        } finally {
+            batch.end(recorder.getGL2());
+        }
+        assertEquals(0, recorder.getVertices().size());
+    }
+
+    @Test
+    public void testColorSurvivesFlush() {
+        RecordingGL recorder = new RecordingGL();
+        GeometryBatch batch = new GeometryBatch();
+        batch.begin();
+        GLAlgorithms.setColor(recorder.getGL2(), 1, 0, 0, 1);
+        GLAlgorithms.renderFilledQuad(recorder.getGL2(), 0, 0, 0.1, 0.1);
+        GLAlgorithms.setColor(recorder.getGL2(), 0, 1, 0, 1);
+        batch.end(recorder.getGL2());
+        // после пакета цвет остаётся последним заданным, а не цветом последней вершины
+        GLAlgorithms.renderFilledQuad(recorder.getGL2(), 0.5, 0.5, 0.1, 0.1);
+        List<String> vertices = recorder.getVertices();
+        assertEquals(8, vertices.size());
+        assertTrue(vertices.get(7), vertices.get(7).endsWith(" 0.0 1.0 0.0 1.0"));
+    }
+}
@@ -0,0 +1,54 @@
+import com.github.aoklyunin.javaGLHelper.FontKey;
+import com.github.aoklyunin.javaGLHelper.GlyphAtlas;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestGlyphAtlas {
+    /**
+     * Проверить, что стороны атласа - степени двойки, атлас близок к квадрату,
+     * а все глифы лежат внутри атласа
+     *
+     * @param atlas атлас глифов
+     */
+    private static void assertPacked(GlyphAtlas atlas) {
+        int width = atlas.getWidth();
+        int height = atlas.getHeight();
+        assertEquals(atlas.toString(), Integer.highestOneBit(width), width);
+        assertEquals(atlas.toString(), Integer.highestOneBit(height), height);
+        assertTrue(atlas.toString(), width <= 2 * height && height <= 2 * width);
+        for (int i = 0; i < atlas.getGlyphCnt(); i++) {
+            assertTrue(atlas.getGlyphX(i) + atlas.getGlyphWidth(i) < width);
+            assertTrue(atlas.getGlyphY(i) + atlas.getGlyphHeight(i) < height);
+        }
+    }
+
+    @Test
+    public void testAtlasGrowsWithFontSize() {
+        GlyphAtlas small = GlyphAtlas.rasterize(new FontKey("Arial", false, 12));
+        GlyphAtlas large = GlyphAtlas.rasterize(new FontKey("Arial", false, 96));
+        assertPacked(small);
+        assertPacked(large);
+        assertTrue(small.getWidth() < 512);
+        assertTrue(large.getWidth() > 512);
+    }
+
+    @Test
+    public void testWideGlyphsFitAtlas() {
+        // глифы шире прежней ширины атласа в 512 пикселей
+        GlyphAtlas atlas = GlyphAtlas.rasterize(new FontKey("Arial", true, 600));
+        assertTrue(atlas.getGlyphWidth(atlas.getGlyphId('W')) > 510);
+        assertPacked(atlas);
+    }
+
+    @Test
+    public void testSdfAtlasIsPacked() {
+        assertPacked(GlyphAtlas.rasterizeSdf(new FontKey("Arial", false, 32), 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOversizedGlyphIsRejected() {
+        GlyphAtlas.rasterize(new FontKey("Arial", false, GlyphAtlas.MAX_SIZE * 2));
+    }
+}
@@ -0,0 +1,90 @@
+import com.github.aoklyunin.javaGLHelper.CaptionParams;
+import com.github.aoklyunin.javaGLHelper.FontKey;
+import com.github.aoklyunin.javaGLHelper.GLAtlasTextRenderer;
+import com.github.aoklyunin.javaGLHelper.GLTextBatch;
+import com.github.aoklyunin.javaGLHelper.GLTextController;
+import com.github.aoklyunin.javaGLHelper.GlyphAtlas;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+
+public class TestTextAllocation {
+    /**
+     * кол-во строк в одном кадре
+     */
+    private static final int LINE_CNT = 64;
+    /**
+     * кол-во измеряемых кадров
+     */
+    private static final int FRAME_CNT = 200;
+
+    /**
+     * Получить кол-во байт, выделенных текущим потоком
+     *
+     * @return кол-во выделенных байт
+     */
+    private static long getAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Вывести кадр текста
+     *
+     * @param textController контроллер текста
+     * @param lines          строки
+     */
+    private static void drawFrame(GLTextController textController, String[] lines) {
+        for (int i = 0; i < lines.length; i++)
+            textController.drawText(lines[i], 0.1, 0.05 + 0.01 * i, 0xFFC080FF);
+    }
+
+    /**
+     * Проверить, что вывод текста в установившемся режиме не выделяет память.
+     * Выделения на само измерение не зависят от кол-ва кадров, поэтому
+     * допускается меньше байта на строку
+     *
+     * @param textController контроллер текста
+     * @param afterFrame     действие после кадра, возвращающее очередь в исходное состояние
+     */
+    private static void assertNoAllocation(GLTextController textController, Runnable afterFrame) {
+        String[] lines = new String[LINE_CNT];
+        for (int i = 0; i < lines.length; i++)
+            lines[i] = "line " + i;
+        for (int i = 0; i < FRAME_CNT; i++) {
+            drawFrame(textController, lines);
+            afterFrame.run();
+        }
+        long start = getAllocatedBytes();
+        for (int i = 0; i < FRAME_CNT; i++) {
+            drawFrame(textController, lines);
+            afterFrame.run();
+        }
+        long allocated = getAllocatedBytes() - start;
+        assertTrue("allocated " + allocated + " bytes", allocated < LINE_CNT * FRAME_CNT);
+    }
+
+    @Test
+    public void testTextBatchAllocation() {
+        GLTextController textController = new GLTextController(800, 600, CaptionParams.getDefaultCaptionParams());
+        GLTextBatch textBatch = new GLTextBatch();
+        textController.setTextBatch(textBatch);
+        try {
+            assertNoAllocation(textController, textBatch::clear);
+        } finally {
+            textBatch.dispose();
+            textController.dispose();
+        }
+    }
+
+    @Test
+    public void testAtlasTextAllocation() {
+        CaptionParams captionParams = CaptionParams.getDefaultCaptionParams();
+        GLTextController textController = new GLTextController(800, 600, captionParams);
+        GLAtlasTextRenderer atlasTextRenderer = new GLAtlasTextRenderer(GlyphAtlas.rasterize(FontKey.of(captionParams)));
+        textController.setAtlasTextRenderer(atlasTextRenderer);
+        assertNoAllocation(textController, atlasTextRenderer::clear);
+    }
+}
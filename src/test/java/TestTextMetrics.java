@@ -0,0 +1,102 @@
+import com.github.aoklyunin.javaGLHelper.CaptionParams;
+import com.github.aoklyunin.javaGLHelper.GLTextController;
+import com.github.aoklyunin.javaGLHelper.TextMetricsCache;
+import jMath.aoklyunin.github.com.vector.Vector2d;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestTextMetrics {
+    /**
+     * ширина окна
+     */
+    private static final int CLIENT_WIDTH = 800;
+    /**
+     * ёмкость кэша до теста
+     */
+    private int capacity;
+    /**
+     * контроллер текста
+     */
+    private GLTextController textController;
+
+    @Before
+    public void setUp() {
+        capacity = TextMetricsCache.getCapacity();
+        TextMetricsCache.clear();
+        textController = new GLTextController(CLIENT_WIDTH, 600, CaptionParams.getDefaultCaptionParams());
+    }
+
+    @After
+    public void tearDown() {
+        textController.dispose();
+        TextMetricsCache.setCapacity(capacity);
+        TextMetricsCache.clear();
+    }
+
+    /**
+     * Проверить, попало ли измерение строки в кэш
+     *
+     * @param text строка
+     * @return флаг, попало ли измерение в кэш
+     */
+    private boolean measureHits(String text) {
+        long hitCnt = TextMetricsCache.getHitCnt();
+        long missCnt = TextMetricsCache.getMissCnt();
+        textController.measure(text);
+        assertEquals(1, TextMetricsCache.getHitCnt() - hitCnt + TextMetricsCache.getMissCnt() - missCnt);
+        return TextMetricsCache.getHitCnt() > hitCnt;
+    }
+
+    @Test
+    public void testRepeatedMeasureHitsCache() {
+        assertFalse(measureHits("fps 60"));
+        Vector2d size = textController.measure("fps 60");
+        assertTrue(measureHits("fps 60"));
+        Vector2d cachedSize = textController.measure("fps 60");
+        assertEquals(size.x, cachedSize.x, 0);
+        assertEquals(size.y, cachedSize.y, 0);
+        assertTrue(size.x > 0 && size.y > 0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        TextMetricsCache.setCapacity(2);
+        assertFalse(measureHits("a"));
+        assertFalse(measureHits("b"));
+        assertTrue(measureHits("a"));
+        // "b" использовалась давно и вытесняется
+        assertFalse(measureHits("c"));
+        assertTrue(measureHits("a"));
+        assertTrue(measureHits("c"));
+        assertFalse(measureHits("b"));
+    }
+
+    @Test
+    public void testLayoutWrapsAtMaxWidth() {
+        String text = "the quick brown fox jumps over the lazy dog";
+        double maxWidth = 0.15;
+        List<String> lines = textController.layout(text, maxWidth);
+        assertTrue(lines.toString(), lines.size() > 1);
+        assertEquals(text, String.join(" ", lines));
+        for (String line : lines)
+            assertTrue(line, textController.measure(line).x * CLIENT_WIDTH <= (int) (maxWidth * CLIENT_WIDTH));
+        // следующее слово не поместилось бы в строку
+        for (int i = 0; i + 1 < lines.size(); i++) {
+            String extended = lines.get(i) + " " + lines.get(i + 1).split(" ")[0];
+            assertTrue(extended, textController.measure(extended).x * CLIENT_WIDTH > (int) (maxWidth * CLIENT_WIDTH));
+        }
+        assertSame(lines, textController.layout(text, maxWidth));
+
+        // слово шире строки занимает строку целиком
+        assertEquals(List.of("a", "incomprehensibilities", "b"), textController.layout("a incomprehensibilities b", 0.05));
+        assertEquals(List.of("one", "", "two"), textController.layout("one\n\ntwo", 1));
+    }
+}
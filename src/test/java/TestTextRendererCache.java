@@ -0,0 +1,47 @@
+import com.github.aoklyunin.javaGLHelper.FontKey;
+import com.github.aoklyunin.javaGLHelper.GLTextBatch;
+import com.github.aoklyunin.javaGLHelper.TextRendererCache;
+import com.jogamp.opengl.util.awt.TextRenderer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class TestTextRendererCache {
+
+    @Test
+    public void testReleaseAfterDisposeAll() {
+        FontKey fontKey = new FontKey("Arial", false, 31);
+        TextRenderer stale = TextRendererCache.acquire(fontKey);
+        int generation = TextRendererCache.getGeneration();
+        TextRendererCache.disposeAll();
+        assertEquals(generation + 1, TextRendererCache.getGeneration());
+        assertEquals(0, TextRendererCache.getLiveTextureCnt());
+
+        TextRendererCache.release(fontKey, stale);
+        assertEquals(0, TextRendererCache.getLiveTextureCnt());
+
+        // отпускание рисовальщика прошлого поколения не затрагивает новый рисовальщик того же шрифта
+        TextRenderer fresh = TextRendererCache.acquire(fontKey);
+        assertNotSame(stale, fresh);
+        TextRendererCache.release(fontKey, stale);
+        assertEquals(1, TextRendererCache.getLiveTextureCnt());
+        TextRendererCache.release(fontKey, fresh);
+        assertEquals(0, TextRendererCache.getLiveTextureCnt());
+    }
+
+    @Test
+    public void testTextBatchAfterDisposeAll() {
+        FontKey fontKey = new FontKey("Arial", false, 33);
+        GLTextBatch textBatch = new GLTextBatch();
+        textBatch.add(fontKey, "text", 10, 10, 1, 1, 1, 1);
+        TextRendererCache.disposeAll();
+        textBatch.dispose();
+        assertEquals(0, TextRendererCache.getLiveTextureCnt());
+
+        textBatch.add(fontKey, "text", 10, 10, 1, 1, 1, 1);
+        assertEquals(1, TextRendererCache.getLiveTextureCnt());
+        textBatch.dispose();
+        assertEquals(0, TextRendererCache.getLiveTextureCnt());
+    }
+}
@@ -0,0 +1,138 @@
+import com.github.aoklyunin.javaGLHelper.UnitCircleTable;
+
+import static java.lang.Math.*;
+
+/**
+ * Сравнение построения вершин скруглённого квадрата и круга с вычислением
+ * тригонометрических функций и по таблицам {@link UnitCircleTable}.
+ * Замер также проверяет, что вершины совпадают до бита
+ */
+public class UnitCircleTableBenchmark {
+    /**
+     * кол-во фигур в одном замере
+     */
+    private static final int SHAPE_CNT = 1_000_000;
+    /**
+     * кол-во сегментов круга
+     */
+    private static final int SEGMENT_CNT = 32;
+
+    /**
+     * Построить вершины скруглённого квадрата, вычисляя тригонометрические функции,
+     * как до появления таблиц
+     *
+     * @param x   X координата левой нижней вершины
+     * @param y   Y координата левой нижней вершины
+     * @param rad радиус скругления
+     * @param out массив координат
+     */
+    private static void roundedQuadTrig(double x, double y, double rad, double[] out) {
+        int k = 0;
+        for (double i = 0; i < 10; i++) {
+            out[k++] = x + rad * (1 - cos(i / 20 * PI));
+            out[k++] = y + rad * (1 - sin(i / 20 * PI));
+        }
+    }
+
+    /**
+     * Построить вершины скруглённого квадрата по таблице
+     *
+     * @param x   X координата левой нижней вершины
+     * @param y   Y координата левой нижней вершины
+     * @param rad радиус скругления
+     * @param out массив координат
+     */
+    private static void roundedQuadTable(double x, double y, double rad, double[] out) {
+        UnitCircleTable corner = UnitCircleTable.ROUNDED_CORNER;
+        int k = 0;
+        for (int i = 0; i < corner.getSize(); i++) {
+            out[k++] = x + rad * (1 - corner.cos(i));
+            out[k++] = y + rad * (1 - corner.sin(i));
+        }
+    }
+
+    /**
+     * Построить вершины круга, вычисляя тригонометрические функции
+     *
+     * @param cx  X координата центра
+     * @param cy  Y координата центра
+     * @param r   радиус
+     * @param out массив координат
+     */
+    private static void circleTrig(double cx, double cy, double r, double[] out) {
+        for (int i = 0; i < SEGMENT_CNT; i++) {
+            double theta = 2 * PI * i / SEGMENT_CNT;
+            out[2 * i] = r * cos(theta) + cx;
+            out[2 * i + 1] = r * sin(theta) + cy;
+        }
+    }
+
+    /**
+     * Построить вершины круга по таблице
+     *
+     * @param cx  X координата центра
+     * @param cy  Y координата центра
+     * @param r   радиус
+     * @param out массив координат
+     */
+    private static void circleTable(double cx, double cy, double r, double[] out) {
+        UnitCircleTable table = UnitCircleTable.of(SEGMENT_CNT);
+        for (int i = 0; i < SEGMENT_CNT; i++) {
+            out[2 * i] = r * table.cos(i) + cx;
+            out[2 * i + 1] = r * table.sin(i) + cy;
+        }
+    }
+
+    /**
+     * Построитель вершин фигуры
+     */
+    private interface ShapeBuilder {
+        /**
+         * Построить вершины фигуры
+         *
+         * @param x   X координата
+         * @param y   Y координата
+         * @param r   радиус
+         * @param out массив координат
+         */
+        void build(double x, double y, double r, double[] out);
+    }
+
+    /**
+     * Замерить построение фигур
+     *
+     * @param name    название замера
+     * @param builder построитель вершин
+     * @param out     массив координат
+     * @return сумма битов всех координат для проверки совпадения
+     */
+    private static long measure(String name, ShapeBuilder builder, double[] out) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int s = 0; s < SHAPE_CNT; s++) {
+            builder.build(s * 1e-3, s * 2e-3, 0.01 + s * 1e-7, out);
+            for (double v : out)
+                checksum = 31 * checksum + Double.doubleToRawLongBits(v);
+        }
+        if (name != null)
+            System.out.printf("%-18s: %6.1f ns/shape%n", name, (double) (System.nanoTime() - start) / SHAPE_CNT);
+        return checksum;
+    }
+
+    public static void main(String[] args) {
+        double[] quad = new double[20];
+        double[] circle = new double[2 * SEGMENT_CNT];
+        // прогрев JIT
+        for (int i = 0; i < 3; i++) {
+            measure(null, UnitCircleTableBenchmark::roundedQuadTrig, quad);
+            measure(null, UnitCircleTableBenchmark::roundedQuadTable, quad);
+            measure(null, UnitCircleTableBenchmark::circleTrig, circle);
+            measure(null, UnitCircleTableBenchmark::circleTable, circle);
+        }
+        long quadTrig = measure("rounded quad trig", UnitCircleTableBenchmark::roundedQuadTrig, quad);
+        long quadTable = measure("rounded quad table", UnitCircleTableBenchmark::roundedQuadTable, quad);
+        long circleTrig = measure("circle trig", UnitCircleTableBenchmark::circleTrig, circle);
+        long circleTable = measure("circle table", UnitCircleTableBenchmark::circleTable, circle);
+        System.out.println("bit-identical: " + (quadTrig == quadTable && circleTrig == circleTable));
+    }
+}